@@ -4,6 +4,7 @@ plugins {
 	id("org.springframework.boot") version "3.5.7"
 	id("io.spring.dependency-management") version "1.1.6"
 	id("io.freefair.lombok") version "8.6"
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "ru.myguitarlib"
@@ -30,6 +31,10 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("com.h2database:h2")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	// кэш второго уровня Hibernate: JCache поверх Caffeine (регионы - src/main/resources/application.conf)
+	implementation("org.hibernate.orm:hibernate-jcache")
+	implementation("com.github.ben-manes.caffeine:jcache")
 
 	// Inertia4J Spring adapter (1.0.4)
 	// implementation("io.github.inertia4j:inertia4j-spring:1.0.4")
@@ -47,12 +52,31 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-security")
 	implementation("org.springframework.boot:spring-boot-starter-oauth2-resource-server")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
+
+	// метрики: /actuator/prometheus (см. management в application.yml, ru.myguitarlib.metrics)
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
+	// hibernate.* метрики, в том числе по регионам кэша второго уровня
+	implementation("org.hibernate.orm:hibernate-micrometer")
 }
 
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
 
+// бенчмарки: ./gradlew jmh (исходники в src/jmh/java)
+// один класс: ./gradlew jmh -PjmhIncludes=ChordParserBenchmark
+// результаты в JSON: build/reports/jmh/results.json - удобно сравнивать прогоны (jmh.morethan.io и т.п.)
+jmh {
+	warmupIterations = 2
+	iterations = 5
+	fork = 1
+	resultFormat = "JSON"
+	resultsFile = layout.buildDirectory.file("reports/jmh/results.json")
+	(findProperty("jmhIncludes") as String?)?.let { includes = listOf(it) }
+	(findProperty("jmhProfilers") as String?)?.let { profilers = listOf(it) }
+}
+
 application {
 	mainClass.set("ru.myguitarlib.MyGuitarLibApplication")
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+// src/api/setlists.ts
+
+import http from './http';
+import { Song, ApiResponse } from '../types';
+
+export interface SetlistSummary {
+    id: number;
+    name: string;
+    songs: number;
+}
+
+export interface SetlistEntry {
+    position: number;
+    songId: number;
+    semitones: number;
+    artist: string;
+    title: string;
+    song: Song | null;   // уже в тональности записи; null - вне окна prefetch
+}
+
+export interface Setlist {
+    id: number;
+    name: string;
+    entries: SetlistEntry[];
+}
+
+export interface SetlistUpsert {
+    name: string;
+    entries: { songId: number; semitones: number }[];
+}
+
+export const setlistsApi = {
+    getAll: async (): Promise<SetlistSummary[]> => {
+        const response = await http.get<ApiResponse<SetlistSummary[]>>('/setlist');
+        return response.data.data;
+    },
+
+    // без prefetch - все песни; с prefetch - from и следующие prefetch песен
+    getById: async (id: number, from = 0, prefetch?: number): Promise<Setlist> => {
+        const params = new URLSearchParams();
+        params.set('from', String(from));
+        if (prefetch !== undefined) params.set('prefetch', String(prefetch));
+        const response = await http.get<ApiResponse<Setlist>>(`/setlist/${id}?${params.toString()}`);
+        return response.data.data;
+    },
+
+    create: async (data: SetlistUpsert): Promise<Setlist> => {
+        const response = await http.post<ApiResponse<Setlist>>('/setlist', data);
+        return response.data.data;
+    },
+
+    update: async (id: number, data: SetlistUpsert): Promise<Setlist> => {
+        const response = await http.put<ApiResponse<Setlist>>(`/setlist/${id}`, data);
+        return response.data.data;
+    },
+
+    delete: async (id: number): Promise<void> => {
+        await http.delete(`/setlist/${id}`);
+    },
+};
@@ -0,0 +1,98 @@
+// src/api/songWire.ts
+// Разбор двоичного ответа GET /song/{id} (application/vnd.myguitarlib.song+binary).
+// Формат - SongWireCodec и ChordTrackCodec на сервере.
+
+import { Song, SongChord } from '../types';
+
+export const SONG_BINARY = 'application/vnd.myguitarlib.song+binary';
+
+const ID = 1;
+const SCROLL_SPEED = 1 << 1;
+const FONT_SIZE = 1 << 2;
+const ARTIST = 1 << 3;
+const TITLE = 1 << 4;
+const COMMENT = 1 << 5;
+const LYRICS = 1 << 6;
+const CHORDS = 1 << 7;
+
+const utf8 = new TextDecoder();
+
+class Reader {
+    private pos = 0;
+
+    constructor(private readonly data: Uint8Array) {}
+
+    byte(): number {
+        if (this.pos >= this.data.length) throw new Error('song: данные закончились раньше времени');
+        return this.data[this.pos++];
+    }
+
+    // до 2^53 - для id хватает
+    varint(): number {
+        let value = 0;
+        let scale = 1;
+        for (;;) {
+            const b = this.byte();
+            value += (b & 0x7f) * scale;
+            if ((b & 0x80) === 0) return value;
+            scale *= 128;
+        }
+    }
+
+    zigzag(): number {
+        const v = this.varint();
+        return v % 2 === 0 ? v / 2 : -(v + 1) / 2;
+    }
+
+    bytes(): Uint8Array {
+        const length = this.varint();
+        if (length > this.data.length - this.pos) throw new Error('song: некорректная длина');
+        const result = this.data.subarray(this.pos, this.pos + length);
+        this.pos += length;
+        return result;
+    }
+
+    string(): string {
+        return utf8.decode(this.bytes());
+    }
+}
+
+function decodeChords(track: Uint8Array): SongChord[] {
+    const r = new Reader(track);
+    if (r.byte() !== 1) throw new Error('song: неизвестная версия дорожки аккордов');
+
+    const symbols: string[] = [];
+    for (let n = r.varint(); n > 0; n--) symbols.push(r.string());
+
+    const chords: SongChord[] = [];
+    let line = 0;
+    let ch = 0;
+    for (let n = r.varint(); n > 0; n--) {
+        const lineDelta = r.zigzag();
+        const charDelta = r.zigzag();
+        line += lineDelta;
+        ch = (lineDelta === 0 ? ch : 0) + charDelta;
+        // у аккордов в двоичном формате нет id строки song_chords
+        chords.push({ id: 0, lineIndex: line, charIndex: ch, chord: symbols[r.varint()] });
+    }
+    return chords;
+}
+
+export function decodeSong(buffer: ArrayBuffer): Song {
+    const r = new Reader(new Uint8Array(buffer));
+    if (r.byte() !== 1) throw new Error('song: неизвестная версия формата');
+    const mask = r.byte();
+
+    // незаполненные на сервере поля (null) в JSON приходят как null - здесь так же
+    const song: Record<string, unknown> = {
+        id: mask & ID ? r.varint() : null,
+        scrollSpeed: mask & SCROLL_SPEED ? r.zigzag() : null,
+        fontSize: mask & FONT_SIZE ? r.zigzag() : null,
+        artist: mask & ARTIST ? r.string() : null,
+        title: mask & TITLE ? r.string() : null,
+        comment: mask & COMMENT ? r.string() : null,
+        lyrics: mask & LYRICS ? r.string() : null,
+    };
+    song.chords = mask & CHORDS ? decodeChords(r.bytes()) : null;
+    return song as unknown as Song;
+}
@@ -2,6 +2,7 @@
 
 import http from './http';
 import { Song, SongChord, ApiResponse } from '../types';
+import { decodeSong, SONG_BINARY } from './songWire';
 
 export interface SongUpsert {
     artist: string;
@@ -14,20 +15,42 @@ export interface SongUpsert {
     tonality: number | null;
 }
 
+// PATCH /song/{id}: только то, что изменилось
+export interface SongPatch {
+    artist?: string;
+    title?: string;
+    comment?: string | null;
+    scrollSpeed?: number;
+    fontSize?: number;
+    lyrics?: { fromLine: number; toLine: number; text: string };   // замена строк [fromLine, toLine)
+    removeChords?: { lineIndex: number; charIndex: number }[];
+    addChords?: SongChord[];
+}
+
 export interface ArtistTitleDto {
     id: number;
     artist: string;
     title: string;
+    key?: string;       // тональность по аккордам: "Am", "F#"; нет - не определена
+    snippet?: string;   // строка текста с совпадением (только при поиске)
+    score?: number;
+}
+
+export interface SongPage {
+    items: ArtistTitleDto[];
+    nextCursor: string | null;   // null - последняя страница
 }
 
 export const songsApi = {
     getAll: async (
         q?: string,
         sortBy: 'artist' | 'title' = 'artist',
-        dir: 'asc' | 'desc' = 'asc'
+        dir: 'asc' | 'desc' = 'asc',
+        key?: string
     ): Promise<ArtistTitleDto[]> => {
         const params = new URLSearchParams();
         if (q) params.set('q', q.trim());
+        if (key) params.set('key', key);
         params.set('sortBy', sortBy);
         params.set('dir', dir);
         const response = await http.get<ApiResponse<ArtistTitleDto[]>>(
@@ -36,10 +59,39 @@ export const songsApi = {
         return response.data.data;
     },
 
+    // постранично (для больших библиотек): cursor - nextCursor предыдущей страницы
+    getPage: async (
+        sortBy: 'artist' | 'title' = 'artist',
+        dir: 'asc' | 'desc' = 'asc',
+        limit = 50,
+        cursor?: string | null,
+        q?: string,
+        key?: string
+    ): Promise<SongPage> => {
+        const params = new URLSearchParams();
+        if (q) params.set('q', q.trim());
+        if (key) params.set('key', key);
+        params.set('sortBy', sortBy);
+        params.set('dir', dir);
+        params.set('limit', String(limit));
+        if (cursor) params.set('cursor', cursor);
+        const response = await http.get<ApiResponse<SongPage>>(
+            `/song/page?${params.toString()}`
+        );
+        return response.data.data;
+    },
+
+    // ответы песни и списка приходят с ETag и Cache-Control: no-cache - повторный запрос
+    // браузер сам отправит с If-None-Match и на 304 отдаст тело из своего кэша
+    // песня в двоичном виде (аккорды - в несколько раз меньше JSON); ошибки сервер отдаёт JSON'ом
     getById: async (id: number, ton?: number): Promise<Song> => {
         const params = ton !== undefined ? { ton } : {};
-        const response = await http.get<ApiResponse<Song>>(`/song/${id}`, { params });
-        return response.data.data;
+        const response = await http.get<ArrayBuffer>(`/song/${id}`, {
+            params,
+            responseType: 'arraybuffer',
+            headers: { Accept: `${SONG_BINARY}, application/json;q=0.5` },
+        });
+        return decodeSong(response.data);
     },
 
     create: async (data: SongUpsert): Promise<Song> => {
@@ -52,6 +104,11 @@ export const songsApi = {
         return response.data.data;
     },
 
+    patch: async (id: number, data: SongPatch): Promise<Song> => {
+        const response = await http.patch<ApiResponse<Song>>(`/song/${id}`, data);
+        return response.data.data;
+    },
+
     delete: async (id: number): Promise<void> => {
         await http.delete(`/song/${id}`);
     },
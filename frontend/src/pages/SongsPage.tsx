@@ -225,6 +225,11 @@ export const SongsPage = () => {
                     {song.title}
                   </span>
                                 </div>
+                                {song.snippet && (
+                                    <div className="text-sm text-slate-500 mt-1 truncate">
+                                        {song.snippet}
+                                    </div>
+                                )}
                             </Link>
                         ))}
                     </div>
@@ -0,0 +1,74 @@
+// Волна входов и чтение песен одновременно (k6, https://k6.io).
+//
+//   k6 run loadtest/auth-storm.js
+//   k6 run -e BASE_URL=http://localhost:8080 -e LOGIN_RATE=200 loadtest/auth-storm.js
+//
+// Сценарий logins - "класс студентов": LOGIN_RATE входов в секунду, в 20 раз больше, чем
+// тянет пул BCrypt (app.security.password.threads). Сценарий reads в это же время читает песни
+// под уже выданным токеном. Ожидание: часть входов получает 503 + Retry-After,
+// а p95 чтения песен остаётся таким же, как без нагрузки на вход (сравнить с -e LOGIN_RATE=0).
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend, Rate } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const EMAIL = __ENV.EMAIL || '123@123.com';
+const PASSWORD = __ENV.PASSWORD || '123123123';
+const LOGIN_RATE = Number(__ENV.LOGIN_RATE || 100);
+
+const songRead = new Trend('song_read_ms', true);
+const loginBusy = new Rate('login_busy');
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'constant-arrival-rate',
+            exec: 'readSongs',
+            rate: 50, timeUnit: '1s', duration: '1m',
+            preAllocatedVUs: 20, maxVUs: 100,
+        },
+        ...(LOGIN_RATE > 0 ? {
+            logins: {
+                executor: 'constant-arrival-rate',
+                exec: 'login',
+                rate: LOGIN_RATE, timeUnit: '1s', duration: '1m',
+                preAllocatedVUs: 50, maxVUs: 400,
+            },
+        } : {}),
+    },
+    thresholds: {
+        song_read_ms: ['p(95)<100'],
+    },
+};
+
+function doLogin() {
+    return http.post(`${BASE_URL}/api/v1/auth/login`,
+        JSON.stringify({ email: EMAIL, password: PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+}
+
+export function setup() {
+    const res = doLogin();
+    check(res, { 'setup login 200': (r) => r.status === 200 });
+    const token = res.cookies.access_token[0].value;
+    const list = http.get(`${BASE_URL}/api/v1/song`, { cookies: { access_token: token } });
+    const ids = list.json('data').map((s) => s.id);
+    return { token, ids };
+}
+
+export function readSongs(data) {
+    const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+    const res = http.get(`${BASE_URL}/api/v1/song/${id}`, { cookies: { access_token: data.token } });
+    check(res, { 'song 200': (r) => r.status === 200 });
+    songRead.add(res.timings.duration);
+}
+
+export function login() {
+    const res = doLogin();
+    check(res, {
+        'login 200 or 503': (r) => r.status === 200 || r.status === 503,
+        '503 has Retry-After': (r) => r.status !== 503 || r.headers['Retry-After'] !== undefined,
+    });
+    loginBusy.add(res.status === 503);
+}
@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+# Кэш второго уровня Hibernate выключен / включён под одной и той же нагрузкой (library-mixed.js).
+# Каждый режим - свежий запуск приложения (профиль dev, H2 в памяти, демо-пользователь);
+# после прогона снимается /api/v1/stats: сколько запросов ушло в базу и попадания по регионам.
+#
+#   ./gradlew bootJar && loadtest/compare-l2.sh
+#   VUS=200 DURATION=2m loadtest/compare-l2.sh
+#
+# Нужны java 21, k6, curl и jq. Итоги: build/loadtest/l2-{off,on}.json, l2-{off,on}-stats.json и таблица в конце.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=${JAR:-$(ls build/libs/*.jar | grep -v -- '-plain' | head -n 1)}
+OUT=build/loadtest
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:$PORT"
+mkdir -p "$OUT"
+
+run_mode() {
+    local mode=$1 l2=$2
+    echo "== $mode: запуск $JAR (L2_CACHE=$l2)"
+    L2_CACHE=$l2 java -jar "$JAR" --server.port="$PORT" --spring.jpa.show-sql=false \
+        > "$OUT/app-$mode.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null || true" EXIT
+
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' -X POST "$BASE_URL/api/v1/auth/login" \
+            -H 'Content-Type: application/json' -d '{}')" != "000" ]; do
+        sleep 1
+    done
+
+    k6 run --quiet -e BASE_URL="$BASE_URL" -e VUS="${VUS:-100}" -e DURATION="${DURATION:-1m}" \
+        --summary-export "$OUT/$mode.json" loadtest/library-mixed.js
+
+    local jar="$OUT/cookies-$mode.txt"
+    curl -s -c "$jar" -o /dev/null -X POST "$BASE_URL/api/v1/auth/login" \
+        -H 'Content-Type: application/json' -d '{"email":"123@123.com","password":"123123123"}'
+    # cookie с Secure curl по http сам не отправит - передаём явно
+    local token
+    token=$(awk '$6 == "access_token" { print $7 }' "$jar")
+    curl -s -H "Cookie: access_token=$token" "$BASE_URL/api/v1/stats" > "$OUT/$mode-stats.json"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+run_mode l2-off false
+run_mode l2-on true
+
+printf '\n%-8s %8s %14s %12s %12s %10s\n' mode 'req/s' 'db statements' 'view p99' 'index p99' 'song hit%'
+for mode in l2-off l2-on; do
+    jq -r --arg m "$mode" --slurpfile s "$OUT/$mode-stats.json" '[$m,
+        (.metrics.http_reqs.rate | floor),
+        ($s[0].data.secondLevelCache.dbStatements),
+        (.metrics.view_ms["p(99)"] | floor | tostring + " ms"),
+        (.metrics.index_ms["p(99)"] | floor | tostring + " ms"),
+        (($s[0].data.secondLevelCache.regions.song.hitRate // 0) * 100 | floor)] | @tsv' "$OUT/$mode.json" |
+        awk -F'\t' '{ printf "%-8s %8s %14s %12s %12s %10s\n", $1, $2, $3, $4, $5, $6 }'
+done
@@ -0,0 +1,49 @@
+#!/usr/bin/env bash
+# Платформенные потоки против виртуальных под одной и той же нагрузкой (threads-compare.js).
+# Каждый режим - свежий запуск приложения (профиль dev, H2 в памяти, демо-пользователь).
+#
+#   ./gradlew bootJar && loadtest/compare-threads.sh
+#   VUS=800 DURATION=2m DB_POOL_SIZE=20 loadtest/compare-threads.sh
+#
+# Нужны java 21, k6 и jq. Итоги: build/loadtest/{platform,virtual}.json и таблица в конце.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=${JAR:-$(ls build/libs/*.jar | grep -v -- '-plain' | head -n 1)}
+OUT=build/loadtest
+PORT=${PORT:-8080}
+mkdir -p "$OUT"
+
+run_mode() {
+    local mode=$1 virtual=$2
+    echo "== $mode: запуск $JAR (VIRTUAL_THREADS=$virtual)"
+    VIRTUAL_THREADS=$virtual java -jar "$JAR" --server.port="$PORT" --spring.jpa.show-sql=false \
+        > "$OUT/app-$mode.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null || true" EXIT
+
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' -X POST "http://localhost:$PORT/api/v1/auth/login" \
+            -H 'Content-Type: application/json' -d '{}')" != "000" ]; do
+        sleep 1
+    done
+
+    k6 run --quiet -e BASE_URL="http://localhost:$PORT" -e VUS="${VUS:-400}" -e DURATION="${DURATION:-1m}" \
+        --summary-export "$OUT/$mode.json" loadtest/threads-compare.js
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+run_mode platform false
+run_mode virtual true
+
+printf '\n%-10s %10s %12s %12s %12s\n' mode 'req/s' 'index p99' 'view p99' 'parse p99'
+for mode in platform virtual; do
+    jq -r --arg m "$mode" '[$m,
+        (.metrics.http_reqs.rate | floor),
+        (.metrics.index_ms["p(99)"] | floor | tostring + " ms"),
+        (.metrics.view_ms["p(99)"] | floor | tostring + " ms"),
+        (.metrics.parse_ms["p(99)"] | floor | tostring + " ms")] | @tsv' "$OUT/$mode.json" |
+        awk -F'\t' '{ printf "%-10s %10s %12s %12s %12s\n", $1, $2, $3, $4, $5 }'
+done
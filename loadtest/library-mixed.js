@@ -0,0 +1,74 @@
+// Обычная работа с библиотекой (k6, https://k6.io): в основном чтение - список и песни,
+// изредка автосохранение правки (PATCH) и новая песня. Запускается из compare-l2.sh
+// с кэшем второго уровня и без; можно и вручную:
+//
+//   k6 run -e VUS=100 loadtest/library-mixed.js
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const EMAIL = __ENV.EMAIL || '123@123.com';
+const PASSWORD = __ENV.PASSWORD || '123123123';
+const VUS = Number(__ENV.VUS || 100);
+const DURATION = __ENV.DURATION || '1m';
+
+const indexMs = new Trend('index_ms', true);
+const viewMs = new Trend('view_ms', true);
+const patchMs = new Trend('patch_ms', true);
+const parseMs = new Trend('parse_ms', true);
+
+export const options = {
+    scenarios: {
+        mixed: { executor: 'constant-vus', vus: VUS, duration: DURATION },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const RAW_TEXT = [
+    'Am               F',
+    'Мы все живём с закрытыми глазами,',
+    'Dm      E',
+    'высоко поднятыми в небеса.',
+].join('\n');
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/v1/auth/login`,
+        JSON.stringify({ email: EMAIL, password: PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(res, { 'login 200': (r) => r.status === 200 });
+    const token = res.cookies.access_token[0].value;
+    const list = http.get(`${BASE_URL}/api/v1/song`, { cookies: { access_token: token } });
+    return { token, ids: list.json('data').map((s) => s.id) };
+}
+
+export default function (data) {
+    const params = { cookies: { access_token: data.token } };
+    const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+    const roll = Math.random();
+
+    // без If-None-Match: каждый запрос доходит до репозиториев
+    if (roll < 0.25) {
+        const res = http.get(`${BASE_URL}/api/v1/song/page?sortBy=artist&dir=asc&limit=50`, params);
+        check(res, { 'index 200': (r) => r.status === 200 });
+        indexMs.add(res.timings.duration);
+    } else if (roll < 0.9) {
+        const ton = Math.floor(Math.random() * 12);
+        const res = http.get(`${BASE_URL}/api/v1/song/${id}?ton=${ton}`, params);
+        check(res, { 'view 200': (r) => r.status === 200 });
+        viewMs.add(res.timings.duration);
+    } else if (roll < 0.98) {
+        const res = http.patch(`${BASE_URL}/api/v1/song/${id}`,
+            JSON.stringify({ comment: `правка ${__VU}-${__ITER}` }),
+            { ...params, headers: { 'Content-Type': 'application/json' } });
+        check(res, { 'patch 200': (r) => r.status === 200 });
+        patchMs.add(res.timings.duration);
+    } else {
+        const res = http.post(`${BASE_URL}/api/v1/song/parse`,
+            JSON.stringify({ artist: 'Load', title: `Mixed ${__VU}-${__ITER}`, rawText: RAW_TEXT }),
+            { ...params, headers: { 'Content-Type': 'application/json' } });
+        check(res, { 'parse 201': (r) => r.status === 201 });
+        parseMs.add(res.timings.duration);
+    }
+}
@@ -0,0 +1,69 @@
+// Нагрузка на список песен, просмотр песни и разбор текста (k6, https://k6.io).
+// Запускается из compare-threads.sh по очереди против приложения на платформенных
+// и на виртуальных потоках; можно и вручную:
+//
+//   k6 run -e VUS=400 loadtest/threads-compare.js
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const EMAIL = __ENV.EMAIL || '123@123.com';
+const PASSWORD = __ENV.PASSWORD || '123123123';
+const VUS = Number(__ENV.VUS || 400);
+const DURATION = __ENV.DURATION || '1m';
+
+const indexMs = new Trend('index_ms', true);
+const viewMs = new Trend('view_ms', true);
+const parseMs = new Trend('parse_ms', true);
+
+// закрытая модель: VUS клиентов без пауз - меряем, сколько запросов сервер успевает
+export const options = {
+    scenarios: {
+        mixed: { executor: 'constant-vus', vus: VUS, duration: DURATION },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const RAW_TEXT = [
+    'Am               F',
+    'Мы все живём с закрытыми глазами,',
+    'Dm      E',
+    'высоко поднятыми в небеса.',
+    '     F       Dm',
+    'Придёт ли кто,',
+].join('\n');
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/v1/auth/login`,
+        JSON.stringify({ email: EMAIL, password: PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(res, { 'login 200': (r) => r.status === 200 });
+    const token = res.cookies.access_token[0].value;
+    const list = http.get(`${BASE_URL}/api/v1/song`, { cookies: { access_token: token } });
+    return { token, ids: list.json('data').map((s) => s.id) };
+}
+
+export default function (data) {
+    const params = { cookies: { access_token: data.token } };
+    const roll = Math.random();
+
+    if (roll < 0.45) {
+        const res = http.get(`${BASE_URL}/api/v1/song?sortBy=artist&dir=asc`, params);
+        check(res, { 'index 200': (r) => r.status === 200 });
+        indexMs.add(res.timings.duration);
+    } else if (roll < 0.9) {
+        const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+        const ton = Math.floor(Math.random() * 12);
+        const res = http.get(`${BASE_URL}/api/v1/song/${id}?ton=${ton}`, params);
+        check(res, { 'view 200': (r) => r.status === 200 });
+        viewMs.add(res.timings.duration);
+    } else {
+        const res = http.post(`${BASE_URL}/api/v1/song/parse`,
+            JSON.stringify({ artist: 'Load', title: `Test ${__VU}-${__ITER}`, rawText: RAW_TEXT }),
+            { ...params, headers: { 'Content-Type': 'application/json' } });
+        check(res, { 'parse 201': (r) => r.status === 201 });
+        parseMs.add(res.timings.duration);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.myguitarlib.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.utilites.ChordParser;
+
+import java.util.concurrent.TimeUnit;
+
+// Разбор вставленного текста песни (POST /song/parse)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChordParserBenchmark {
+
+    @Param({"SHORT_SPARSE", "SHORT_DENSE", "LONG_SPARSE", "LONG_DENSE"})
+    public SongCorpus.Shape shape;
+
+    @Param({"LATIN", "CYRILLIC"})
+    public SongCorpus.Lyrics lyrics;
+
+    private ChordParser parser;
+    private SongCorpus.RawSong song;
+
+    @Setup
+    public void setUp() {
+        parser = new ChordParser();
+        song = SongCorpus.song(shape, lyrics, 42);
+    }
+
+    @Benchmark
+    public Song parse() {
+        return parser.parser(song.artist(), song.title(), song.rawText());
+    }
+}
@@ -0,0 +1,78 @@
+package ru.myguitarlib.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.mapper.SongMapper;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.utilites.ChordParser;
+import ru.myguitarlib.utilites.ChordSheetRenderer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Раскладка "аккорды над текстом" в байты ответа: ChordSheetRenderer против сборки,
+ * как в SongViewPage (split на строки, строка аккордов склеивается конкатенацией).
+ * Память на операцию - с -PjmhProfilers=gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChordSheetRendererBenchmark {
+
+    @Param({"SHORT_SPARSE", "LONG_DENSE"})
+    public SongCorpus.Shape shape;
+
+    private SongDto song;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+
+    @Setup
+    public void setUp() {
+        var raw = SongCorpus.song(shape, SongCorpus.Lyrics.CYRILLIC, 42);
+        Song parsed = new ChordParser().parser(raw.artist(), raw.title(), raw.rawText());
+        parsed.setId(1L);
+        song = SongMapper.toDto(parsed);
+    }
+
+    @Benchmark
+    public int renderer() throws IOException {
+        out.reset();
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        ChordSheetRenderer.render(song, writer);
+        writer.flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public int splitAndConcat() throws IOException {
+        out.reset();
+        String[] lines = song.getLyrics().split("\n");
+        List<SongChordDto> chords = song.getChords();
+        StringBuilder sheet = new StringBuilder();
+        for (int i = 0; i < lines.length; i++) {
+            String chordLine = "";
+            for (SongChordDto ch : chords) {
+                if (ch.getLineIndex() != i) continue;
+                int pos = Math.max(ch.getCharIndex(), chordLine.length() == 0 ? 0 : chordLine.length() + 1);
+                chordLine += " ".repeat(pos - chordLine.length()) + ch.getChord();
+            }
+            if (!chordLine.isEmpty()) sheet.append(chordLine).append('\n');
+            sheet.append(lines[i]).append('\n');
+        }
+        out.write(sheet.toString().getBytes(StandardCharsets.UTF_8));
+        return out.size();
+    }
+}
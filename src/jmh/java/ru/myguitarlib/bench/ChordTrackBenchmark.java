@@ -0,0 +1,82 @@
+package ru.myguitarlib.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.mapper.SongMapper;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.utilites.ChordParser;
+import ru.myguitarlib.utilites.ChordTrackCodec;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Дорожка аккордов одной колонкой (ChordTrackCodec) против строк song_chords:
+ * кодирование/декодирование и Song -> SongDto в обоих форматах.
+ * Размер на диске печатается в setUp (строка song_chords в PostgreSQL ~60 байт без индексов:
+ * заголовок 24 + id 8 + song_id 8 + три int 12, выравнивание, указатель на строку 4).
+ * Задержки чтения/записи через базу - SongRepositoryBenchmark с -p chordStorage=ROWS,TRACK.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChordTrackBenchmark {
+
+    private static final int POSTGRES_ROW_BYTES = 60;
+
+    @Param({"SHORT_SPARSE", "LONG_DENSE"})
+    public SongCorpus.Shape shape;
+
+    private List<ChordTrackCodec.Entry> entries;
+    private byte[] track;
+    private Song rowsSong;
+    private Song trackSong;
+
+    @Setup
+    public void setUp() {
+        var raw = SongCorpus.song(shape, SongCorpus.Lyrics.CYRILLIC, 42);
+        ChordParser parser = new ChordParser();
+
+        rowsSong = parser.parser(raw.artist(), raw.title(), raw.rawText());
+        rowsSong.setId(1L);
+        entries = rowsSong.getChords().stream()
+                .map(c -> new ChordTrackCodec.Entry(c.getLineIndex(), c.getCharIndex(), c.getChord()))
+                .toList();
+        track = ChordTrackCodec.encode(entries);
+
+        trackSong = parser.parser(raw.artist(), raw.title(), raw.rawText());
+        trackSong.setId(1L);
+        SongMapper.packChordTrack(trackSong);
+
+        System.out.printf("%n%s: %d аккордов, chord_track %d байт (%.1f на аккорд), song_chords ~%d байт%n",
+                shape, entries.size(), track.length, (double) track.length / Math.max(1, entries.size()),
+                entries.size() * POSTGRES_ROW_BYTES);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return ChordTrackCodec.encode(entries);
+    }
+
+    @Benchmark
+    public List<ChordTrackCodec.Entry> decode() {
+        return ChordTrackCodec.decode(track);
+    }
+
+    @Benchmark
+    public SongDto toDtoRows() {
+        return SongMapper.toDto(rowsSong);
+    }
+
+    @Benchmark
+    public SongDto toDtoTrack() {
+        return SongMapper.toDto(trackSong);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.myguitarlib.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.myguitarlib.utilites.ChordDictionary;
+import ru.myguitarlib.utilites.ChordTransposer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Транспонирование аккордов одной песни: старая реализация на регулярках против табличной.
+// ./gradlew jmh -PjmhIncludes=ChordTransposerBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChordTransposerBenchmark {
+
+    // типичный набор аккордов песни (как их отдаёт ChordParser)
+    private static final String[] SONG_CHORDS = {
+            "Am", "F", "Dm", "E", "Am", "F", "Dm", "E", "Am", "F", "Dm", "G", "Am",
+            "F", "G", "Em", "Am", "C", "G/B", "Am7", "Dm7", "G7", "Cmaj7", "E7",
+            "Bb", "Eb", "F#m", "C#m", "D/F#", "Asus"
+    };
+
+    @Param({"0", "2", "-5"})
+    public int semitones;
+
+    private LegacyChordTransposer legacy;
+    private ChordTransposer transposer;
+
+    // длинная песня: тот же набор аккордов повторяется 40 раз
+    private List<String> longSong;
+
+    @Setup
+    public void setUp() {
+        legacy = new LegacyChordTransposer();
+        // аккорды уже в словаре - как у сохранённой песни (словарь пополняется при записи)
+        ChordDictionary dictionary = new ChordDictionary();
+        for (String chord : SONG_CHORDS) dictionary.intern(chord);
+        transposer = new ChordTransposer(dictionary);
+
+        longSong = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            longSong.addAll(Arrays.asList(SONG_CHORDS));
+        }
+    }
+
+    @Benchmark
+    public void legacyRegex(Blackhole bh) {
+        for (String chord : SONG_CHORDS) {
+            bh.consume(legacy.transpose(chord, semitones));
+        }
+    }
+
+    @Benchmark
+    public void tableLookup(Blackhole bh) {
+        for (String chord : SONG_CHORDS) {
+            bh.consume(transposer.transpose(chord, semitones));
+        }
+    }
+
+    @Benchmark
+    public void longSongPerChord(Blackhole bh) {
+        for (String chord : longSong) {
+            bh.consume(transposer.transpose(chord, semitones));
+        }
+    }
+
+    @Benchmark
+    public List<String> longSongBatch() {
+        return transposer.transposeAll(longSong, semitones);
+    }
+}
@@ -0,0 +1,100 @@
+package ru.myguitarlib.bench;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import ru.myguitarlib.security.CachingJwtDecoder;
+import ru.myguitarlib.security.JwtTokenService;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Аутентификация запроса по access_token: проверка RSA-подписи на каждый запрос
+ * против CachingJwtDecoder. authenticate* - то, что делает BearerTokenAuthenticationFilter
+ * (декодирование + JwtAuthenticationConverter).
+ * users - сколько разных токенов ходит по кругу (все помещаются в кэш).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtDecoderBenchmark {
+
+    @Param({"1", "1000"})
+    public int users;
+
+    private String[] tokens;
+    private int next;
+
+    private JwtDecoder plain;
+    private CachingJwtDecoder cached;
+    private JwtAuthenticationProvider plainProvider;
+    private JwtAuthenticationProvider cachedProvider;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keys = generator.generateKeyPair();
+        RSAPublicKey publicKey = (RSAPublicKey) keys.getPublic();
+
+        var jwk = new RSAKey.Builder(publicKey).privateKey((RSAPrivateKey) keys.getPrivate()).build();
+        var tokenService = new JwtTokenService(new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(jwk))));
+
+        tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            tokens[i] = tokenService.generateToken((long) i, "user" + i + "@myguitarlib.ru", List.of("ROLE_USER"), 900);
+        }
+
+        plain = NimbusJwtDecoder.withPublicKey(publicKey).build();
+        cached = new CachingJwtDecoder(NimbusJwtDecoder.withPublicKey(publicKey).build(), 10_000, Duration.ofMinutes(15));
+        plainProvider = new JwtAuthenticationProvider(plain);
+        cachedProvider = new JwtAuthenticationProvider(cached);
+    }
+
+    private String nextToken() {
+        String token = tokens[next];
+        next = next + 1 == tokens.length ? 0 : next + 1;
+        return token;
+    }
+
+    @Benchmark
+    public Jwt decodePlain() {
+        return plain.decode(nextToken());
+    }
+
+    @Benchmark
+    public Jwt decodeCached() {
+        return cached.decode(nextToken());
+    }
+
+    @Benchmark
+    public Authentication authenticatePlain() {
+        return plainProvider.authenticate(new BearerTokenAuthenticationToken(nextToken()));
+    }
+
+    @Benchmark
+    public Authentication authenticateCached() {
+        return cachedProvider.authenticate(new BearerTokenAuthenticationToken(nextToken()));
+    }
+}
@@ -0,0 +1,127 @@
+package ru.myguitarlib.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.myguitarlib.MyGuitarLibApplication;
+import ru.myguitarlib.dto.setlist.SetlistDto;
+import ru.myguitarlib.dto.setlist.SetlistUpsertDto;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.model.User;
+import ru.myguitarlib.model.enums.RoleType;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.repository.SongRepository;
+import ru.myguitarlib.repository.UserRepository;
+import ru.myguitarlib.service.RenderedSongCache;
+import ru.myguitarlib.service.SetlistService;
+import ru.myguitarlib.service.SongStorageService;
+import ru.myguitarlib.service.SongViewService;
+import ru.myguitarlib.utilites.ChordParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Программа из songs песен в разных тональностях с холодным RenderedSongCache:
+ * песня за песней через SongViewService (как клиент листал GET /song/{id}) против
+ * SetlistService.load - постоянное число запросов на всю программу.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SetlistBenchmark {
+
+    @Param({"10", "40"})
+    public int songs;
+
+    private ConfigurableApplicationContext context;
+    private SongViewService songViewService;
+    private SetlistService setlistService;
+    private RenderedSongCache cache;
+    private Long ownerId;
+    private Long setlistId;
+    private final List<Long> songIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MyGuitarLibApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=bench",
+                        "--spring.datasource.url=jdbc:h2:mem:bench-setlist;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop");
+
+        songViewService = context.getBean(SongViewService.class);
+        setlistService = context.getBean(SetlistService.class);
+        cache = context.getBean(RenderedSongCache.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User owner = new User();
+        owner.setEmail("setlist@myguitarlib.ru");
+        owner.setName("bench");
+        owner.setRole(RoleType.USER);
+        owner.setEncryptedPassword("-");
+        ownerId = userRepository.save(owner).getId();
+
+        SongRepository songRepository = context.getBean(SongRepository.class);
+        ChordParser parser = context.getBean(ChordParser.class);
+        SongStorageService storage = context.getBean(SongStorageService.class);
+        SetlistUpsertDto setlist = new SetlistUpsertDto();
+        setlist.setName("Концерт");
+        setlist.setEntries(new ArrayList<>());
+        for (SongCorpus.RawSong raw : SongCorpus.library(songs, 7)) {
+            Song song = parser.parser(raw.artist(), raw.title(), raw.rawText());
+            song.setOwner(userRepository.getReferenceById(ownerId));
+            song.setComment("");
+            storage.beforeSave(song);
+            Long id = songRepository.save(song).getId();
+            songIds.add(id);
+
+            SetlistUpsertDto.Entry entry = new SetlistUpsertDto.Entry();
+            entry.setSongId(id);
+            entry.setSemitones(songIds.size() % 5);
+            setlist.getEntries().add(entry);
+        }
+        setlistId = setlistService.create(ownerId, setlist);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int songBySong() {
+        evictAll();
+        int chords = 0;
+        for (int i = 0; i < songIds.size(); i++) {
+            SongDto song = songViewService.getSong(songIds.get(i), ownerId, (i + 1) % 5);
+            chords += song.getChords().size();
+        }
+        return chords;
+    }
+
+    @Benchmark
+    public SetlistDto wholeSetlist() {
+        evictAll();
+        return setlistService.load(setlistId, ownerId, 0, SetlistService.MAX_ENTRIES);
+    }
+
+    // холодный кэш: иначе обе ветки меряют только Caffeine
+    private void evictAll() {
+        for (Long id : songIds) cache.evictSong(id);
+    }
+}
@@ -0,0 +1,119 @@
+package ru.myguitarlib.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генератор "похожих на настоящие" песен в формате "строка аккордов над строкой текста"
+ * (так их вставляют в /song/parse). Один и тот же seed - один и тот же корпус,
+ * чтобы прогоны бенчмарков можно было сравнивать.
+ */
+public final class SongCorpus {
+
+    public enum Shape {
+        SHORT_SPARSE(3, 4, 0.35),     // 3 куплета по 4 строки, аккорды не над каждой строкой
+        SHORT_DENSE(3, 4, 1.0),
+        LONG_SPARSE(12, 8, 0.35),     // 12 частей по 8 строк
+        LONG_DENSE(12, 8, 1.0);
+
+        final int parts;
+        final int linesPerPart;
+        final double chordLineProbability;
+
+        Shape(int parts, int linesPerPart, double chordLineProbability) {
+            this.parts = parts;
+            this.linesPerPart = linesPerPart;
+            this.chordLineProbability = chordLineProbability;
+        }
+    }
+
+    public enum Lyrics { LATIN, CYRILLIC }
+
+    public record RawSong(String artist, String title, String rawText) {}
+
+    private static final String[][] PROGRESSIONS = {
+            {"Am", "F", "C", "G"},
+            {"Em", "C", "G", "D"},
+            {"Dm", "Bb", "F", "C"},
+            {"C", "G/B", "Am7", "Fmaj7"},
+            {"F#m", "D", "A", "E7"},
+            {"Gm", "Eb", "Bb", "F", "D7"},
+            {"Am", "Dm", "E", "Am", "C", "G7"},
+    };
+
+    private static final String[] LATIN_WORDS = {
+            "love", "night", "road", "heart", "fire", "rain", "home", "dream", "light", "river",
+            "we", "are", "going", "down", "to", "the", "city", "tonight", "never", "again",
+            "every", "morning", "sun", "will", "rise", "over", "you", "and", "me"
+    };
+
+    private static final String[] CYRILLIC_WORDS = {
+            "осень", "небо", "дорога", "сердце", "огонь", "дождь", "дом", "мечта", "свет", "река",
+            "мы", "идём", "вниз", "по", "улице", "ночью", "никогда", "снова", "каждое", "утро",
+            "солнце", "взойдёт", "над", "тобой", "и", "мной", "ёлка", "вьюга", "герой"
+    };
+
+    private SongCorpus() {}
+
+    public static RawSong song(Shape shape, Lyrics lyrics, long seed) {
+        Random random = new Random(seed);
+        String[] words = lyrics == Lyrics.LATIN ? LATIN_WORDS : CYRILLIC_WORDS;
+        String[] progression = PROGRESSIONS[random.nextInt(PROGRESSIONS.length)];
+
+        StringBuilder sb = new StringBuilder();
+        int chordIndex = 0;
+        for (int part = 0; part < shape.parts; part++) {
+            sb.append(part % 3 == 2 ? "Припев:" : "Куплет " + (part + 1) + ":").append('\n');
+
+            for (int line = 0; line < shape.linesPerPart; line++) {
+                String text = lyricLine(random, words);
+
+                if (random.nextDouble() < shape.chordLineProbability) {
+                    int chordsInLine = 1 + random.nextInt(shape.chordLineProbability >= 1.0 ? 4 : 2);
+                    StringBuilder chordLine = new StringBuilder();
+                    for (int c = 0; c < chordsInLine; c++) {
+                        int column = c * Math.max(4, text.length() / chordsInLine);
+                        while (chordLine.length() < column) chordLine.append(' ');
+                        if (chordLine.length() > 0 && chordLine.charAt(chordLine.length() - 1) != ' ') {
+                            chordLine.append(' ');
+                        }
+                        chordLine.append(progression[chordIndex++ % progression.length]);
+                    }
+                    sb.append(chordLine).append('\n');
+                }
+                sb.append(text).append('\n');
+            }
+            sb.append('\n');
+        }
+
+        String artist = capitalize(words[random.nextInt(words.length)]) + " " + capitalize(words[random.nextInt(words.length)]);
+        String title = capitalize(lyricLine(random, words));
+        return new RawSong(artist, title, sb.toString());
+    }
+
+    /** Смешанный корпус: все формы и оба алфавита, count песен. */
+    public static List<RawSong> library(int count, long seed) {
+        Shape[] shapes = Shape.values();
+        Lyrics[] alphabets = Lyrics.values();
+        List<RawSong> songs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            songs.add(song(shapes[i % shapes.length], alphabets[(i / shapes.length) % alphabets.length], seed + i));
+        }
+        return songs;
+    }
+
+    private static String lyricLine(Random random, String[] words) {
+        int count = 4 + random.nextInt(5);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(words[random.nextInt(words.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String capitalize(String s) {
+        return s.isEmpty() ? s : Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
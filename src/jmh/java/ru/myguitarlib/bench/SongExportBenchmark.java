@@ -0,0 +1,110 @@
+package ru.myguitarlib.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.myguitarlib.MyGuitarLibApplication;
+import ru.myguitarlib.model.User;
+import ru.myguitarlib.model.enums.RoleType;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.repository.SongRepository;
+import ru.myguitarlib.repository.UserRepository;
+import ru.myguitarlib.service.SongExportService;
+import ru.myguitarlib.service.SongStorageService;
+import ru.myguitarlib.utilites.ChordParser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Экспорт библиотеки из 10 000 песен (GET /song/export) на встроенной H2.
+ * Операция - одна песня, поэтому JMH сразу печатает песни в секунду; тело ответа выбрасывается.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SongExportBenchmark {
+
+    private static final int LIBRARY_SIZE = 10_000;
+
+    @Param({"NDJSON", "ZIP"})
+    public SongExportService.Format format;
+
+    // формат хранения аккордов (app.song.chord-storage)
+    @Param({"ROWS", "TRACK"})
+    public String chordStorage;
+
+    @Param({"0", "2"})
+    public int ton;
+
+    private ConfigurableApplicationContext context;
+    private SongExportService songExportService;
+    private Long ownerId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MyGuitarLibApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=bench",
+                        "--spring.datasource.url=jdbc:h2:mem:bench-export;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--app.song.chord-storage=" + chordStorage);
+
+        songExportService = context.getBean(SongExportService.class);
+        SongRepository songRepository = context.getBean(SongRepository.class);
+        ChordParser parser = context.getBean(ChordParser.class);
+        SongStorageService songStorageService = context.getBean(SongStorageService.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        User owner = new User();
+        owner.setEmail("export@myguitarlib.ru");
+        owner.setName("bench");
+        owner.setRole(RoleType.USER);
+        owner.setEncryptedPassword("-");
+        User savedOwner = context.getBean(UserRepository.class).save(owner);
+        ownerId = savedOwner.getId();
+
+        List<SongCorpus.RawSong> corpus = SongCorpus.library(LIBRARY_SIZE, 7);
+        for (int from = 0; from < corpus.size(); from += 200) {
+            List<SongCorpus.RawSong> chunk = corpus.subList(from, Math.min(corpus.size(), from + 200));
+            tx.executeWithoutResult(status -> {
+                for (SongCorpus.RawSong raw : chunk) {
+                    Song song = parser.parser(raw.artist(), raw.title(), raw.rawText());
+                    song.setOwner(savedOwner);
+                    song.setComment("");
+                    songStorageService.beforeSave(song);
+                    songRepository.save(song);
+                }
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIBRARY_SIZE)
+    public int export() throws IOException {
+        return songExportService.export(ownerId, format, ton, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,43 @@
+package ru.myguitarlib.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.mapper.SongMapper;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.utilites.ChordParser;
+
+import java.util.concurrent.TimeUnit;
+
+// Song -> SongDto (ответ GET /song/{id})
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SongMapperBenchmark {
+
+    @Param({"SHORT_SPARSE", "LONG_DENSE"})
+    public SongCorpus.Shape shape;
+
+    @Param({"LATIN", "CYRILLIC"})
+    public SongCorpus.Lyrics lyrics;
+
+    private Song song;
+
+    @Setup
+    public void setUp() {
+        var raw = SongCorpus.song(shape, lyrics, 42);
+        song = new ChordParser().parser(raw.artist(), raw.title(), raw.rawText());
+        song.setId(1L);
+    }
+
+    @Benchmark
+    public SongDto toDto() {
+        return SongMapper.toDto(song);
+    }
+}
@@ -0,0 +1,166 @@
+package ru.myguitarlib.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.myguitarlib.MyGuitarLibApplication;
+import ru.myguitarlib.dto.song.ArtistTitleDto;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.mapper.SongMapper;
+import ru.myguitarlib.model.User;
+import ru.myguitarlib.model.enums.RoleType;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.repository.SongCursor;
+import ru.myguitarlib.repository.SongRepository;
+import ru.myguitarlib.repository.UserRepository;
+import ru.myguitarlib.service.SongStorageService;
+import ru.myguitarlib.utilites.ChordParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запросы SongRepository на встроенной H2 с большой библиотекой одного пользователя.
+ * Поднимает полный контекст приложения (без веб-сервера), поэтому нужны
+ * ключи src/main/resources/certs/*.pem, как и для обычного запуска.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SongRepositoryBenchmark {
+
+    @Param({"1000", "10000"})
+    public int librarySize;
+
+    // формат хранения аккордов (app.song.chord-storage)
+    @Param({"ROWS", "TRACK"})
+    public String chordStorage;
+
+    private ConfigurableApplicationContext context;
+    private SongRepository songRepository;
+    private Long ownerId;
+    private long[] songIds;
+    private ChordParser parser;
+    private SongStorageService songStorageService;
+    private TransactionTemplate tx;
+    private User writer;
+    private SongCorpus.RawSong longSong;
+    private SongCursor deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MyGuitarLibApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=bench",
+                        "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--app.song.chord-storage=" + chordStorage);
+
+        songRepository = context.getBean(SongRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        parser = context.getBean(ChordParser.class);
+        songStorageService = context.getBean(SongStorageService.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        User savedOwner = userRepository.save(user("bench@myguitarlib.ru"));
+        ownerId = savedOwner.getId();
+        // saveLongSong пишет другому пользователю, чтобы не раздувать библиотеку для findIndex*
+        writer = userRepository.save(user("writer@myguitarlib.ru"));
+        longSong = SongCorpus.song(SongCorpus.Shape.LONG_DENSE, SongCorpus.Lyrics.CYRILLIC, 42);
+
+        List<Long> ids = new ArrayList<>(librarySize);
+        List<SongCorpus.RawSong> corpus = SongCorpus.library(librarySize, 7);
+        for (int from = 0; from < corpus.size(); from += 200) {
+            List<SongCorpus.RawSong> chunk = corpus.subList(from, Math.min(corpus.size(), from + 200));
+            tx.executeWithoutResult(status -> {
+                for (SongCorpus.RawSong raw : chunk) {
+                    Song song = parser.parser(raw.artist(), raw.title(), raw.rawText());
+                    song.setOwner(savedOwner);
+                    song.setComment("");
+                    songStorageService.beforeSave(song);
+                    ids.add(songRepository.save(song).getId());
+                }
+            });
+        }
+        songIds = ids.stream().mapToLong(Long::longValue).toArray();
+
+        // курсор на 90% списка - "дальняя" страница
+        List<ArtistTitleDto> all = songRepository.findIndex(ownerId, null, null,
+                Sort.by(Sort.Direction.ASC, "artist").and(Sort.by(Sort.Direction.ASC, "id")));
+        ArtistTitleDto deep = all.get(all.size() * 9 / 10);
+        deepCursor = new SongCursor("artist", Sort.Direction.ASC, deep.getArtist(), deep.getId());
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setName("bench");
+        user.setRole(RoleType.USER);
+        user.setEncryptedPassword("-");
+        return user;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ArtistTitleDto> findIndexAll() {
+        return songRepository.findIndex(ownerId, null, null, Sort.by(Sort.Direction.ASC, "artist"));
+    }
+
+    @Benchmark
+    public List<ArtistTitleDto> findIndexSearch() {
+        return songRepository.findIndex(ownerId, "river", null, Sort.by(Sort.Direction.ASC, "title"));
+    }
+
+    // keyset: первая и дальняя страница должны стоить одинаково
+    @Benchmark
+    public List<ArtistTitleDto> pageFirst() {
+        return songRepository.findIndexPage(ownerId, null, null, "artist", Sort.Direction.ASC, null, 51);
+    }
+
+    @Benchmark
+    public List<ArtistTitleDto> pageDeep() {
+        return songRepository.findIndexPage(ownerId, null, null, "artist", Sort.Direction.ASC, deepCursor, 51);
+    }
+
+    @Benchmark
+    public SongDto findByIdWithChords() {
+        long id = songIds[ThreadLocalRandom.current().nextInt(songIds.length)];
+        return songRepository.findByIdAndOwnerIdWithChords(id, ownerId)
+                .map(SongMapper::toDto)
+                .orElseThrow();
+    }
+
+    // запись: длинная песня (~100 аккордов) - сотня INSERT'ов в song_chords или одна колонка
+    @Benchmark
+    public Long saveLongSong() {
+        return tx.execute(status -> {
+            Song song = parser.parser(longSong.artist(), longSong.title(), longSong.rawText());
+            song.setOwner(writer);
+            song.setComment("");
+            songStorageService.beforeSave(song);
+            return songRepository.save(song).getId();
+        });
+    }
+}
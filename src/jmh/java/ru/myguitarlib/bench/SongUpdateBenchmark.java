@@ -0,0 +1,203 @@
+package ru.myguitarlib.bench;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.myguitarlib.MyGuitarLibApplication;
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.dto.song.SongPatchDto;
+import ru.myguitarlib.dto.song.SongUpsertDto;
+import ru.myguitarlib.mapper.SongMapper;
+import ru.myguitarlib.model.User;
+import ru.myguitarlib.model.enums.RoleType;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.model.song.SongChord;
+import ru.myguitarlib.repository.SongRepository;
+import ru.myguitarlib.repository.UserRepository;
+import ru.myguitarlib.service.SongStorageService;
+import ru.myguitarlib.utilites.ChordParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Сохранение правки длинной песни (~100 аккордов), как PUT/PATCH /song/{id}:
+ * прежняя полная замена аккордов (replace*) против слияния (merge*, patch*).
+ * Кроме времени JMH печатает, сколько строк записано за операцию (rowsInserted/Updated/Deleted).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SongUpdateBenchmark {
+
+    @Param({"ROWS", "TRACK"})
+    public String chordStorage;
+
+    private ConfigurableApplicationContext context;
+    private SongRepository songRepository;
+    private SongStorageService songStorageService;
+    private TransactionTemplate tx;
+    private Statistics statistics;
+    private Long ownerId;
+    private Long songId;
+    private SongDto original;
+    private long edits;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Writes {
+        public long rowsInserted;
+        public long rowsUpdated;
+        public long rowsDeleted;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MyGuitarLibApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=bench",
+                        "--spring.datasource.url=jdbc:h2:mem:bench-update;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--app.song.chord-storage=" + chordStorage);
+
+        songRepository = context.getBean(SongRepository.class);
+        songStorageService = context.getBean(SongStorageService.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        User owner = new User();
+        owner.setEmail("update@myguitarlib.ru");
+        owner.setName("bench");
+        owner.setRole(RoleType.USER);
+        owner.setEncryptedPassword("-");
+        ownerId = context.getBean(UserRepository.class).save(owner).getId();
+
+        SongCorpus.RawSong raw = SongCorpus.song(SongCorpus.Shape.LONG_DENSE, SongCorpus.Lyrics.CYRILLIC, 42);
+        Song song = context.getBean(ChordParser.class).parser(raw.artist(), raw.title(), raw.rawText());
+        song.setOwner(context.getBean(UserRepository.class).getReferenceById(ownerId));
+        song.setComment("");
+        songStorageService.beforeSave(song);
+        songId = songRepository.save(song).getId();
+        original = tx.execute(status -> SongMapper.toDto(
+                songRepository.findByIdAndOwnerIdWithChords(songId, ownerId).orElseThrow()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // автосохранение после правки комментария: аккорды те же
+    @Benchmark
+    public void replaceCommentOnly(Writes writes) {
+        save(writes, song -> replaceChords(song, upsert(nextComment(), 0)));
+    }
+
+    @Benchmark
+    public void mergeCommentOnly(Writes writes) {
+        save(writes, song -> SongMapper.applyUpsert(song, upsert(nextComment(), 0)));
+    }
+
+    // изменён один аккорд
+    @Benchmark
+    public void replaceOneChord(Writes writes) {
+        save(writes, song -> replaceChords(song, upsert("", 1)));
+    }
+
+    @Benchmark
+    public void mergeOneChord(Writes writes) {
+        save(writes, song -> SongMapper.applyUpsert(song, upsert("", 1)));
+    }
+
+    @Benchmark
+    public void patchCommentOnly(Writes writes) {
+        SongPatchDto patch = new SongPatchDto();
+        patch.setComment(JsonNullable.of(nextComment()));
+        save(writes, song -> SongMapper.applyPatch(song, patch));
+    }
+
+    private void save(Writes writes, Consumer<Song> edit) {
+        long inserted = statistics.getEntityInsertCount();
+        long updated = statistics.getEntityUpdateCount();
+        long deleted = statistics.getEntityDeleteCount();
+
+        tx.executeWithoutResult(status -> {
+            Song song = songRepository.findByIdAndOwnerIdWithChords(songId, ownerId).orElseThrow();
+            edit.accept(song);
+            songStorageService.beforeSave(song);
+            songRepository.saveAndFlush(song);
+        });
+
+        writes.rowsInserted += statistics.getEntityInsertCount() - inserted;
+        writes.rowsUpdated += statistics.getEntityUpdateCount() - updated;
+        writes.rowsDeleted += statistics.getEntityDeleteCount() - deleted;
+    }
+
+    private String nextComment() {
+        return "правка " + (++edits);
+    }
+
+    // changedChords первых аккордов получают другой символ (чётные/нечётные правки чередуются)
+    private SongUpsertDto upsert(String comment, int changedChords) {
+        SongUpsertDto dto = new SongUpsertDto();
+        dto.setArtist(original.getArtist());
+        dto.setTitle(original.getTitle());
+        dto.setComment(comment);
+        dto.setLyrics(original.getLyrics());
+        dto.setScrollSpeed(original.getScrollSpeed());
+        dto.setFontSize(original.getFontSize());
+
+        boolean flip = (++edits & 1) == 0;
+        List<SongChordDto> chords = new ArrayList<>(original.getChords().size());
+        for (int i = 0; i < original.getChords().size(); i++) {
+            SongChordDto src = original.getChords().get(i);
+            SongChordDto ch = new SongChordDto();
+            ch.setLineIndex(src.getLineIndex());
+            ch.setCharIndex(src.getCharIndex());
+            ch.setChord(i < changedChords && flip ? src.getChord() + "7" : src.getChord());
+            chords.add(ch);
+        }
+        dto.setChords(chords);
+        return dto;
+    }
+
+    // прежний SongMapper.applyUpsert: все аккорды удаляются и создаются заново
+    private static void replaceChords(Song song, SongUpsertDto dto) {
+        SongMapper.applyUpsert(song, dto);
+        List<SongChord> fresh = new ArrayList<>(song.getChords().size());
+        for (SongChord ch : song.getChords()) {
+            SongChord copy = new SongChord();
+            copy.setSong(song);
+            copy.setLineIndex(ch.getLineIndex());
+            copy.setCharIndex(ch.getCharIndex());
+            copy.setChord(ch.getChord());
+            fresh.add(copy);
+        }
+        song.getChords().clear();
+        song.getChords().addAll(fresh);
+    }
+}
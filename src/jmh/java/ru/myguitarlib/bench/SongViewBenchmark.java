@@ -0,0 +1,122 @@
+package ru.myguitarlib.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.myguitarlib.MyGuitarLibApplication;
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.dto.song.SongViewRow;
+import ru.myguitarlib.mapper.SongMapper;
+import ru.myguitarlib.model.User;
+import ru.myguitarlib.model.enums.RoleType;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.repository.SongRepository;
+import ru.myguitarlib.repository.UserRepository;
+import ru.myguitarlib.service.SongStorageService;
+import ru.myguitarlib.utilites.ChordParser;
+import ru.myguitarlib.utilites.ChordTransposer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сборка ответа GET /song/{id} для песни ~100 аккордов мимо RenderedSongCache:
+ * прежний путь через управляемые Song/SongChord против запроса сразу в DTO.
+ * Выделение памяти - с профилировщиком GC: ./gradlew jmh -PjmhIncludes=SongViewBenchmark -PjmhProfilers=gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SongViewBenchmark {
+
+    // кэш второго уровня: без него сущности каждый раз читаются из базы
+    @Param({"false", "true"})
+    public String secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+    private SongRepository songRepository;
+    private ChordTransposer transposer;
+    private TransactionTemplate tx;
+    private TransactionTemplate readOnlyTx;
+    private Long ownerId;
+    private Long songId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MyGuitarLibApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=bench",
+                        "--spring.datasource.url=jdbc:h2:mem:bench-view;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--L2_CACHE=" + secondLevelCache);
+
+        songRepository = context.getBean(SongRepository.class);
+        transposer = context.getBean(ChordTransposer.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        tx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User owner = new User();
+        owner.setEmail("view@myguitarlib.ru");
+        owner.setName("bench");
+        owner.setRole(RoleType.USER);
+        owner.setEncryptedPassword("-");
+        ownerId = userRepository.save(owner).getId();
+
+        SongCorpus.RawSong raw = SongCorpus.song(SongCorpus.Shape.LONG_DENSE, SongCorpus.Lyrics.CYRILLIC, 42);
+        Song song = context.getBean(ChordParser.class).parser(raw.artist(), raw.title(), raw.rawText());
+        song.setOwner(userRepository.getReferenceById(ownerId));
+        song.setComment("");
+        context.getBean(SongStorageService.class).beforeSave(song);
+        songId = songRepository.save(song).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // как было: управляемая Song с chords в контексте (снимки для dirty checking), затем toDto
+    @Benchmark
+    public SongDto entityPath() {
+        return tx.execute(status -> transpose(SongMapper.toDto(
+                songRepository.findByIdAndOwnerIdWithChords(songId, ownerId).orElseThrow())));
+    }
+
+    // SongViewService: колонки и аккорды сразу в DTO, транзакция только на чтение
+    @Benchmark
+    public SongDto projectionPath() {
+        return transpose(readOnlyTx.execute(status -> {
+            SongViewRow row = songRepository.findView(songId, ownerId).orElseThrow();
+            List<SongChordDto> chords = row.chordTrack() == null ? songRepository.findChordViews(songId) : null;
+            return SongMapper.toDto(row, chords);
+        }));
+    }
+
+    private SongDto transpose(SongDto dto) {
+        List<SongChordDto> chords = dto.getChords();
+        List<String> transposed = transposer.transposeAll(chords.stream().map(SongChordDto::getChord).toList(), 2);
+        for (int i = 0; i < chords.size(); i++) {
+            chords.get(i).setChord(transposed.get(i));
+        }
+        return dto;
+    }
+}
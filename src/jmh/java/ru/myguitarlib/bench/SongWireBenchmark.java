@@ -0,0 +1,90 @@
+package ru.myguitarlib.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.myguitarlib.dto.ApiResponse;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.mapper.SongMapper;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.utilites.ChordParser;
+import ru.myguitarlib.utilites.SongWireCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ответ GET /song/{id}: JSON (ApiResponse<SongDto>, как отдаёт Jackson) против SongWireCodec.
+ * Размеры - сырые и после gzip - печатаются в setUp.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SongWireBenchmark {
+
+    private static final TypeReference<ApiResponse<SongDto>> JSON_TYPE = new TypeReference<>() {};
+
+    @Param({"SHORT_SPARSE", "LONG_DENSE"})
+    public SongCorpus.Shape shape;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ApiResponse<SongDto> response;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        var raw = SongCorpus.song(shape, SongCorpus.Lyrics.CYRILLIC, 42);
+        Song song = new ChordParser().parser(raw.artist(), raw.title(), raw.rawText());
+        song.setId(1L);
+        song.setComment("");
+
+        SongDto dto = SongMapper.toDto(song);
+        response = new ApiResponse<>(true, "Песня получена", dto, List.of());
+        json = objectMapper.writeValueAsBytes(response);
+        binary = SongWireCodec.encode(dto);
+
+        System.out.printf("%n%s: %d аккордов, текст %d символов%n", shape, dto.getChords().size(), dto.getLyrics().length());
+        System.out.printf("  json   %7d байт, gzip %6d%n", json.length, gzip(json));
+        System.out.printf("  binary %7d байт, gzip %6d%n", binary.length, gzip(binary));
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public ApiResponse<SongDto> jsonDecode() throws IOException {
+        return objectMapper.readValue(json, JSON_TYPE);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return SongWireCodec.encode(response.getData());
+    }
+
+    @Benchmark
+    public SongDto binaryDecode() {
+        return SongWireCodec.decode(binary);
+    }
+
+    private static int gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        return out.size();
+    }
+}
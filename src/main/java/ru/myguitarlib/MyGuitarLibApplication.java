@@ -3,9 +3,11 @@ package ru.myguitarlib;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import ru.myguitarlib.config.SecurityProperties;
 
 @SpringBootApplication
+@EnableJpaAuditing
 //@EnableConfigurationProperties(SecurityProperties.class)
 public class MyGuitarLibApplication {
 
@@ -0,0 +1,72 @@
+package ru.myguitarlib.component;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.utilites.SongWireCodec;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * SongDto <-> application/vnd.myguitarlib.song+binary (SongWireCodec).
+ * Spring Boot сам добавляет бины HttpMessageConverter к стандартным конвертерам.
+ */
+@Component
+public class SongBinaryMessageConverter extends AbstractHttpMessageConverter<SongDto> {
+
+    public static final String SONG_BINARY_VALUE = "application/vnd.myguitarlib.song+binary";
+    public static final MediaType SONG_BINARY = MediaType.parseMediaType(SONG_BINARY_VALUE);
+
+    public SongBinaryMessageConverter() {
+        super(SONG_BINARY);
+    }
+
+    /**
+     * Клиент явно просит двоичный формат и ставит его не ниже JSON.
+     * Маски вроде application/* и пустой Accept - JSON, как раньше. Ошибки всегда идут JSON'ом,
+     * поэтому клиенту стоит добавить application/json с меньшим q.
+     */
+    public static boolean preferred(String accept) {
+        if (accept == null || accept.isBlank()) return false;
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        double binary = 0;
+        double json = 0;
+        for (MediaType type : types) {
+            if (type.equalsTypeAndSubtype(SONG_BINARY)) binary = Math.max(binary, type.getQualityValue());
+            if (type.equalsTypeAndSubtype(MediaType.APPLICATION_JSON)) json = Math.max(json, type.getQualityValue());
+        }
+        return binary > 0 && binary >= json;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SongDto.class == clazz;
+    }
+
+    @Override
+    protected SongDto readInternal(Class<? extends SongDto> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return SongWireCodec.decode(inputMessage.getBody().readAllBytes());
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Некорректная двоичная песня: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(SongDto song, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = SongWireCodec.encode(song);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
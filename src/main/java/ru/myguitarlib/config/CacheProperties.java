@@ -0,0 +1,47 @@
+package ru.myguitarlib.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+    private SongsCache songs = new SongsCache();
+    private PrincipalsCache principals = new PrincipalsCache();
+    private JwtCache jwt = new JwtCache();
+    private CompressedCache compressed = new CompressedCache();
+    private SheetsCache sheets = new SheetsCache();
+
+    @Data
+    public static class SongsCache {
+        private long maxSize = 2000;   // готовых ответов (песня + тональность)
+    }
+
+    @Data
+    public static class PrincipalsCache {
+        private long maxSize = 10_000;                  // пользователей (id из токена -> email)
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class JwtCache {
+        private long maxSize = 10_000;                      // проверенных токенов
+        private Duration maxTtl = Duration.ofMinutes(15);   // не дольше access-токена (и не дольше его exp)
+    }
+
+    @Data
+    public static class CompressedCache {
+        private long maxBytes = 32L * 1024 * 1024;   // сумма сжатых тел ответов GET /song/{id}
+        private int level = 9;                       // сжимается один раз, поэтому максимальное
+        private boolean deflate = false;             // кроме gzip отдавать и deflate
+    }
+
+    @Data
+    public static class SheetsCache {
+        private long maxBytes = 8L * 1024 * 1024;   // сумма тел GET /song/{id}/sheet
+    }
+}
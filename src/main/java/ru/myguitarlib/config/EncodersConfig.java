@@ -3,7 +3,6 @@ package ru.myguitarlib.config;
 import lombok.AllArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
@@ -16,6 +15,8 @@ import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 import ru.myguitarlib.component.RsaKeyProperties;
+import ru.myguitarlib.security.BoundedPasswordEncoder;
+import ru.myguitarlib.security.CachingJwtDecoder;
 
 
 @AllArgsConstructor
@@ -23,10 +24,13 @@ import ru.myguitarlib.component.RsaKeyProperties;
 public class EncodersConfig {
 
     private RsaKeyProperties rsaKeys;
+    private CacheProperties cacheProperties;
+    private SecurityProperties securityProperties;
 
+    // BCrypt в отдельном ограниченном пуле (app.security.password.*)
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        return new BoundedPasswordEncoder(securityProperties.getPassword());
     }
 
     @Bean
@@ -36,8 +40,11 @@ public class EncodersConfig {
         return new NimbusJwtEncoder(jwks);
     }
 
+    // проверенные токены кэшируются до их exp (app.cache.jwt.*)
     @Bean
-    JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(rsaKeys.getPublicKey()).build();
+    CachingJwtDecoder jwtDecoder() {
+        JwtDecoder nimbus = NimbusJwtDecoder.withPublicKey(rsaKeys.getPublicKey()).build();
+        var jwt = cacheProperties.getJwt();
+        return new CachingJwtDecoder(nimbus, jwt.getMaxSize(), jwt.getMaxTtl());
     }
 }
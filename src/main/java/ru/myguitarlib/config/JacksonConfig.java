@@ -0,0 +1,15 @@
+package ru.myguitarlib.config;
+
+import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // JsonNullable в DTO (SongPatchDto): Spring Boot сам добавит модуль в ObjectMapper
+    @Bean
+    public JsonNullableModule jsonNullableModule() {
+        return new JsonNullableModule();
+    }
+}
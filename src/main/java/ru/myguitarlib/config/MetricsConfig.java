@@ -0,0 +1,21 @@
+package ru.myguitarlib.config;
+
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.myguitarlib.metrics.HotPathMetrics;
+
+@Configuration
+public class MetricsConfig {
+
+    // Каждый вызов SongRepository/UserRepository Spring Boot уже мерит (spring.data.repository.invocations:
+    // repository, method, state, exception) - добавляем endpoint, как у HotPathMetrics
+    @Bean
+    RepositoryTagsProvider repositoryTagsProvider() {
+        RepositoryTagsProvider defaults = new DefaultRepositoryTagsProvider();
+        return invocation -> Tags.of(defaults.repositoryTags(invocation))
+                .and("endpoint", HotPathMetrics.endpoint());
+    }
+}
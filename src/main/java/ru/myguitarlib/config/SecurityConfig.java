@@ -1,6 +1,7 @@
 package ru.myguitarlib.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,12 +12,14 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
 import org.springframework.security.web.SecurityFilterChain;
+import ru.myguitarlib.model.User;
 import ru.myguitarlib.repository.UserRepository;
 
 import jakarta.servlet.http.Cookie;
@@ -54,6 +57,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         // Swagger / OpenAPI — тоже публично
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                        // health и метрики для Prometheus (management-порт слушает только 127.0.0.1)
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                         // всё остальное — только для аутентифицированных
                         .anyRequest().authenticated()
                 )
@@ -76,7 +81,7 @@ public class SecurityConfig {
         CorsConfiguration config = new CorsConfiguration();
 
         config.setAllowedOrigins(List.of("http://localhost:3000"));
-        config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
         config.setAllowCredentials(true);
 
@@ -113,12 +118,25 @@ public class SecurityConfig {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
 
+    // === Пересчёт хэша при входе, если он сделан с меньшим strength, чем в настройках ===
+    @Bean
+    UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            User stored = userRepository.findByEmail(user.getUsername())
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + user.getUsername()));
+            stored.setEncryptedPassword(newPassword);
+            return userRepository.save(stored);
+        };
+    }
+
     // === AuthenticationManager, который проверяет логин/пароль ===
     @Bean
-    AuthenticationManager authenticationManager(UserDetailsService userDetailsService) {
+    AuthenticationManager authenticationManager(UserDetailsService userDetailsService,
+                                                UserDetailsPasswordService userDetailsPasswordService) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService); // где брать пользователя
-        provider.setPasswordEncoder(passwordEncoder);       // как проверять пароль (BCrypt)
+        provider.setPasswordEncoder(passwordEncoder);       // как проверять пароль (BCrypt в отдельном пуле)
+        provider.setUserDetailsPasswordService(userDetailsPasswordService);
         return new ProviderManager(provider);               // AuthenticationManager c одним провайдером
     }
 }
\ No newline at end of file
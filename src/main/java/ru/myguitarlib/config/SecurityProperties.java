@@ -13,6 +13,7 @@ import org.springframework.stereotype.Component;
 public class SecurityProperties {
     private CookieConfig cookie = new CookieConfig();
     private JwtConfig jwt = new JwtConfig();
+    private PasswordConfig password = new PasswordConfig();
 
     @Data
     public static class CookieConfig {
@@ -41,4 +42,13 @@ public class SecurityProperties {
         private int accessTokenValiditySeconds;
         private int refreshTokenValiditySeconds;
     }
+
+    // BCrypt считается в отдельном ограниченном пуле (BoundedPasswordEncoder)
+    @Data
+    public static class PasswordConfig {
+        private int strength = 10;            // log2 раундов BCrypt; старые хэши пересчитываются при входе
+        private int threads = 2;              // одновременных хэширований
+        private int queueCapacity = 64;       // ждущих сверх threads; дальше - 503
+        private int retryAfterSeconds = 1;
+    }
 }
@@ -0,0 +1,14 @@
+package ru.myguitarlib.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.import")
+public class SongImportProperties {
+    private int maxFiles = 5000;
+    private int batchSize = 50;
+    private long maxTotalBytes = 64L * 1024 * 1024;   // распакованных байт на один POST /song/import
+}
@@ -0,0 +1,17 @@
+package ru.myguitarlib.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import ru.myguitarlib.model.enums.ChordStorage;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.song")
+public class SongProperties {
+    private ChordStorage chordStorage = ChordStorage.ROWS;
+    // при старте перевести уже сохранённые песни в текущий формат (ChordTrackMigration)
+    private boolean migrateChords = false;
+    // при старте досчитать тональность песен, сохранённых без неё (SongKeyBackfill)
+    private boolean backfillKeys = true;
+}
@@ -0,0 +1,31 @@
+package ru.myguitarlib.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import ru.myguitarlib.metrics.EndpointTagFilter;
+import ru.myguitarlib.metrics.EndpointTagInterceptor;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new EndpointTagInterceptor());
+    }
+
+    // перед цепочкой Spring Security; ObjectProvider - mapping создаётся из этого же WebMvcConfigurer
+    @Bean
+    public FilterRegistrationBean<EndpointTagFilter> endpointTagFilter(
+            @Qualifier("requestMappingHandlerMapping") ObjectProvider<RequestMappingHandlerMapping> handlerMapping) {
+        var registration = new FilterRegistrationBean<>(new EndpointTagFilter(handlerMapping::getObject));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
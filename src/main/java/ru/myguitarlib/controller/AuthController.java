@@ -8,11 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.oauth2.jwt.JwtClaimsSet;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -27,13 +23,12 @@ import ru.myguitarlib.exception.ApiException;
 import ru.myguitarlib.model.User;
 import ru.myguitarlib.model.enums.RoleType;
 import ru.myguitarlib.repository.UserRepository;
+import ru.myguitarlib.security.JwtTokenService;
 import ru.myguitarlib.security.TokenCookieService;
 
-import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @AllArgsConstructor
@@ -42,8 +37,8 @@ public class AuthController {
 
     private final UserRepository userRepository;
     private final AuthenticationManager authenticationManager;
-    private final BCryptPasswordEncoder encoder;
-    private final JwtEncoder jwtEncoder;
+    private final PasswordEncoder encoder;
+    private final JwtTokenService jwtTokenService;
 
 
     private final TokenCookieService tokenCookieService;
@@ -102,8 +97,8 @@ public class AuthController {
         int refreshTtl = securityProperties.getJwt().getRefreshTokenValiditySeconds();
 
         // 4. Генерация токенов
-        String accessToken = generateToken(user, authentication.getAuthorities(), accessTtl);
-        String refreshToken = generateToken(user, authentication.getAuthorities(), refreshTtl);
+        String accessToken = jwtTokenService.generateToken(user, authentication.getAuthorities(), accessTtl);
+        String refreshToken = jwtTokenService.generateToken(user, authentication.getAuthorities(), refreshTtl);
 
         // 5. Куки строятся через TokenCookieService (читает app.security.cookie.*)
         var cookies = tokenCookieService.buildCookies(accessToken, refreshToken);
@@ -144,30 +139,4 @@ public class AuthController {
     }
 
 
-
-
-    private String generateToken(User user,
-                                 Iterable<? extends GrantedAuthority> authorities,
-                                 int ttlSeconds) {
-        Instant now = Instant.now();
-        Instant expiresAt = now.plusSeconds(ttlSeconds);
-
-        List<String> roles = authorities == null
-                ? List.of()
-                : ((List<? extends GrantedAuthority>) authorities).stream()
-                .map(GrantedAuthority::getAuthority)
-                .toList();
-
-        JwtClaimsSet claims = JwtClaimsSet.builder()
-                .issuer("myguitarlib")
-                .issuedAt(now)
-                .expiresAt(expiresAt)
-                .subject(user.getEmail())
-                .claim("roles", roles)
-                .build();
-
-        return jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
-    }
-
-
 }
@@ -0,0 +1,78 @@
+package ru.myguitarlib.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+import ru.myguitarlib.dto.ApiResponse;
+import ru.myguitarlib.dto.setlist.SetlistDto;
+import ru.myguitarlib.dto.setlist.SetlistSummaryDto;
+import ru.myguitarlib.dto.setlist.SetlistUpsertDto;
+import ru.myguitarlib.security.CurrentUserService;
+import ru.myguitarlib.service.SetlistService;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/setlist")
+public class SetlistController {
+
+    private final SetlistService setlistService;
+    private final CurrentUserService currentUserService;
+
+    // ---------- READ: список программ ----------
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<SetlistSummaryDto>>> getSetlists(@AuthenticationPrincipal Jwt jwt) {
+        Long userId = currentUserService.userId(jwt);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Программы пользователя", setlistService.list(userId), List.of()));
+    }
+
+    // ---------- READ: программа с песнями ----------
+    // без prefetch - все песни сразу; с prefetch=N - песни from..from+N, остальные только названиями
+    // (клиент дозапрашивает следующее окно, пока играется текущее)
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<SetlistDto>> getSetlist(@PathVariable Long id,
+                                                              @RequestParam(defaultValue = "0") int from,
+                                                              @RequestParam(required = false) Integer prefetch,
+                                                              @AuthenticationPrincipal Jwt jwt) {
+        Long userId = currentUserService.userId(jwt);
+        int to = SetlistService.windowEnd(from, prefetch);
+
+        SetlistDto setlist = setlistService.load(id, userId, from, to);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Программа", setlist, List.of()));
+    }
+
+    // ---------- CREATE ----------
+    @PostMapping
+    public ResponseEntity<ApiResponse<SetlistDto>> createSetlist(@RequestBody SetlistUpsertDto dto,
+                                                                 @AuthenticationPrincipal Jwt jwt) {
+        Long userId = currentUserService.userId(jwt);
+        Long id = setlistService.create(userId, dto);
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new ApiResponse<>(true, "Программа создана", setlistService.load(id, userId, 0, 0), List.of()));
+    }
+
+    // ---------- UPDATE: программа целиком (название, порядок, тональности) ----------
+    @PutMapping("/{id}")
+    public ResponseEntity<ApiResponse<SetlistDto>> updateSetlist(@PathVariable Long id,
+                                                                 @RequestBody SetlistUpsertDto dto,
+                                                                 @AuthenticationPrincipal Jwt jwt) {
+        Long userId = currentUserService.userId(jwt);
+        setlistService.update(id, userId, dto);
+
+        return ResponseEntity.ok(new ApiResponse<>(true, "Программа обновлена", setlistService.load(id, userId, 0, 0), List.of()));
+    }
+
+    // ---------- DELETE ----------
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> deleteSetlist(@PathVariable Long id, @AuthenticationPrincipal Jwt jwt) {
+        Long userId = currentUserService.userId(jwt);
+        setlistService.delete(id, userId);
+
+        return ResponseEntity.ok(new ApiResponse<>(true, "Программа удалена", null, List.of()));
+    }
+}
@@ -1,29 +1,60 @@
 package ru.myguitarlib.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.myguitarlib.component.SongBinaryMessageConverter;
 import ru.myguitarlib.dto.ApiResponse;
 import ru.myguitarlib.dto.song.ArtistTitleDto;
 import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.dto.song.SongImportReportDto;
+import ru.myguitarlib.dto.song.SongPageDto;
 import ru.myguitarlib.dto.song.SongParseDto;
+import ru.myguitarlib.dto.song.SongPatchDto;
 import ru.myguitarlib.dto.song.SongUpsertDto;
+import ru.myguitarlib.dto.song.SongVersion;
 import ru.myguitarlib.exception.ApiException;
 import ru.myguitarlib.mapper.SongMapper;
-import ru.myguitarlib.model.User;
 import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.repository.SongCursor;
 import ru.myguitarlib.repository.SongRepository;
 import ru.myguitarlib.repository.UserRepository;
+import ru.myguitarlib.search.SongSearchIndex;
+import ru.myguitarlib.security.CurrentUserService;
+import ru.myguitarlib.service.ChordSheetCache;
+import ru.myguitarlib.service.CompressedSongCache;
+import ru.myguitarlib.service.SongExportService;
+import ru.myguitarlib.service.SongImportService;
+import ru.myguitarlib.service.SongStorageService;
+import ru.myguitarlib.service.SongViewService;
 import ru.myguitarlib.utilites.ChordParser;
-import ru.myguitarlib.utilites.ChordTransposer;
-
-
+import ru.myguitarlib.utilites.ChordSheetRenderer;
+import ru.myguitarlib.utilites.KeyDetector;
+import ru.myguitarlib.utilites.SongETags;
+import ru.myguitarlib.utilites.SongWireCodec;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
 import java.util.List;
 
 @RestController
@@ -31,13 +62,24 @@ import java.util.List;
 @RequestMapping("/api/v1/song")
 public class SongController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // браузер хранит ответ, но перед каждым использованием сверяет ETag
+    // (вместо no-store, который иначе ставит Spring Security)
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final SongRepository songRepository;
     private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
     private final ChordParser chordParser;
-
-
-    @Autowired
-    private ChordTransposer transposer;
+    private final SongViewService songViewService;
+    private final SongImportService songImportService;
+    private final SongStorageService songStorageService;
+    private final SongSearchIndex songSearchIndex;
+    private final CompressedSongCache compressedSongCache;
+    private final ChordSheetCache chordSheetCache;
+    private final SongExportService songExportService;
+    private final ObjectMapper objectMapper;
 
     // ---------- парсер слов и аккордов ----------
     @PostMapping("/parse")
@@ -45,14 +87,14 @@ public class SongController {
             @RequestBody SongParseDto dto,
             @AuthenticationPrincipal Jwt jwt) {
 
-        Long userId = getUser(jwt).getId();
-        var user = userRepository.findById(userId)
-                .orElseThrow( () -> new  ApiException("USER_NOT_FOUND", "Проблема доступа", HttpStatus.UNAUTHORIZED));
+        Long userId = currentUserService.userId(jwt);
 
         Song song = chordParser.parser(dto.getArtist(), dto.getTitle(), dto.getRawText());
-        song.setOwner(user);
+        song.setOwner(userRepository.getReferenceById(userId));   // ссылка без SELECT
         song.setComment("");
+        songStorageService.beforeSave(song);
         song = songRepository.save(song);
+        songSearchIndex.put(userId, song);
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new ApiResponse<>(true, "Песня создана", SongMapper.toDto(song), List.of()));
@@ -62,51 +104,194 @@ public class SongController {
 
 
 
+    // ---------- массовый импорт: zip или несколько .txt ("Исполнитель - Название.txt") ----------
+    @PostMapping(path = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<SongImportReportDto>> importSongs(
+            @RequestParam("files") List<MultipartFile> files,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        Long userId = currentUserService.userId(jwt);
+
+        var report = songImportService.importUploads(userId, files);
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new ApiResponse<>(true, "Импорт завершён", report, List.of()));
+    }
+
+
+    // ---------- экспорт всей библиотеки: NDJSON или zip, тело пишется по мере чтения из базы ----------
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSongs(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(defaultValue = "ndjson") String format,   // ndjson|zip
+            @RequestParam(required = false) Integer ton) {
+
+        Long userId = currentUserService.userId(jwt);
+        SongExportService.Format exportFormat = SongExportService.Format.parse(format);
+        int tonality = ton != null ? ton : 0;
+
+        StreamingResponseBody body = out -> songExportService.export(userId, exportFormat, tonality, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(exportFormat.fileName()).build().toString())
+                .body(body);
+    }
+
+
     // ---------- READ: list + search + sort ----------
     @GetMapping
     public ResponseEntity<ApiResponse<List<ArtistTitleDto>>> getIndex(
             @AuthenticationPrincipal Jwt jwt,
             @RequestParam(required = false) String q,
             @RequestParam(defaultValue = "artist") String sortBy, // artist|title
-            @RequestParam(defaultValue = "asc") String dir       // asc|desc
+            @RequestParam(defaultValue = "asc") String dir,      // asc|desc
+            @RequestParam(required = false) String key,          // тональность: Am, F#, Bb
+            ServletWebRequest request
     ) {
-        Long userId = getUser(jwt).getId();
-
-        if (!sortBy.equals("artist") && !sortBy.equals("title")) {
-            throw new ApiException("BAD_SORT", "sortBy может быть только 'artist' или 'title'", HttpStatus.BAD_REQUEST);
-        }
+        Long userId = currentUserService.userId(jwt);
+        checkSortBy(sortBy);
+        Integer songKey = parseKey(key);
 
         Direction direction = dir.equalsIgnoreCase("desc") ? Direction.DESC : Direction.ASC;
         Sort sort = Sort.by(direction, sortBy);
 
-        // один репо-метод для всех случаев
-        List<ArtistTitleDto> songList = songRepository.findIndex(userId, normalizeQuery(q), sort);
+        String query = normalizeQuery(q);
+        boolean ranked = query != null && !query.isEmpty() && songSearchIndex.isReady();
+        String etag = SongETags.library(userId, songRepository.findLibraryVersion(userId), ranked ? "r" : "d");
+        if (notModified(request, etag)) {
+            return null;
+        }
+
+        List<ArtistTitleDto> songList;
+        if (ranked) {
+            // поиск по индексу: по релевантности, при равной - как просили в sortBy/dir
+            songList = songSearchIndex.search(userId, query, songKey, indexOrder(sortBy, direction));
+        } else {
+            // один репо-метод для всех случаев
+            songList = songRepository.findIndex(userId, query, songKey, sort);
+        }
 
         return ResponseEntity.ok(new ApiResponse<>(true, "Песни пользователя", songList, List.of()));
     }
 
+    // ---------- READ: list по страницам (для больших библиотек) ----------
+    // порядок тот же, что у GET /song; поиск q - без ранжирования, как LIKE в базе
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<SongPageDto>> getIndexPage(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "artist") String sortBy, // artist|title
+            @RequestParam(defaultValue = "asc") String dir,       // asc|desc
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,        // nextCursor предыдущей страницы
+            @RequestParam(required = false) String key,           // тональность: Am, F#, Bb
+            ServletWebRequest request
+    ) {
+        Long userId = currentUserService.userId(jwt);
+        checkSortBy(sortBy);
+        Integer songKey = parseKey(key);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ApiException("BAD_LIMIT", "limit должен быть от 1 до " + MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST);
+        }
+        Direction direction = dir.equalsIgnoreCase("desc") ? Direction.DESC : Direction.ASC;
+        SongCursor after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor, sortBy, direction);
+
+        String etag = SongETags.library(userId, songRepository.findLibraryVersion(userId), "p");
+        if (notModified(request, etag)) {
+            return null;
+        }
+
+        // на одну больше - чтобы знать, есть ли следующая страница
+        List<ArtistTitleDto> items = songRepository.findIndexPage(
+                userId, normalizeQuery(q), songKey, sortBy, direction, after, limit + 1);
+
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            ArtistTitleDto last = items.get(limit - 1);
+            String sortKey = sortBy.equals("title") ? last.getTitle() : last.getArtist();
+            nextCursor = new SongCursor(sortBy, direction, sortKey, last.getId()).encode();
+        }
+
+        return ResponseEntity.ok(new ApiResponse<>(true, "Песни пользователя",
+                new SongPageDto(items, nextCursor), List.of()));
+    }
+
     // ---------- READ: one ----------
+    // JSON (ApiResponse) или, если клиент просит, двоичный SongWireCodec без обёртки;
+    // при Accept-Encoding: gzip - готовые сжатые байты из CompressedSongCache
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<SongDto>> getSong(
+    public ResponseEntity<?> getSong(
             @RequestParam(required = false) Integer ton,
             @PathVariable Long id,
-            @AuthenticationPrincipal Jwt jwt) {
-        Long userId = getUser(jwt).getId();
+            @AuthenticationPrincipal Jwt jwt,
+            ServletWebRequest request) {
+        Long userId = currentUserService.userId(jwt);
+        boolean binary = SongBinaryMessageConverter.preferred(request.getHeader(HttpHeaders.ACCEPT));
+        CompressedSongCache.Encoding encoding = compressedSongCache.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (request.getResponse() != null) {
+            request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
 
-        Song song = songRepository.findByIdAndOwnerIdWithChords(id, userId)
-                .orElseThrow(() -> new ApiException("SONG_NOT_FOUND", "Песня не найдена", HttpStatus.NOT_FOUND));
+        // версия - запрос без аккордов и текста; если у браузера она уже есть - 304
+        int tonality = ton != null ? ton : 0;
+        SongVersion version = songViewService.version(id, userId);
+        String etag = SongETags.song(version, tonality, binary, encoding != null ? encoding.token() : null);
+        if (notModified(request, etag)) {
+            return null;
+        }
+        MediaType contentType = binary ? SongBinaryMessageConverter.SONG_BINARY : MediaType.APPLICATION_JSON;
+
+        if (encoding != null) {
+            var key = new CompressedSongCache.Key(version.id(), version.updatedAt(), Math.floorMod(tonality, 12), binary, encoding);
+            byte[] body = compressedSongCache.get(key,
+                    () -> serialize(songViewService.getSong(version, userId, tonality), binary));
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .header(HttpHeaders.CONTENT_ENCODING, encoding.token())
+                    .contentLength(body.length)
+                    .body(body);
+        }
 
-       // ChordTransposer - транспонирование
+        // транспонирование и сборка DTO - в SongViewService (с кэшем готовых ответов)
+        SongDto song = songViewService.getSong(version, userId, tonality);
 
-        int tonality = ton != null ? ton : 0;
+        if (binary) {
+            return ResponseEntity.ok().contentType(contentType).body(song);
+        }
+        return ResponseEntity.ok(songResponse(song));
+    }
 
-        for (var chh : song.getChords()) {
-            chh.setChord(transposer.transpose(chh.getChord(), tonality));
-            // chh.setChord("ton="+tonality);
+
+    // ---------- READ: раскладка "аккорды над текстом" ----------
+    // text - моноширинный текст (как файл импорта), lines - JSON построчно: {chords, lyrics}
+    @GetMapping("/{id}/sheet")
+    public ResponseEntity<byte[]> getSheet(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer ton,
+            @RequestParam(defaultValue = "text") String format,   // text|lines
+            @AuthenticationPrincipal Jwt jwt,
+            ServletWebRequest request) {
+        Long userId = currentUserService.userId(jwt);
+        if (!format.equals("text") && !format.equals("lines")) {
+            throw new ApiException("BAD_FORMAT", "format может быть только 'text' или 'lines'", HttpStatus.BAD_REQUEST);
         }
+        boolean lines = format.equals("lines");
 
+        int tonality = ton != null ? ton : 0;
+        SongVersion version = songViewService.version(id, userId);
+        if (notModified(request, SongETags.sheet(version, tonality, lines))) {
+            return null;
+        }
 
-        return ResponseEntity.ok(new ApiResponse<>(true, "Песня получена", SongMapper.toDto(song), List.of()));
+        var key = new ChordSheetCache.Key(version.id(), version.updatedAt(), Math.floorMod(tonality, 12), lines);
+        byte[] body = chordSheetCache.get(key, () -> sheet(songViewService.getSong(version, userId, tonality), lines));
+        return ResponseEntity.ok()
+                .contentType(lines ? MediaType.APPLICATION_JSON : new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .contentLength(body.length)
+                .body(body);
     }
 
 
@@ -114,13 +299,15 @@ public class SongController {
     @PostMapping
     public ResponseEntity<ApiResponse<SongDto>> createSong(@RequestBody SongUpsertDto dto,
                                                            @AuthenticationPrincipal Jwt jwt) {
-        User user = getUser(jwt);
+        Long userId = currentUserService.userId(jwt);
 
         Song song = new Song();
-        song.setOwner(user);
+        song.setOwner(userRepository.getReferenceById(userId));
         SongMapper.applyUpsert(song, dto);
+        songStorageService.beforeSave(song);
 
         Song saved = songRepository.save(song);
+        songSearchIndex.put(userId, saved);
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new ApiResponse<>(true, "Песня создана", SongMapper.toDto(saved), List.of()));
@@ -131,14 +318,37 @@ public class SongController {
     public ResponseEntity<ApiResponse<SongDto>> updateSong(@PathVariable Long id,
                                                            @RequestBody SongUpsertDto dto,
                                                            @AuthenticationPrincipal Jwt jwt) {
-        Long userId = getUser(jwt).getId();
+        Long userId = currentUserService.userId(jwt);
 
         Song song = songRepository.findByIdAndOwnerIdWithChords(id, userId)
                 .orElseThrow(() -> new ApiException("SONG_NOT_FOUND", "Песня не найдена", HttpStatus.NOT_FOUND));
 
         SongMapper.applyUpsert(song, dto);
+        songStorageService.beforeSave(song);
 
         Song saved = songRepository.save(song);
+        songViewService.evict(id);
+        songSearchIndex.put(userId, saved);
+
+        return ResponseEntity.ok(new ApiResponse<>(true, "Песня обновлена", SongMapper.toDto(saved), List.of()));
+    }
+
+    // ---------- PATCH: только изменённое (автосохранение редактора) ----------
+    @PatchMapping("/{id}")
+    public ResponseEntity<ApiResponse<SongDto>> patchSong(@PathVariable Long id,
+                                                          @RequestBody SongPatchDto patch,
+                                                          @AuthenticationPrincipal Jwt jwt) {
+        Long userId = currentUserService.userId(jwt);
+
+        Song song = songRepository.findByIdAndOwnerIdWithChords(id, userId)
+                .orElseThrow(() -> new ApiException("SONG_NOT_FOUND", "Песня не найдена", HttpStatus.NOT_FOUND));
+
+        SongMapper.applyPatch(song, patch);
+        songStorageService.beforeSave(song);
+
+        Song saved = songRepository.save(song);
+        songViewService.evict(id);
+        songSearchIndex.put(userId, saved);
 
         return ResponseEntity.ok(new ApiResponse<>(true, "Песня обновлена", SongMapper.toDto(saved), List.of()));
     }
@@ -146,26 +356,101 @@ public class SongController {
     // ---------- DELETE ----------
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteSong(@PathVariable Long id, @AuthenticationPrincipal Jwt jwt) {
-        Long userId = getUser(jwt).getId();
+        Long userId = currentUserService.userId(jwt);
 
         Song song = songRepository.findByIdAndOwnerId(id, userId)
                 .orElseThrow(() -> new ApiException("SONG_NOT_FOUND", "Песня не найдена", HttpStatus.NOT_FOUND));
 
         songRepository.delete(song);
+        songViewService.evict(id);
+        songSearchIndex.remove(userId, id);
 
         return ResponseEntity.ok(new ApiResponse<>(true, "Песня удалена", null, List.of()));
     }
 
 
+    private static ApiResponse<SongDto> songResponse(SongDto song) {
+        return new ApiResponse<>(true, "Песня получена", song, List.of());
+    }
+
+    // тело ответа GET /song/{id} так же, как его записали бы конвертеры
+    private byte[] serialize(SongDto song, boolean binary) {
+        if (binary) {
+            return SongWireCodec.encode(song);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(songResponse(song));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать песню " + song.getId(), e);
+        }
+    }
+
+    // раскладка из уже транспонированной SongDto (RenderedSongCache): текст пишется сразу в байты
+    private byte[] sheet(SongDto song, boolean lines) {
+        if (lines) {
+            try {
+                return objectMapper.writeValueAsBytes(
+                        new ApiResponse<>(true, "Песня получена", ChordSheetRenderer.lines(song), List.of()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Не удалось сериализовать песню " + song.getId(), e);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(song.getLyrics() == null ? 64 : song.getLyrics().length() * 3);
+        try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            ChordSheetRenderer.render(song, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // ByteArrayOutputStream не бросает
+        }
+        return out.toByteArray();
+    }
+
+    // true - ответ уже 304 (ETag выставлен), тело не нужно
+    private static boolean notModified(ServletWebRequest request, String etag) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE.getHeaderValue());
+        }
+        return request.checkNotModified(etag);
+    }
+
     private String normalizeQuery(String q) {
         if (q == null) return null;
         String trimmed = q.trim();
         return trimmed.isEmpty() ? "" : trimmed;
     }
 
-    private User getUser(Jwt jwt) {
-        String email = jwt.getSubject();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ApiException("USER_NOT_FOUND", "Пользователь не найден", HttpStatus.UNAUTHORIZED));
+    private static void checkSortBy(String sortBy) {
+        if (!sortBy.equals("artist") && !sortBy.equals("title")) {
+            throw new ApiException("BAD_SORT", "sortBy может быть только 'artist' или 'title'", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // код songs.song_key; null - фильтра нет
+    private static Integer parseKey(String key) {
+        if (key == null || key.isBlank()) return null;
+        KeyDetector.Key parsed = KeyDetector.Key.parse(key);
+        if (parsed == null) {
+            throw new ApiException("BAD_KEY", "Непонятная тональность: " + key + " (пример: Am, F#, Bb)", HttpStatus.BAD_REQUEST);
+        }
+        return parsed.code();
+    }
+
+    private static SongCursor decodeCursor(String cursor, String sortBy, Direction direction) {
+        SongCursor after;
+        try {
+            after = SongCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("BAD_CURSOR", "Некорректный курсор", HttpStatus.BAD_REQUEST);
+        }
+        if (!after.sortBy().equals(sortBy) || after.direction() != direction) {
+            throw new ApiException("BAD_CURSOR", "Курсор от другого порядка сортировки", HttpStatus.BAD_REQUEST);
+        }
+        return after;
+    }
+
+    private static Comparator<ArtistTitleDto> indexOrder(String sortBy, Direction direction) {
+        Comparator<ArtistTitleDto> order = Comparator.comparing(
+                sortBy.equals("title") ? ArtistTitleDto::getTitle : ArtistTitleDto::getArtist,
+                Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+        return direction == Direction.DESC ? order.reversed() : order;
     }
 }
@@ -0,0 +1,164 @@
+package ru.myguitarlib.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.myguitarlib.dto.ApiResponse;
+import ru.myguitarlib.search.SongSearchIndex;
+import ru.myguitarlib.security.BoundedPasswordEncoder;
+import ru.myguitarlib.security.CachingJwtDecoder;
+import ru.myguitarlib.security.PrincipalCache;
+import ru.myguitarlib.service.ChordSheetCache;
+import ru.myguitarlib.service.CompressedSongCache;
+import ru.myguitarlib.service.RenderedSongCache;
+import ru.myguitarlib.utilites.ChordDictionary;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Статистика внутренних кэшей/словарей - чтобы подбирать их размеры
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/stats")
+public class StatsController {
+
+    private final ChordDictionary chordDictionary;
+    private final RenderedSongCache renderedSongCache;
+    private final CompressedSongCache compressedSongCache;
+    private final ChordSheetCache chordSheetCache;
+    private final SongSearchIndex songSearchIndex;
+    private final PrincipalCache principalCache;
+    private final CachingJwtDecoder jwtDecoder;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+
+        var chords = chordDictionary.stats();
+        stats.put("chordDictionary", Map.of(
+                "size", chords.size(),
+                "hits", chords.hits(),
+                "misses", chords.misses(),
+                "hitRate", chords.hitRate()
+        ));
+
+        var songs = renderedSongCache.stats();
+        stats.put("songCache", Map.of(
+                "size", renderedSongCache.size(),
+                "hits", songs.hitCount(),
+                "misses", songs.missCount(),
+                "evictions", songs.evictionCount(),
+                "hitRate", songs.hitRate()
+        ));
+
+        var compressed = compressedSongCache.stats();
+        stats.put("compressedSongCache", Map.of(
+                "size", compressed.entries(),
+                "bytes", compressed.bytes(),
+                "maxBytes", compressed.maxBytes(),
+                "hits", compressed.hits(),
+                "misses", compressed.misses(),
+                "hitRate", compressed.hitRate(),
+                "compressionRatio", compressed.compressionRatio(),
+                "cpuSavedMillis", compressed.cpuSavedMillis()
+        ));
+
+        var sheets = chordSheetCache.stats();
+        stats.put("chordSheetCache", Map.of(
+                "size", chordSheetCache.size(),
+                "bytes", chordSheetCache.bytes(),
+                "maxBytes", chordSheetCache.maxBytes(),
+                "hits", sheets.hitCount(),
+                "misses", sheets.missCount(),
+                "evictions", sheets.evictionCount(),
+                "hitRate", sheets.hitRate()
+        ));
+
+        var principals = principalCache.stats();
+        stats.put("principalCache", Map.of(
+                "size", principalCache.size(),
+                "hits", principals.hitCount(),
+                "misses", principals.missCount(),
+                "evictions", principals.evictionCount(),
+                "hitRate", principals.hitRate()
+        ));
+
+        var tokens = jwtDecoder.stats();
+        stats.put("jwtCache", Map.of(
+                "size", jwtDecoder.size(),
+                "hits", tokens.hitCount(),
+                "misses", tokens.missCount(),
+                "evictions", tokens.evictionCount(),
+                "hitRate", tokens.hitRate()
+        ));
+
+        var hashing = passwordEncoder.stats();
+        stats.put("passwordHashing", Map.of(
+                "threads", hashing.threads(),
+                "active", hashing.active(),
+                "queued", hashing.queued(),
+                "completed", hashing.completed(),
+                "rejected", hashing.rejected(),
+                "hashAvgMillis", hashing.hashAvgMillis(),
+                "hashMaxMillis", hashing.hashMaxMillis(),
+                "waitAvgMillis", hashing.waitAvgMillis()
+        ));
+
+        var search = songSearchIndex.stats();
+        stats.put("searchIndex", Map.of(
+                "ready", search.ready(),
+                "users", search.users(),
+                "songs", search.songs(),
+                "tokens", search.tokens(),
+                "trigrams", search.trigrams()
+        ));
+
+        stats.put("secondLevelCache", secondLevelCache());
+
+        return ResponseEntity.ok(new ApiResponse<>(true, "Статистика", stats, List.of()));
+    }
+
+    // кэш второго уровня Hibernate: попадания по регионам и сколько запросов всё же ушло в базу
+    private Map<String, Object> secondLevelCache() {
+        Statistics hibernate = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : hibernate.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics r = hibernate.getCacheRegionStatistics(region);
+            if (r == null) continue;
+            long requests = r.getHitCount() + r.getMissCount();
+            regions.put(region, Map.of(
+                    "size", r.getElementCountInMemory(),
+                    "hits", r.getHitCount(),
+                    "misses", r.getMissCount(),
+                    "puts", r.getPutCount(),
+                    "hitRate", requests == 0 ? 0 : (double) r.getHitCount() / requests
+            ));
+        }
+
+        long queryRequests = hibernate.getQueryCacheHitCount() + hibernate.getQueryCacheMissCount();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", hibernate.isStatisticsEnabled() && !regions.isEmpty());
+        result.put("regions", regions);
+        result.put("queryCache", Map.of(
+                "hits", hibernate.getQueryCacheHitCount(),
+                "misses", hibernate.getQueryCacheMissCount(),
+                "puts", hibernate.getQueryCachePutCount(),
+                "hitRate", queryRequests == 0 ? 0 : (double) hibernate.getQueryCacheHitCount() / queryRequests
+        ));
+        // всего с запуска: при L2_CACHE=false те же цифры показывают нагрузку без кэша
+        result.put("dbStatements", hibernate.getPrepareStatementCount());
+        result.put("entityLoads", hibernate.getEntityLoadCount());
+        result.put("collectionLoads", hibernate.getCollectionLoadCount());
+        return result;
+    }
+}
@@ -5,17 +5,16 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.oauth2.jwt.*;
 import org.springframework.web.bind.annotation.*;
 import ru.myguitarlib.config.SecurityProperties;
 import ru.myguitarlib.dto.ApiResponse;
-import ru.myguitarlib.model.User;
-import ru.myguitarlib.repository.UserRepository;
+import ru.myguitarlib.exception.ApiException;
+import ru.myguitarlib.security.CurrentUserService;
+import ru.myguitarlib.security.JwtTokenService;
 import ru.myguitarlib.security.TokenCookieService;
+import ru.myguitarlib.security.UserPrincipal;
 
-import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 
@@ -25,8 +24,8 @@ import java.util.List;
 public class TokenRefreshController {
 
     private final JwtDecoder jwtDecoder;
-    private final JwtEncoder jwtEncoder;
-    private final UserRepository userRepository;
+    private final JwtTokenService jwtTokenService;
+    private final CurrentUserService currentUserService;
     private final TokenCookieService tokenCookieService;
     private final SecurityProperties securityProperties;
 
@@ -59,26 +58,27 @@ public class TokenRefreshController {
             return unauthorized("Некорректный subject в токене");
         }
 
-        // 4. Находим пользователя
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
+        // 4. Находим пользователя (по uid из токена - через кэш, без запроса к users)
+        UserPrincipal user;
+        try {
+            user = currentUserService.resolve(jwt);
+        } catch (ApiException e) {
+            return unauthorized("Пользователь не найден");
+        }
 
-        // 5. Достаём роли (если хранишь в токене — можно взять из claim "roles")
+        // 5. Роли берём из claim "roles"
         List<String> roles = jwt.<List<String>>getClaim("roles");
         if (roles == null) {
             roles = List.of();
         }
-        List<GrantedAuthority> authorities = roles.stream()
-                .map(r -> (GrantedAuthority) () -> r)
-                .toList();
 
         // 6. TTL берём из настроек
         int accessTtl = securityProperties.getJwt().getAccessTokenValiditySeconds();
         int refreshTtl = securityProperties.getJwt().getRefreshTokenValiditySeconds();
 
         // 7. Генерим новые токены
-        String newAccessToken = generateToken(user, authorities, accessTtl);
-        String newRefreshToken = generateToken(user, authorities, refreshTtl);
+        String newAccessToken = jwtTokenService.generateToken(user.id(), user.email(), roles, accessTtl);
+        String newRefreshToken = jwtTokenService.generateToken(user.id(), user.email(), roles, refreshTtl);
 
         // 8. Собираем новые куки
         var cookies = tokenCookieService.buildCookies(newAccessToken, newRefreshToken);
@@ -114,27 +114,4 @@ public class TokenRefreshController {
         );
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(body);
     }
-
-    private String generateToken(User user,
-                                 Iterable<? extends GrantedAuthority> authorities,
-                                 int ttlSeconds) {
-        Instant now = Instant.now();
-        Instant expiresAt = now.plusSeconds(ttlSeconds);
-
-        List<String> roles = authorities == null
-                ? List.of()
-                : ((List<? extends GrantedAuthority>) authorities).stream()
-                .map(GrantedAuthority::getAuthority)
-                .toList();
-
-        JwtClaimsSet claims = JwtClaimsSet.builder()
-                .issuer("myguitarlib")
-                .issuedAt(now)
-                .expiresAt(expiresAt)
-                .subject(user.getEmail())
-                .claim("roles", roles)
-                .build();
-
-        return jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
-    }
 }
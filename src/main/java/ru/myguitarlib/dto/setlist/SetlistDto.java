@@ -0,0 +1,19 @@
+package ru.myguitarlib.dto.setlist;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SetlistDto {
+
+    private Long id;
+    private String name;
+    private List<SetlistEntryDto> entries;
+}
@@ -0,0 +1,21 @@
+package ru.myguitarlib.dto.setlist;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.myguitarlib.dto.song.SongDto;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SetlistEntryDto {
+
+    private int position;      // 0, 1, 2... - номер в программе
+    private Long songId;
+    private int semitones;
+    private String artist;
+    private String title;
+    private SongDto song;      // уже транспонированная; null - вне окна from..from+prefetch
+}
@@ -0,0 +1,7 @@
+package ru.myguitarlib.dto.setlist;
+
+import java.time.LocalDateTime;
+
+// Песня программы без текста и аккордов: updatedAt - для ключа RenderedSongCache
+public record SetlistEntryRow(Long songId, int semitones, String artist, String title, LocalDateTime updatedAt) {
+}
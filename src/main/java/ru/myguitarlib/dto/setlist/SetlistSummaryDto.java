@@ -0,0 +1,16 @@
+package ru.myguitarlib.dto.setlist;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+// строка списка программ; для JPQL "select new ..."
+@Getter
+@Setter
+@AllArgsConstructor
+public class SetlistSummaryDto {
+
+    private Long id;
+    private String name;
+    private long songs;
+}
@@ -0,0 +1,22 @@
+package ru.myguitarlib.dto.setlist;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// POST/PUT /setlist: название и песни по порядку (PUT заменяет программу целиком)
+@Getter
+@Setter
+public class SetlistUpsertDto {
+
+    private String name;
+    private List<Entry> entries;
+
+    @Getter
+    @Setter
+    public static class Entry {
+        private Long songId;
+        private int semitones;   // сдвиг в полутонах, как ton у GET /song/{id}
+    }
+}
@@ -1,15 +1,38 @@
 package ru.myguitarlib.dto.song;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
+import ru.myguitarlib.utilites.KeyDetector;
 
 @Getter
 @Setter
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ArtistTitleDto {
 
      private Long id;
     private String artist;
     private String title;
+    private String key;        // тональность "Am", "F#"; null - не определена
+
+    // только в результатах поиска по индексу (SongSearchIndex)
+    private String snippet;    // строка текста с совпадением
+    private Integer score;     // релевантность, больше - выше в списке
+
+    // для JPQL "select new ..."
+    public ArtistTitleDto(Long id, String artist, String title) {
+        this(id, artist, title, null, null, null);
+    }
+
+    // для JPQL "select new ...": songKey - код songs.song_key
+    public ArtistTitleDto(Long id, String artist, String title, Integer songKey) {
+        this(id, artist, title, keyName(songKey), null, null);
+    }
+
+    public static String keyName(Integer songKey) {
+        KeyDetector.Key key = KeyDetector.Key.ofCode(songKey);
+        return key == null ? null : key.name();
+    }
 }
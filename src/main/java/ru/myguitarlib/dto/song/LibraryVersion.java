@@ -0,0 +1,7 @@
+package ru.myguitarlib.dto.song;
+
+import java.time.LocalDateTime;
+
+// Версия библиотеки пользователя для ETag списка песен; lastUpdated = null - песен нет
+public record LibraryVersion(Long songs, LocalDateTime lastUpdated) {
+}
@@ -1,11 +1,14 @@
 package ru.myguitarlib.dto.song;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Setter
 @Getter
+@NoArgsConstructor
 public class SongChordDto {
 
     private Long id;
@@ -18,4 +21,20 @@ public class SongChordDto {
     private int lineIndex;
     private int charIndex;
     private String chord;
+    // id символа в словаре аккордов (только из song_chords) - наружу не отдаётся и не принимается
+    @JsonIgnore
+    private Integer chordId;
+
+    public SongChordDto(Long id, int lineIndex, int charIndex, String chord) {
+        this.id = id;
+        this.lineIndex = lineIndex;
+        this.charIndex = charIndex;
+        this.chord = chord;
+    }
+
+    // для JPQL "select new ..." (SongRepository.findChordViews)
+    public SongChordDto(Long id, int lineIndex, int charIndex, String chord, Integer chordId) {
+        this(id, lineIndex, charIndex, chord);
+        this.chordId = chordId;
+    }
 }
@@ -0,0 +1,5 @@
+package ru.myguitarlib.dto.song;
+
+// Аккорд с id песни - для выборки аккордов сразу нескольких песен (экспорт библиотеки)
+public record SongChordRow(Long songId, Long id, int lineIndex, int charIndex, String chord, Integer chordId) {
+}
@@ -0,0 +1,34 @@
+package ru.myguitarlib.dto.song;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class SongImportReportDto {
+
+    private int total;
+    private int imported;
+    private int failed;
+
+    private long parseMillis;
+    private long persistMillis;
+    private long totalMillis;
+    private double songsPerSecond;
+
+    private List<FileResult> files;
+
+    @Getter
+    @Setter
+    public static class FileResult {
+        private String fileName;
+        private String status;     // IMPORTED | FAILED
+        private Long songId;
+        private String artist;
+        private String title;
+        private int chords;
+        private String error;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.myguitarlib.dto.song;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class SongPageDto {
+
+    private List<ArtistTitleDto> items;
+    private String nextCursor;   // null - это последняя страница
+}
@@ -0,0 +1,39 @@
+package ru.myguitarlib.dto.song;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.openapitools.jackson.nullable.JsonNullable;
+
+import java.util.List;
+
+// PATCH /song/{id}: всё, чего нет в запросе, остаётся как было.
+// Поля песни - JsonNullable, чтобы отличать "не пришло" от явного null.
+@Getter
+@Setter
+public class SongPatchDto {
+
+    private JsonNullable<String> artist = JsonNullable.undefined();
+    private JsonNullable<String> title = JsonNullable.undefined();
+    private JsonNullable<String> comment = JsonNullable.undefined();
+    private JsonNullable<Integer> scrollSpeed = JsonNullable.undefined();
+    private JsonNullable<Integer> fontSize = JsonNullable.undefined();
+
+    private LyricsEdit lyrics;                  // замена части текста
+    private List<ChordPosition> removeChords;   // аккорды на этих позициях удаляются
+    private List<SongChordDto> addChords;       // на занятой позиции - замена символа
+
+    @Getter
+    @Setter
+    public static class LyricsEdit {
+        private int fromLine;   // первая заменяемая строка
+        private int toLine;     // строка после последней заменяемой (fromLine == toLine - вставка)
+        private String text;    // новые строки через \n; пусто - строки удаляются
+    }
+
+    @Getter
+    @Setter
+    public static class ChordPosition {
+        private int lineIndex;
+        private int charIndex;
+    }
+}
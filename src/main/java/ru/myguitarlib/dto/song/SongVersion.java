@@ -0,0 +1,7 @@
+package ru.myguitarlib.dto.song;
+
+import java.time.LocalDateTime;
+
+// Версия песни без загрузки аккордов: для ключей кэша
+public record SongVersion(Long id, LocalDateTime updatedAt) {
+}
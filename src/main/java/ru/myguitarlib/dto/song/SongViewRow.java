@@ -0,0 +1,7 @@
+package ru.myguitarlib.dto.song;
+
+// Колонки songs для просмотра песни - без сущности и её снимка; аккорды отдельным запросом
+// (или chordTrack, если песня хранится дорожкой)
+public record SongViewRow(Long id, String artist, String title, String comment, String lyrics,
+                          Integer scrollSpeed, Integer fontSize, byte[] chordTrack) {
+}
@@ -1,18 +1,24 @@
 package ru.myguitarlib.exception;
 
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import ru.myguitarlib.dto.ApiResponse;
 
+import java.sql.SQLTransientConnectionException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+@Slf4j
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -49,6 +55,38 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+// перегрузка (например, очередь хэширования паролей) - клиенту говорим, когда повторить
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse<Void>> handleServiceBusy(ServiceBusyException ex) {
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ApiResponse<>(
+                        false,
+                        ex.getMessage(),
+                        null,
+                        List.of(ex.getMessage())
+                ));
+    }
+
+// все соединения с базой заняты дольше spring.datasource.hikari.connection-timeout - 503 и Retry-After;
+// база недоступна, неверный пароль, обрыв сети - это не перегрузка: в лог и обычный 500
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ApiResponse<Void>> handleNoConnection(RuntimeException ex) {
+        if (!isPoolTimeout(ex)) {
+            log.error("Нет соединения с базой", ex);
+            throw ex;
+        }
+        return handleServiceBusy(new ServiceBusyException("DB_BUSY", "Сервер перегружен, повторите чуть позже", 1));
+    }
+
+    // Hikari по connection-timeout бросает SQLTransientConnectionException
+    static boolean isPoolTimeout(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientConnectionException) return true;
+        }
+        return false;
+    }
+
 // если при сохранении юзера будет что то не так
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ApiResponse<Void>> handleDataIntegrity(DataIntegrityViolationException ex) {
@@ -0,0 +1,15 @@
+package ru.myguitarlib.exception;
+
+import org.springframework.http.HttpStatus;
+
+// 503 с заголовком Retry-After: сервис перегружен, запрос можно повторить позже
+public class ServiceBusyException extends ApiException {
+    private final int retryAfterSeconds;
+
+    public ServiceBusyException(String code, String message, int retryAfterSeconds) {
+        super(code, message, HttpStatus.SERVICE_UNAVAILABLE);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() { return retryAfterSeconds; }
+}
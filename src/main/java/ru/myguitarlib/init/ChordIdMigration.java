@@ -0,0 +1,50 @@
+package ru.myguitarlib.init;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.myguitarlib.utilites.ChordDictionary;
+
+import java.util.List;
+
+// Перенос старых данных: раньше song_chords.chord хранил строку аккорда,
+// теперь song_chords.chord_id ссылается на словарь chord_symbols.
+// Старая колонка не удаляется - её можно убрать вручную после проверки.
+@Slf4j
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class ChordIdMigration implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChordDictionary dictionary;
+
+    @Override
+    public void run(String... args) {
+        Integer legacyColumns = jdbcTemplate.queryForObject("""
+                select count(*) from information_schema.columns
+                where lower(table_name) = 'song_chords' and lower(column_name) = 'chord'
+                """, Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
+        }
+
+        List<String> symbols = jdbcTemplate.queryForList(
+                "select distinct chord from song_chords where chord_id is null and chord is not null",
+                String.class);
+
+        int rows = 0;
+        for (String symbol : symbols) {
+            rows += jdbcTemplate.update(
+                    "update song_chords set chord_id = ? where chord = ? and chord_id is null",
+                    dictionary.importSymbol(symbol), symbol);
+        }
+
+        if (rows > 0) {
+            log.info("song_chords: {} строк переведено на chord_id ({} различных аккордов)", rows, symbols.size());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.myguitarlib.init;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.myguitarlib.config.SongProperties;
+import ru.myguitarlib.model.enums.ChordStorage;
+import ru.myguitarlib.repository.SongRepository;
+import ru.myguitarlib.service.SongStorageService;
+
+import java.util.List;
+
+// Перевод сохранённых песен в формат app.song.chord-storage:
+// rows -> track (строки song_chords сворачиваются в songs.chord_track) или обратно.
+// Включается app.song.migrate-chords=true, идёт пачками, каждая в своей транзакции,
+// поэтому прерванный перенос можно просто запустить ещё раз.
+@Slf4j
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class ChordTrackMigration implements CommandLineRunner {
+
+    private static final int BATCH = 200;
+
+    private final SongProperties properties;
+    private final SongRepository songRepository;
+    private final SongStorageService songStorageService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public void run(String... args) {
+        if (!properties.isMigrateChords()) {
+            return;
+        }
+
+        boolean toTrack = properties.getChordStorage() == ChordStorage.TRACK;
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int migrated = 0;
+        long afterId = 0;
+
+        while (true) {
+            // перенесённые в дорожку песни из выборки выпадают, поэтому всегда первая страница;
+            // обратно - по курсору: песня с символом не из словаря так и остаётся дорожкой
+            List<Long> ids = toTrack
+                    ? songRepository.findIdsWithChordRows(PageRequest.of(0, BATCH))
+                    : songRepository.findIdsWithChordTrack(afterId, PageRequest.of(0, BATCH));
+            if (ids.isEmpty()) break;
+            afterId = ids.get(ids.size() - 1);
+
+            tx.executeWithoutResult(status -> {
+                for (Long id : ids) {
+                    songRepository.findById(id).ifPresent(song -> {
+                        songStorageService.beforeSave(song);
+                        songRepository.save(song);
+                    });
+                }
+            });
+            migrated += ids.size();
+            log.info("Аккорды: {} песен переведено в формат {}", migrated, properties.getChordStorage());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ru.myguitarlib.init;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +18,7 @@ import ru.myguitarlib.utilites.ChordParser;
 
 @Component
 @Profile("dev")
+@Order(1)   // до SongKeyBackfill - демо-песням тоже посчитается тональность
 @RequiredArgsConstructor
 public class DemoDataInitializer implements CommandLineRunner {
 
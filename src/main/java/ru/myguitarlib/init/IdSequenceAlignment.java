@@ -0,0 +1,50 @@
+package ru.myguitarlib.init;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// songs и song_chords перешли с IDENTITY на последовательности (пакетная вставка).
+// В существующей базе PostgreSQL новая последовательность начинается с 1 -
+// подтягиваем её выше уже занятых id, иначе первые вставки упадут на дубликатах.
+@Slf4j
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class IdSequenceAlignment implements CommandLineRunner {
+
+    private static final String[][] SEQUENCES = {
+            {"songs", "songs_seq"},
+            {"song_chords", "song_chords_seq"},
+    };
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) throws SQLException {
+        try (Connection c = dataSource.getConnection()) {
+            if (!"PostgreSQL".equalsIgnoreCase(c.getMetaData().getDatabaseProductName())) {
+                return;
+            }
+        }
+
+        for (String[] pair : SEQUENCES) {
+            String table = pair[0];
+            String sequence = pair[1];
+            Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+            Long lastValue = jdbcTemplate.queryForObject("select last_value from " + sequence, Long.class);
+            if (maxId != null && lastValue != null && lastValue <= maxId) {
+                jdbcTemplate.queryForObject("select setval('" + sequence + "', ?)", Long.class, maxId + 1);
+                log.info("{}: последовательность сдвинута за max(id) = {}", sequence, maxId);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.myguitarlib.init;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.myguitarlib.config.SongProperties;
+import ru.myguitarlib.repository.SongRepository;
+import ru.myguitarlib.service.SongStorageService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Тональность (songs.song_key) для песен, сохранённых до того, как её стали считать при записи.
+// Пачками, каждая в своей транзакции; песня, где тональность не определить, получает -1
+// и в выборку больше не попадает, так что прерванный проход просто продолжится при следующем старте.
+@Slf4j
+@Component
+@Order(2)
+@RequiredArgsConstructor
+public class SongKeyBackfill implements CommandLineRunner {
+
+    private static final int BATCH = 200;
+
+    private final SongProperties properties;
+    private final SongRepository songRepository;
+    private final SongStorageService songStorageService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public void run(String... args) {
+        if (!properties.isBackfillKeys()) {
+            return;
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int done = 0;
+
+        while (true) {
+            List<Long> ids = songRepository.findIdsWithoutKey(PageRequest.of(0, BATCH));
+            if (ids.isEmpty()) break;
+
+            tx.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                for (Long id : ids) {
+                    songRepository.findById(id).ifPresent(song ->
+                            songRepository.updateSongKey(id, songStorageService.detectKey(song), now));
+                }
+            });
+            done += ids.size();
+            log.info("Тональность посчитана для {} песен", done);
+        }
+    }
+}
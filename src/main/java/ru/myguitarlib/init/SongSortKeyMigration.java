@@ -0,0 +1,29 @@
+package ru.myguitarlib.init;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Постраничная выдача сравнивает artist/title с курсором, а null не больше и не меньше ничего -
+// такие песни выпали бы из списка. Новые песни сохраняются с "" (SongStorageService),
+// здесь доводим до того же старые. updated_at тоже меняется - иначе ETag остался бы прежним.
+@Slf4j
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class SongSortKeyMigration implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        int rows = jdbcTemplate.update("update songs set artist = '', updated_at = current_timestamp where artist is null")
+                + jdbcTemplate.update("update songs set title = '', updated_at = current_timestamp where title is null");
+        if (rows > 0) {
+            log.info("songs: {} пустых artist/title заменено на ''", rows);
+        }
+    }
+}
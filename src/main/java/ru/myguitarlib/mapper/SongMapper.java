@@ -1,17 +1,35 @@
 package ru.myguitarlib.mapper;
 
+import org.springframework.http.HttpStatus;
 import ru.myguitarlib.dto.song.SongChordDto;
 import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.dto.song.SongPatchDto;
 import ru.myguitarlib.dto.song.SongUpsertDto;
+import ru.myguitarlib.dto.song.SongViewRow;
+import ru.myguitarlib.exception.ApiException;
+import ru.myguitarlib.metrics.HotPathMetrics;
 import ru.myguitarlib.model.song.Song;
 import ru.myguitarlib.model.song.SongChord;
+import ru.myguitarlib.utilites.ChordTrackCodec;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 public final class SongMapper {
     private SongMapper() {}
 
     public static SongDto toDto(Song song) {
+        long started = HotPathMetrics.start();
         SongDto dto = new SongDto();
 
         dto.setFontSize(song.getFontSize());
@@ -24,11 +42,39 @@ public final class SongMapper {
         dto.setComment(song.getComment());
         dto.setLyrics(song.getLyrics());
 
-        List<SongChordDto> chords = song.getChords().stream()
-                .map(SongMapper::toChordDto)
-                .toList();
+        List<SongChordDto> chords = song.getChordTrack() != null
+                ? ChordTrackCodec.decode(song.getChordTrack()).stream()
+                        .map(SongMapper::toChordDto)
+                        .toList()
+                : song.getChords().stream()
+                        .map(SongMapper::toChordDto)
+                        .toList();
 
         dto.setChords(chords);
+        HotPathMetrics.stop(HotPathMetrics.Op.SONG_TO_DTO, started);
+        return dto;
+    }
+
+    // просмотр без сущности: chords - из запроса song_chords, если песня хранится строками
+    public static SongDto toDto(SongViewRow row, List<SongChordDto> chords) {
+        long started = HotPathMetrics.start();
+        SongDto dto = new SongDto();
+
+        dto.setFontSize(row.fontSize());
+        dto.setScrollSpeed(row.scrollSpeed());
+
+        dto.setId(row.id());
+        dto.setArtist(row.artist());
+        dto.setTitle(row.title());
+        dto.setComment(row.comment());
+        dto.setLyrics(row.lyrics());
+
+        dto.setChords(row.chordTrack() != null
+                ? ChordTrackCodec.decode(row.chordTrack()).stream()
+                        .map(SongMapper::toChordDto)
+                        .toList()
+                : chords);
+        HotPathMetrics.stop(HotPathMetrics.Op.SONG_TO_DTO, started);
         return dto;
     }
 
@@ -42,26 +88,184 @@ public final class SongMapper {
         song.setScrollSpeed(dto.getScrollSpeed());
         song.setFontSize(dto.getFontSize());
 
-        // полная замена аккордов
-        song.getChords().clear();
-        if (dto.getChords() != null) {
-            for (SongChordDto chDto : dto.getChords()) {
-                SongChord ch = new SongChord();
-                ch.setSong(song);
+        // аккорды - обратная сторона связи, их изменение само не помечает песню изменённой,
+        // а updatedAt служит версией песни (кэш ответов)
+        song.setUpdatedAt(LocalDateTime.now());
+
+        // аккорды целиком из dto, но в базу уходят только отличия (в формат хранения их переводит SongStorageService)
+        song.setChordTrack(null);
+        mergeChords(song, dto.getChords() == null ? List.of() : dto.getChords());
+    }
+
+    /**
+     * Частичное изменение: поля, которых нет в запросе, не меняются; затем замена строк текста,
+     * удаление и добавление аккордов. Аккорды из chord_track сначала раскладываются в строки.
+     */
+    public static void applyPatch(Song song, SongPatchDto patch) {
+        patch.getArtist().ifPresent(song::setArtist);
+        patch.getTitle().ifPresent(song::setTitle);
+        patch.getComment().ifPresent(song::setComment);
+        patch.getScrollSpeed().ifPresent(song::setScrollSpeed);
+        patch.getFontSize().ifPresent(song::setFontSize);
+
+        song.setUpdatedAt(LocalDateTime.now());
+        unpackChordTrack(song);
+
+        if (patch.getLyrics() != null) {
+            replaceLyricsLines(song, patch.getLyrics());
+        }
+        if (patch.getRemoveChords() != null) {
+            Set<Long> removed = new HashSet<>();
+            for (SongPatchDto.ChordPosition p : patch.getRemoveChords()) {
+                removed.add(position(p.getLineIndex(), p.getCharIndex()));
+            }
+            song.getChords().removeIf(ch -> removed.contains(position(ch.getLineIndex(), ch.getCharIndex())));
+        }
+        if (patch.getAddChords() != null) {
+            Map<Long, SongChord> byPosition = new HashMap<>();
+            for (SongChord ch : song.getChords()) {
+                byPosition.put(position(ch.getLineIndex(), ch.getCharIndex()), ch);
+            }
+            for (SongChordDto chDto : patch.getAddChords()) {
+                SongChord ch = byPosition.get(position(chDto.getLineIndex(), chDto.getCharIndex()));
+                if (ch == null) {
+                    ch = newChord(song, chDto);
+                    song.getChords().add(ch);
+                    byPosition.put(position(ch.getLineIndex(), ch.getCharIndex()), ch);
+                } else if (!Objects.equals(ch.getChord(), chDto.getChord())) {
+                    ch.setChord(chDto.getChord());
+                }
+            }
+        }
+    }
+
+    /**
+     * Аккорды песни приводятся к incoming без полной перезаписи: аккорд на той же позиции
+     * остаётся как есть (или меняется только символ), лишние строки song_chords не удаляются,
+     * а переезжают на позиции новых - UPDATE вместо пары DELETE + INSERT. Удаляется только остаток.
+     */
+    static void mergeChords(Song song, List<SongChordDto> incoming) {
+        Map<Long, SongChordDto> wanted = new LinkedHashMap<>();
+        for (SongChordDto chDto : incoming) {
+            wanted.put(position(chDto.getLineIndex(), chDto.getCharIndex()), chDto);
+        }
+
+        List<SongChord> chords = song.getChords();
+        List<SongChord> free = new ArrayList<>();
+        for (SongChord ch : chords) {
+            SongChordDto chDto = wanted.remove(position(ch.getLineIndex(), ch.getCharIndex()));
+            if (chDto == null) {
+                free.add(ch);
+            } else if (!Objects.equals(ch.getChord(), chDto.getChord())) {
+                ch.setChord(chDto.getChord());
+            }
+        }
+
+        int reused = 0;
+        for (SongChordDto chDto : wanted.values()) {
+            if (reused < free.size()) {
+                SongChord ch = free.get(reused++);
                 ch.setLineIndex(chDto.getLineIndex());
                 ch.setCharIndex(chDto.getCharIndex());
                 ch.setChord(chDto.getChord());
-                song.getChords().add(ch);
+            } else {
+                chords.add(newChord(song, chDto));
+            }
+        }
+
+        if (reused < free.size()) {
+            Set<SongChord> orphans = Collections.newSetFromMap(new IdentityHashMap<>());
+            orphans.addAll(free.subList(reused, free.size()));
+            chords.removeIf(orphans::contains);
+        }
+    }
+
+    // строки [fromLine, toLine) заменяются строками text; аккорды ниже сдвигаются вместе с текстом,
+    // аккорды над исчезнувшими строками удаляются
+    private static void replaceLyricsLines(Song song, SongPatchDto.LyricsEdit edit) {
+        List<String> lines = splitLines(song.getLyrics());
+        int from = edit.getFromLine();
+        int to = edit.getToLine();
+        if (from < 0 || to < from || to > lines.size()) {
+            throw new ApiException("BAD_LYRICS_RANGE",
+                    "Строки " + from + ".." + to + " вне текста из " + lines.size() + " строк", HttpStatus.BAD_REQUEST);
+        }
+
+        List<String> replacement = splitLines(edit.getText());
+        List<String> result = new ArrayList<>(lines.size() - (to - from) + replacement.size());
+        result.addAll(lines.subList(0, from));
+        result.addAll(replacement);
+        result.addAll(lines.subList(to, lines.size()));
+        song.setLyrics(String.join("\n", result));
+
+        int shift = replacement.size() - (to - from);
+        int keptUntil = from + replacement.size();   // строки правки, которые остались на месте
+        song.getChords().removeIf(ch -> ch.getLineIndex() >= keptUntil && ch.getLineIndex() < to);
+        if (shift != 0) {
+            for (SongChord ch : song.getChords()) {
+                if (ch.getLineIndex() >= to) {
+                    ch.setLineIndex(ch.getLineIndex() + shift);
+                }
             }
         }
     }
 
+    private static List<String> splitLines(String text) {
+        return text == null || text.isEmpty() ? List.of() : Arrays.asList(text.split("\n", -1));
+    }
+
+    private static long position(int lineIndex, int charIndex) {
+        return ((long) lineIndex << 32) | (charIndex & 0xFFFFFFFFL);
+    }
+
+    private static SongChord newChord(Song song, SongChordDto chDto) {
+        SongChord ch = new SongChord();
+        ch.setSong(song);
+        ch.setLineIndex(chDto.getLineIndex());
+        ch.setCharIndex(chDto.getCharIndex());
+        ch.setChord(chDto.getChord());
+        return ch;
+    }
+
+    // строки song_chords -> одна колонка chord_track
+    public static void packChordTrack(Song song) {
+        List<ChordTrackCodec.Entry> entries = song.getChords().stream()
+                .map(ch -> new ChordTrackCodec.Entry(ch.getLineIndex(), ch.getCharIndex(), ch.getChord()))
+                .toList();
+        song.setChordTrack(ChordTrackCodec.encode(entries));
+        song.getChords().clear();
+    }
+
+    // chord_track -> строки song_chords
+    public static void unpackChordTrack(Song song) {
+        if (song.getChordTrack() == null) return;
+        for (ChordTrackCodec.Entry entry : ChordTrackCodec.decode(song.getChordTrack())) {
+            SongChord ch = new SongChord();
+            ch.setSong(song);
+            ch.setLineIndex(entry.lineIndex());
+            ch.setCharIndex(entry.charIndex());
+            ch.setChord(entry.chord());
+            song.getChords().add(ch);
+        }
+        song.setChordTrack(null);
+    }
+
+    // у аккордов из chord_track своего id нет
+    private static SongChordDto toChordDto(ChordTrackCodec.Entry entry) {
+        SongChordDto dto = new SongChordDto();
+        dto.setLineIndex(entry.lineIndex());
+        dto.setCharIndex(entry.charIndex());
+        dto.setChord(entry.chord());
+        return dto;
+    }
+
     private static SongChordDto toChordDto(SongChord chord) {
         SongChordDto dto = new SongChordDto();
         dto.setId(chord.getId());
         dto.setLineIndex(chord.getLineIndex());
         dto.setCharIndex(chord.getCharIndex());
         dto.setChord(chord.getChord());
+        dto.setChordId(chord.getChordId());
         return dto;
     }
 }
@@ -0,0 +1,56 @@
+package ru.myguitarlib.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Тот же тег endpoint, что у EndpointTagInterceptor, но раньше - до Spring Security:
+ * разбор и проверка JWT (CachingJwtDecoder) идут в фильтрах, когда интерцептор ещё не вызван.
+ * Шаблон пути ищется тем же RequestMappingHandlerMapping, что потом выберет контроллер.
+ */
+public class EndpointTagFilter extends OncePerRequestFilter {
+
+    private final Supplier<HandlerMapping> handlerMapping;
+
+    public EndpointTagFilter(Supplier<HandlerMapping> handlerMapping) {
+        this.handlerMapping = handlerMapping;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String endpoint = endpoint(request);
+        if (endpoint == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        HotPathMetrics.enter(endpoint);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            HotPathMetrics.exit();
+        }
+    }
+
+    private String endpoint(HttpServletRequest request) {
+        boolean parsed = ServletRequestPathUtils.hasParsedRequestPath(request);
+        if (!parsed) ServletRequestPathUtils.parseAndCache(request);
+        try {
+            if (handlerMapping.get().getHandler(request) == null) return null;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            return pattern == null ? null : request.getMethod() + " " + pattern;
+        } catch (Exception e) {
+            return null;   // 405, 415 и т.п. - ответит DispatcherServlet, тег не нужен
+        } finally {
+            if (!parsed) ServletRequestPathUtils.clearParsedRequestPath(request);
+        }
+    }
+}
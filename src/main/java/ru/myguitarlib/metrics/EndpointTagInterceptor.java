@@ -0,0 +1,31 @@
+package ru.myguitarlib.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Тег endpoint для HotPathMetrics: метод и шаблон пути (без id - число значений ограничено)
+public class EndpointTagInterceptor implements AsyncHandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            HotPathMetrics.enter(request.getMethod() + " " + pattern);
+        }
+        return true;
+    }
+
+    // асинхронный ответ (StreamingResponseBody): afterCompletion в этом потоке не будет,
+    // а поток Tomcat уходит на следующий запрос
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        HotPathMetrics.exit();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        HotPathMetrics.exit();
+    }
+}
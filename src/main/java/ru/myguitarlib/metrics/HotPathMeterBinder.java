@@ -0,0 +1,15 @@
+package ru.myguitarlib.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+// Spring Boot вызывает bindTo для каждого MeterRegistry - с этого момента HotPathMetrics пишет в него
+@Component
+public class HotPathMeterBinder implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        HotPathMetrics.bind(registry);
+    }
+}
@@ -0,0 +1,143 @@
+package ru.myguitarlib.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Таймеры и счётчики горячих мест (парсер, транспонирование, маппер, JWT, BCrypt)
+ * с тегом endpoint - шаблоном запроса, внутри которого шла работа ("GET /api/v1/song/{id}").
+ *
+ * Статический API, чтобы мерить и статический SongMapper, и классы, которые создаются без Spring
+ * (тесты, бенчмарки): пока HotPathMeterBinder не подключил реестр, запись ничего не делает.
+ * Запись без выделения памяти: endpoint - строка из ThreadLocal, метрики лежат в массиве
+ * по ordinal и создаются один раз на пару (метрика, endpoint).
+ */
+public final class HotPathMetrics {
+
+    public enum Op {
+        CHORD_PARSE("myguitarlib.chords.parse", "Разбор текста с аккордами (ChordParser.parser)"),
+        CHORD_TRANSPOSE("myguitarlib.chords.transpose", "Транспонирование аккордов песни (ChordTransposer.transposeAll)"),
+        SONG_TO_DTO("myguitarlib.song.to.dto", "Song -> SongDto (SongMapper.toDto)"),
+        JWT_ENCODE("myguitarlib.jwt.encode", "Выпуск и подпись JWT"),
+        JWT_DECODE("myguitarlib.jwt.decode", "Разбор JWT из cookie, вместе с кэшем проверенных токенов"),
+        JWT_VERIFY("myguitarlib.jwt.verify", "Проверка подписи JWT (промах кэша)"),
+        PASSWORD_HASH("myguitarlib.password.hash", "BCrypt: хэширование или сверка пароля"),
+        PASSWORD_QUEUE("myguitarlib.password.queue", "BCrypt: ожидание в очереди пула");
+
+        private final String metric;
+        private final String description;
+
+        Op(String metric, String description) {
+            this.metric = metric;
+            this.description = description;
+        }
+    }
+
+    public enum Count {
+        CHORDS_PARSED("myguitarlib.chords.parsed", "Аккордов найдено парсером"),
+        SONGS_EXPORTED("myguitarlib.songs.exported", "Песен выгружено экспортом библиотеки"),
+        PASSWORD_REJECTED("myguitarlib.password.rejected", "BCrypt: отказов из-за полной очереди (503)");
+
+        private final String metric;
+        private final String description;
+
+        Count(String metric, String description) {
+            this.metric = metric;
+            this.description = description;
+        }
+    }
+
+    // работа вне запроса к контроллеру: загрузчики при старте, фоновые потоки, неизвестные пути
+    public static final String NO_ENDPOINT = "none";
+
+    private static final Op[] OPS = Op.values();
+    private static final Count[] COUNTS = Count.values();
+    private static final ThreadLocal<String> ENDPOINT = new ThreadLocal<>();
+
+    private static volatile MeterRegistry registry;
+    private static final Map<String, AtomicReferenceArray<Timer>> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicReferenceArray<Counter>> COUNTERS = new ConcurrentHashMap<>();
+
+    private HotPathMetrics() {
+    }
+
+    static void bind(MeterRegistry meterRegistry) {
+        TIMERS.clear();
+        COUNTERS.clear();
+        registry = meterRegistry;
+    }
+
+    // EndpointTagFilter (вместе с фильтрами Spring Security) и EndpointTagInterceptor: на время обработки запроса
+    static void enter(String endpoint) {
+        ENDPOINT.set(endpoint);
+    }
+
+    static void exit() {
+        ENDPOINT.remove();
+    }
+
+    public static String endpoint() {
+        String endpoint = ENDPOINT.get();
+        return endpoint != null ? endpoint : NO_ENDPOINT;
+    }
+
+    // для замера: long started = HotPathMetrics.start(); ... HotPathMetrics.stop(Op.X, started)
+    public static long start() {
+        return registry != null ? System.nanoTime() : 0;
+    }
+
+    public static void stop(Op op, long started) {
+        if (started != 0) record(op, endpoint(), System.nanoTime() - started);
+    }
+
+    // из другого потока (пул BCrypt): endpoint взят в потоке запроса
+    public static void record(Op op, String endpoint, long nanos) {
+        MeterRegistry r = registry;
+        if (r == null) return;
+
+        AtomicReferenceArray<Timer> row = TIMERS.get(endpoint);
+        if (row == null) {
+            row = TIMERS.computeIfAbsent(endpoint, e -> new AtomicReferenceArray<>(OPS.length));
+        }
+        Timer timer = row.get(op.ordinal());
+        if (timer == null) {
+            // реестр возвращает один и тот же таймер для одного id - гонка здесь безвредна
+            timer = Timer.builder(op.metric)
+                    .description(op.description)
+                    .tag("endpoint", endpoint)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(1_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(r);
+            row.set(op.ordinal(), timer);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void count(Count count, long amount) {
+        MeterRegistry r = registry;
+        if (r == null) return;
+
+        String endpoint = endpoint();
+        AtomicReferenceArray<Counter> row = COUNTERS.get(endpoint);
+        if (row == null) {
+            row = COUNTERS.computeIfAbsent(endpoint, e -> new AtomicReferenceArray<>(COUNTS.length));
+        }
+        Counter counter = row.get(count.ordinal());
+        if (counter == null) {
+            counter = Counter.builder(count.metric)
+                    .description(count.description)
+                    .tag("endpoint", endpoint)
+                    .register(r);
+            row.set(count.ordinal(), counter);
+        }
+        counter.increment(amount);
+    }
+}
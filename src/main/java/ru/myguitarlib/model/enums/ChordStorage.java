@@ -0,0 +1,7 @@
+package ru.myguitarlib.model.enums;
+
+// Где хранятся аккорды песни
+public enum ChordStorage {
+    ROWS,   // по строке song_chords на аккорд
+    TRACK   // одной закодированной колонкой songs.chord_track (ChordTrackCodec)
+}
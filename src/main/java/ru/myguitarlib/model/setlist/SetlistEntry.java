@@ -0,0 +1,49 @@
+package ru.myguitarlib.model.setlist;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import ru.myguitarlib.model.song.Song;
+
+@Entity
+@Table(name = "setlist_entries", indexes = {
+        // программа по порядку (SetlistRepository.findEntryRows)
+        @Index(name = "idx_setlist_entries_setlist", columnList = "setlist_id, position"),
+        // удаление песни каскадом убирает её из программ
+        @Index(name = "idx_setlist_entries_song", columnList = "song_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class SetlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "setlist_entries_seq")
+    @SequenceGenerator(name = "setlist_entries_seq", sequenceName = "setlist_entries_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "setlist_id")
+    private Setlist setlist;
+
+    // внешний ключ с on delete cascade: удалённая песня пропадает из программы, в position остаётся дырка
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "song_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Song song;
+
+    private int position;     // порядок в программе
+    private int semitones;    // сдвиг тональности этой песни, 0..11
+}
@@ -0,0 +1,25 @@
+package ru.myguitarlib.model.song;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Общий словарь аккордов: song_chords хранит chord_id вместо строки.
+// Записи добавляет ChordDictionary, id выдаются подряд с нуля.
+@Entity
+@Table(name = "chord_symbols")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ChordDictionaryEntry {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String symbol;
+}
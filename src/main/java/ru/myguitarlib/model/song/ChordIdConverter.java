@@ -0,0 +1,27 @@
+package ru.myguitarlib.model.song;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.myguitarlib.utilites.ChordDictionary;
+
+// Строка аккорда <-> id в общем словаре (chord_symbols).
+// Hibernate создаёт конвертер через Spring, поэтому словарь инжектится.
+@Component
+@Converter
+@RequiredArgsConstructor
+public class ChordIdConverter implements AttributeConverter<String, Integer> {
+
+    private final ChordDictionary dictionary;
+
+    @Override
+    public Integer convertToDatabaseColumn(String chord) {
+        return chord == null ? null : dictionary.idOf(chord);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer id) {
+        return id == null ? null : dictionary.symbol(id);
+    }
+}
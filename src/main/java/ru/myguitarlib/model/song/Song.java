@@ -8,14 +8,19 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -26,15 +31,28 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "songs")
+@Table(name = "songs", indexes = {
+        // постраничный список (SongPageRepository): where user_id = ? order by artist|title, id
+        @Index(name = "idx_songs_user_artist", columnList = "user_id, artist, id"),
+        @Index(name = "idx_songs_user_title", columnList = "user_id, title, id"),
+        // версия библиотеки для ETag списка: count(*) и max(updated_at) по одному индексу
+        @Index(name = "idx_songs_user_updated", columnList = "user_id, updated_at"),
+        // фильтр списка по тональности: where user_id = ? and song_key = ?
+        @Index(name = "idx_songs_user_key", columnList = "user_id, song_key"),
+        // экспорт библиотеки: where user_id = ? and id > ? order by id
+        @Index(name = "idx_songs_user_id", columnList = "user_id, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate   // UPDATE только изменённых колонок: правка комментария не переписывает lyrics и chord_track
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "song")   // читается много чаще, чем пишется
 public class Song {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "songs_seq")
+    @SequenceGenerator(name = "songs_seq", sequenceName = "songs_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -57,8 +75,19 @@ public class Song {
     private String lyrics;
 
     @OneToMany(mappedBy = "song", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "song-chords")
     private List<SongChord> chords = new ArrayList<>();
 
+    // вся дорожка аккордов одной колонкой (app.song.chord-storage = track), см. ChordTrackCodec;
+    // если заполнена - строк song_chords у песни нет
+    @Column(name = "chord_track", length = 1_000_000)
+    private byte[] chordTrack;
+
+    // тональность по аккордам (KeyDetector), считается при сохранении: 0..11 мажор, 12..23 минор,
+    // -1 - не определить; null - ещё не посчитана (досчитывает SongKeyBackfill)
+    @Column(name = "song_key")
+    private Integer songKey;
+
 
     @CreatedDate
     private LocalDateTime createdAt;
@@ -1,26 +1,37 @@
 package ru.myguitarlib.model.song;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "song_chords")
+@Table(name = "song_chords", indexes = {
+        // аккорды песни по порядку (SongRepository.findChordViews, загрузка Song.chords)
+        @Index(name = "idx_song_chords_song", columnList = "song_id, line_index, char_index")
+})
 @Getter
 @Setter
 @NoArgsConstructor
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "song-chord")
 public class SongChord {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "song_chords_seq")
+    @SequenceGenerator(name = "song_chords_seq", sequenceName = "song_chords_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -29,5 +40,10 @@ public class SongChord {
 
     private int lineIndex;     // номер строки в lyrics
     private int charIndex;     // индекс символа в строке
-    private String chord;      // "Am", "Dm/F", и т.п.
+    @Convert(converter = ChordIdConverter.class)
+    @Column(name = "chord_id")
+    private String chord;      // "Am", "Dm/F", и т.п. - в базе хранится id из словаря аккордов
+    // тот же столбец как есть: по нему транспонирование берёт строку таблицы словаря без поиска по символу
+    @Column(name = "chord_id", insertable = false, updatable = false)
+    private Integer chordId;
 }
\ No newline at end of file
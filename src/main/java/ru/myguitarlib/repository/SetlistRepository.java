@@ -0,0 +1,38 @@
+package ru.myguitarlib.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.myguitarlib.dto.setlist.SetlistEntryRow;
+import ru.myguitarlib.dto.setlist.SetlistSummaryDto;
+import ru.myguitarlib.model.setlist.Setlist;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SetlistRepository extends JpaRepository<Setlist, Long> {
+
+    Optional<Setlist> findByIdAndOwnerId(Long id, Long ownerId);
+
+    @Query("""
+        select new ru.myguitarlib.dto.setlist.SetlistSummaryDto(s.id, s.name, count(e))
+        from Setlist s left join s.entries e
+        where s.owner.id = :ownerId
+        group by s.id, s.name
+        order by s.name, s.id
+    """)
+    List<SetlistSummaryDto> findSummaries(Long ownerId);
+
+    @Query("select s.name from Setlist s where s.id = :id and s.owner.id = :ownerId")
+    Optional<String> findName(Long id, Long ownerId);
+
+    // вся программа одним запросом: песни по порядку, без текста и аккордов
+    @Query("""
+        select new ru.myguitarlib.dto.setlist.SetlistEntryRow(s.id, e.semitones, s.artist, s.title, s.updatedAt)
+        from SetlistEntry e join e.song s
+        where e.setlist.id = :setlistId
+        order by e.position
+    """)
+    List<SetlistEntryRow> findEntryRows(Long setlistId);
+}
@@ -0,0 +1,31 @@
+package ru.myguitarlib.repository;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция в списке песен для постраничной выдачи: значение поля сортировки
+ * и id последней отданной песни. Клиенту уходит непрозрачной строкой (base64url);
+ * порядок сортировки зашит внутрь, чтобы курсор нельзя было применить к другому порядку.
+ */
+public record SongCursor(String sortBy, Direction direction, String key, Long id) {
+
+    private static final char SEPARATOR = '\u0000';
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + direction + SEPARATOR + id + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // IllegalArgumentException - строка не похожа на курсор
+    public static SongCursor decode(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = raw.split(String.valueOf(SEPARATOR), 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+        return new SongCursor(parts[0], Direction.valueOf(parts[1]), parts[3], Long.valueOf(parts[2]));
+    }
+}
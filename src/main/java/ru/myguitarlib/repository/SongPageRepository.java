@@ -0,0 +1,19 @@
+package ru.myguitarlib.repository;
+
+import org.springframework.data.domain.Sort.Direction;
+import ru.myguitarlib.dto.song.ArtistTitleDto;
+
+import java.util.List;
+
+// Постраничный список песен "по курсору" (keyset): реализация в SongPageRepositoryImpl
+public interface SongPageRepository {
+
+    /**
+     * Не больше limit песен после курсора (after = null - с начала) в порядке sortBy/direction, id.
+     * Каждая страница - один запрос по индексу (user_id, sortBy, id), без OFFSET,
+     * поэтому дальние страницы стоят столько же, сколько первая.
+     * songKey - только песни в этой тональности (код songs.song_key), null - все.
+     */
+    List<ArtistTitleDto> findIndexPage(Long ownerId, String q, Integer songKey, String sortBy,
+                                       Direction direction, SongCursor after, int limit);
+}
@@ -0,0 +1,63 @@
+package ru.myguitarlib.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort.Direction;
+import ru.myguitarlib.dto.song.ArtistTitleDto;
+
+import java.util.List;
+import java.util.Set;
+
+public class SongPageRepositoryImpl implements SongPageRepository {
+
+    private static final Set<String> SORT_FIELDS = Set.of("artist", "title");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ArtistTitleDto> findIndexPage(Long ownerId, String q, Integer songKey, String sortBy,
+                                              Direction direction, SongCursor after, int limit) {
+        // имя поля подставляется в JPQL - только из белого списка
+        if (!SORT_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException("sortBy: " + sortBy);
+        }
+        boolean search = q != null && !q.isEmpty();
+        String cmp = direction == Direction.DESC ? "<" : ">";
+        String dir = direction == Direction.DESC ? "desc" : "asc";
+
+        StringBuilder jpql = new StringBuilder("""
+                select new ru.myguitarlib.dto.song.ArtistTitleDto(s.id, s.artist, s.title, s.songKey)
+                from Song s
+                where s.owner.id = :ownerId
+                """);
+        if (songKey != null) {
+            jpql.append(" and s.songKey = :songKey");
+        }
+        if (search) {
+            jpql.append(" and (lower(s.artist) like lower(concat('%', :q, '%'))")
+                .append(" or lower(s.title) like lower(concat('%', :q, '%')))");
+        }
+        if (after != null) {
+            jpql.append(" and (s.").append(sortBy).append(' ').append(cmp).append(" :key")
+                .append(" or (s.").append(sortBy).append(" = :key and s.id ").append(cmp).append(" :id))");
+        }
+        jpql.append(" order by s.").append(sortBy).append(' ').append(dir).append(", s.id ").append(dir);
+
+        TypedQuery<ArtistTitleDto> query = entityManager.createQuery(jpql.toString(), ArtistTitleDto.class)
+                .setParameter("ownerId", ownerId)
+                .setMaxResults(limit);
+        if (songKey != null) {
+            query.setParameter("songKey", songKey);
+        }
+        if (search) {
+            query.setParameter("q", q);
+        }
+        if (after != null) {
+            query.setParameter("key", after.key());
+            query.setParameter("id", after.id());
+        }
+        return query.getResultList();
+    }
+}
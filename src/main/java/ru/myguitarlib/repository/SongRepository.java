@@ -1,25 +1,42 @@
 package ru.myguitarlib.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.Hibernate;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.myguitarlib.dto.song.ArtistTitleDto;
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.dto.song.SongChordRow;
+import ru.myguitarlib.dto.song.LibraryVersion;
+import ru.myguitarlib.dto.song.SongVersion;
+import ru.myguitarlib.dto.song.SongViewRow;
 import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.search.SongText;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface SongRepository extends JpaRepository<Song, Long> {
+public interface SongRepository extends JpaRepository<Song, Long>, SongPageRepository {
 
     // Один запрос и для "все", и для "поиск".
     // Если q = null/blank -> условие поиска игнорируется.
     // Sort параметр добавит ORDER BY автоматически (без ручного order by в JPQL). [web:870]
+    // songKey = null - любая тональность; тональность берётся из songs.song_key, аккорды не читаются
     @Query("""
-        select new ru.myguitarlib.dto.song.ArtistTitleDto(s.id, s.artist, s.title)
+        select new ru.myguitarlib.dto.song.ArtistTitleDto(s.id, s.artist, s.title, s.songKey)
         from Song s
         where s.owner.id = :ownerId
+          and (:songKey is null or s.songKey = :songKey)
           and (
                :q is null
                or :q = ''
@@ -27,14 +44,116 @@ public interface SongRepository extends JpaRepository<Song, Long> {
                or lower(s.title)  like lower(concat('%', :q, '%'))
           )
     """)
-    List<ArtistTitleDto> findIndex(Long ownerId, String q, Sort sort);
+    List<ArtistTitleDto> findIndex(Long ownerId, String q, Integer songKey, Sort sort);
 
+    // по id, а не запросом с join fetch: песня и её chords берутся из кэша второго уровня,
+    // в базу - только при промахе; владелец проверяется у загруженной песни (id из прокси owner без SELECT).
+    // Транзакция не readOnly: иначе под open-in-view песня осталась бы read-only и правки PUT/PATCH не сохранились бы
+    @Transactional
+    default Optional<Song> findByIdAndOwnerIdWithChords(Long id, Long ownerId) {
+        Optional<Song> song = findById(id).filter(s -> s.getOwner().getId().equals(ownerId));
+        song.filter(s -> s.getChordTrack() == null).ifPresent(s -> Hibernate.initialize(s.getChords()));
+        return song;
+    }
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Song> findByIdAndOwnerId(Long songId, Long ownerId);
+
+    // просмотр песни (SongViewService): колонки и аккорды сразу в DTO, без сущностей в контексте
     @Query("""
-        select distinct s from Song s
-        left join fetch s.chords
+        select new ru.myguitarlib.dto.song.SongViewRow(
+            s.id, s.artist, s.title, s.comment, s.lyrics, s.scrollSpeed, s.fontSize, s.chordTrack)
+        from Song s
         where s.id = :id and s.owner.id = :ownerId
     """)
-    Optional<Song> findByIdAndOwnerIdWithChords(Long id, Long ownerId);
+    Optional<SongViewRow> findView(Long id, Long ownerId);
 
-    Optional<Song> findByIdAndOwnerId(Long songId, Long ownerId);
+    @Query("""
+        select new ru.myguitarlib.dto.song.SongChordDto(c.id, c.lineIndex, c.charIndex, c.chord, c.chordId)
+        from SongChord c
+        where c.song.id = :songId
+        order by c.lineIndex, c.charIndex
+    """)
+    List<SongChordDto> findChordViews(Long songId);
+
+    // экспорт библиотеки (SongExportService): страницами по id, сразу в DTO
+    @Query("""
+        select new ru.myguitarlib.dto.song.SongViewRow(
+            s.id, s.artist, s.title, s.comment, s.lyrics, s.scrollSpeed, s.fontSize, s.chordTrack)
+        from Song s
+        where s.owner.id = :ownerId and s.id > :afterId
+        order by s.id
+    """)
+    List<SongViewRow> findExportPage(Long ownerId, Long afterId, Pageable pageable);
+
+    // песни программы (SetlistService) одним запросом; аккорды к ним - findChordRows
+    @Query("""
+        select new ru.myguitarlib.dto.song.SongViewRow(
+            s.id, s.artist, s.title, s.comment, s.lyrics, s.scrollSpeed, s.fontSize, s.chordTrack)
+        from Song s
+        where s.id in :ids and s.owner.id = :ownerId
+    """)
+    List<SongViewRow> findViews(Collection<Long> ids, Long ownerId);
+
+    // какие из ids - песни этого пользователя
+    @Query("select s.id from Song s where s.id in :ids and s.owner.id = :ownerId")
+    List<Long> findOwnedIds(Collection<Long> ids, Long ownerId);
+
+    // аккорды нескольких песен одним запросом (страница экспорта, программа)
+    @Query("""
+        select new ru.myguitarlib.dto.song.SongChordRow(c.song.id, c.id, c.lineIndex, c.charIndex, c.chord, c.chordId)
+        from SongChord c
+        where c.song.id in :songIds
+        order by c.song.id, c.lineIndex, c.charIndex
+    """)
+    List<SongChordRow> findChordRows(Collection<Long> songIds);
+
+    // только id и updatedAt - без аккордов и текста
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("""
+        select new ru.myguitarlib.dto.song.SongVersion(s.id, s.updatedAt)
+        from Song s
+        where s.id = :id and s.owner.id = :ownerId
+    """)
+    Optional<SongVersion> findVersion(Long id, Long ownerId);
+
+    // версия всей библиотеки: любое создание/изменение/удаление меняет count или max(updatedAt)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("""
+        select new ru.myguitarlib.dto.song.LibraryVersion(count(s), max(s.updatedAt))
+        from Song s
+        where s.owner.id = :ownerId
+    """)
+    LibraryVersion findLibraryVersion(Long ownerId);
+
+    // для ChordTrackMigration: песни, аккорды которых ещё лежат строками song_chords
+    @Query("""
+        select s.id from Song s
+        where s.chordTrack is null
+          and exists (select 1 from SongChord c where c.song = s)
+        order by s.id
+    """)
+    List<Long> findIdsWithChordRows(Pageable pageable);
+
+    // и обратно: песни с дорожкой chord_track; по курсору - песни с символами не из словаря остаются дорожкой
+    @Query("select s.id from Song s where s.chordTrack is not null and s.id > :afterId order by s.id")
+    List<Long> findIdsWithChordTrack(Long afterId, Pageable pageable);
+
+    // для SongSearchIndexLoader: страницами по id
+    @Query("""
+        select new ru.myguitarlib.search.SongText(s.id, s.owner.id, s.artist, s.title, s.lyrics, s.songKey)
+        from Song s
+        where s.id > :afterId
+        order by s.id
+    """)
+    List<SongText> findSearchTexts(Long afterId, Pageable pageable);
+
+    // для SongKeyBackfill: песни, сохранённые до появления song_key
+    @Query("select s.id from Song s where s.songKey is null order by s.id")
+    List<Long> findIdsWithoutKey(Pageable pageable);
+
+    // только тональность, без пересохранения аккордов; updatedAt - чтобы сменился ETag списка
+    @Modifying
+    @Query("update Song s set s.songKey = :songKey, s.updatedAt = :updatedAt where s.id = :id")
+    int updateSongKey(Long id, Integer songKey, LocalDateTime updatedAt);
 }
@@ -0,0 +1,57 @@
+package ru.myguitarlib.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Приведение текста к виду для поиска: нижний регистр, ё -> е.
+ * Длина строки при этом не меняется, поэтому позиции совпадений
+ * в свёрнутом тексте годятся и для исходного (сниппеты).
+ */
+public final class SearchText {
+
+    private SearchText() {}
+
+    public static String fold(String text) {
+        if (text == null) return "";
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            char c = Character.toLowerCase(chars[i]);
+            chars[i] = c == 'ё' ? 'е' : c;
+        }
+        return new String(chars);
+    }
+
+    // слова из свёрнутого текста (буквы и цифры), без повторов
+    public static Set<String> tokens(String folded) {
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean word = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // запрос: слова в порядке ввода
+    public static List<String> queryTokens(String query) {
+        return new ArrayList<>(tokens(fold(query)));
+    }
+
+    public static void trigrams(String token, Set<String> out) {
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            out.add(token.substring(i, i + 3));
+        }
+    }
+
+    static boolean isWordChar(String s, int index) {
+        return index >= 0 && index < s.length() && Character.isLetterOrDigit(s.charAt(index));
+    }
+}
@@ -0,0 +1,339 @@
+package ru.myguitarlib.search;
+
+import org.springframework.stereotype.Component;
+import ru.myguitarlib.dto.song.ArtistTitleDto;
+import ru.myguitarlib.model.song.Song;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Поисковый индекс библиотеки в памяти: у каждого пользователя свои списки
+ * песен по словам и по триграммам (artist, title, lyrics).
+ *
+ * Слово запроса от 3 букв ищется по триграммам (как LIKE '%q%', но без полного перебора),
+ * 1-2 буквы - по началу слов. Кандидаты проверяются по самому тексту, затем ранжируются:
+ * название важнее исполнителя, исполнитель важнее текста; целое слово важнее начала слова,
+ * начало слова важнее совпадения внутри слова.
+ *
+ * Обновляется при каждом сохранении/удалении песни, при старте строится
+ * SongSearchIndexLoader'ом; пока не построен (isReady() == false) - поиск идёт через базу.
+ */
+@Component
+public class SongSearchIndex {
+
+    private static final int TITLE = 0;
+    private static final int ARTIST = 1;
+    private static final int LYRICS = 2;
+    private static final int[] WEIGHTS = {3, 2, 1};
+
+    private static final int WHOLE_WORD = 3;
+    private static final int WORD_START = 2;
+    private static final int INSIDE_WORD = 1;
+
+    private static final int SNIPPET_RADIUS = 40;
+
+    private final Map<Long, UserIndex> users = new ConcurrentHashMap<>();
+
+    // удалённые во время первичной загрузки - чтобы загрузчик не вернул их в индекс
+    private final Set<Long> removedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public record Stats(boolean ready, int users, int songs, int tokens, int trigrams) {}
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(Long ownerId, Song song) {
+        user(ownerId).put(new Doc(song.getId(), song.getArtist(), song.getTitle(), song.getLyrics(), song.getSongKey()));
+    }
+
+    public void remove(Long ownerId, Long songId) {
+        if (!ready) {
+            removedWhileLoading.add(songId);
+        }
+        UserIndex index = users.get(ownerId);
+        if (index != null) {
+            index.remove(songId);
+        }
+    }
+
+    // из загрузчика: песня, сохранённая за время загрузки, уже в индексе и новее прочитанной
+    void load(SongText text) {
+        if (removedWhileLoading.contains(text.id())) return;
+        user(text.ownerId()).putIfAbsent(new Doc(text.id(), text.artist(), text.title(), text.lyrics(), text.songKey()));
+    }
+
+    void markReady() {
+        ready = true;
+        removedWhileLoading.clear();
+    }
+
+    /**
+     * Песни пользователя, где встречаются все слова запроса: по убыванию релевантности,
+     * при равной - в порядке order. Запрос без букв и цифр ничего не находит.
+     */
+    public List<ArtistTitleDto> search(Long ownerId, String query, Comparator<ArtistTitleDto> order) {
+        return search(ownerId, query, null, order);
+    }
+
+    // то же, но только песни в тональности songKey (код songs.song_key; null - любые)
+    public List<ArtistTitleDto> search(Long ownerId, String query, Integer songKey, Comparator<ArtistTitleDto> order) {
+        List<String> terms = SearchText.queryTokens(query);
+        UserIndex index = users.get(ownerId);
+        if (terms.isEmpty() || index == null) {
+            return List.of();
+        }
+
+        List<ArtistTitleDto> result = index.search(terms, songKey);
+        result.sort(Comparator.comparing(ArtistTitleDto::getScore, Comparator.reverseOrder()).thenComparing(order));
+        return result;
+    }
+
+    public Stats stats() {
+        int songs = 0;
+        int tokens = 0;
+        int trigrams = 0;
+        for (UserIndex index : users.values()) {
+            synchronized (index) {
+                songs += index.bySong.size();
+                tokens += index.tokens.size();
+                trigrams += index.trigrams.size();
+            }
+        }
+        return new Stats(ready, users.size(), songs, tokens, trigrams);
+    }
+
+    private UserIndex user(Long ownerId) {
+        return users.computeIfAbsent(ownerId, id -> new UserIndex());
+    }
+
+    private static final class Doc {
+        final Long songId;
+        final String artist;
+        final String title;
+        final String lyrics;
+        final Integer songKey;
+        final String[] folded;   // TITLE, ARTIST, LYRICS
+        int no;                  // номер в UserIndex.byNo
+
+        Doc(Long songId, String artist, String title, String lyrics, Integer songKey) {
+            this.songId = songId;
+            this.artist = artist;
+            this.title = title;
+            this.lyrics = lyrics == null ? "" : lyrics;
+            this.songKey = songKey;
+            this.folded = new String[]{SearchText.fold(title), SearchText.fold(artist), SearchText.fold(lyrics)};
+        }
+
+        Set<String> tokens() {
+            Set<String> tokens = new LinkedHashSet<>();
+            for (String field : folded) {
+                tokens.addAll(SearchText.tokens(field));
+            }
+            return tokens;
+        }
+    }
+
+    private static final class UserIndex {
+        private final Map<Long, Doc> bySong = new HashMap<>();
+        private final List<Doc> byNo = new ArrayList<>();
+        private final Map<String, Postings> tokens = new HashMap<>();
+        private final Map<String, Postings> trigrams = new HashMap<>();
+
+        synchronized void put(Doc doc) {
+            removeDoc(doc.songId);
+            add(doc);
+            compactIfSparse();
+        }
+
+        synchronized void putIfAbsent(Doc doc) {
+            if (!bySong.containsKey(doc.songId)) {
+                add(doc);
+            }
+        }
+
+        synchronized void remove(Long songId) {
+            removeDoc(songId);
+            compactIfSparse();
+        }
+
+        synchronized List<ArtistTitleDto> search(List<String> terms, Integer songKey) {
+            BitSet candidates = null;
+            for (String term : terms) {
+                BitSet termDocs = candidates(term);
+                if (candidates == null) {
+                    candidates = termDocs;
+                } else {
+                    candidates.and(termDocs);
+                }
+                if (candidates.isEmpty()) return new ArrayList<>();
+            }
+
+            List<ArtistTitleDto> hits = new ArrayList<>();
+            for (int no = candidates.nextSetBit(0); no >= 0; no = candidates.nextSetBit(no + 1)) {
+                Doc doc = byNo.get(no);
+                if (songKey != null && !songKey.equals(doc.songKey)) continue;
+                ArtistTitleDto hit = score(doc, terms);
+                if (hit != null) hits.add(hit);
+            }
+            return hits;
+        }
+
+        // номера песен, где слово запроса может встретиться
+        private BitSet candidates(String term) {
+            BitSet docs = new BitSet(byNo.size());
+            if (term.length() < 3) {
+                tokens.forEach((token, postings) -> {
+                    if (token.startsWith(term)) postings.addTo(docs);
+                });
+                return docs;
+            }
+
+            Set<String> grams = new LinkedHashSet<>();
+            SearchText.trigrams(term, grams);
+            List<Postings> lists = new ArrayList<>(grams.size());
+            for (String gram : grams) {
+                Postings postings = trigrams.get(gram);
+                if (postings == null) return docs;
+                lists.add(postings);
+            }
+            lists.sort(Comparator.comparingInt(p -> p.size));
+
+            lists.get(0).addTo(docs);
+            for (int i = 1; i < lists.size() && !docs.isEmpty(); i++) {
+                BitSet other = new BitSet(byNo.size());
+                lists.get(i).addTo(other);
+                docs.and(other);
+            }
+            return docs;
+        }
+
+        // null - какое-то слово запроса в песне не нашлось (триграммы совпали случайно)
+        private static ArtistTitleDto score(Doc doc, List<String> terms) {
+            int total = 0;
+            String snippet = null;
+            for (String term : terms) {
+                int termScore = 0;
+                for (int field = TITLE; field <= LYRICS; field++) {
+                    int at = doc.folded[field].indexOf(term);
+                    if (at < 0) continue;
+                    termScore += WEIGHTS[field] * matchKind(doc.folded[field], term, at);
+                    if (field == LYRICS && snippet == null) {
+                        snippet = snippet(doc.lyrics, at, term.length());
+                    }
+                }
+                if (termScore == 0) return null;
+                total += termScore;
+            }
+            return new ArtistTitleDto(doc.songId, doc.artist, doc.title, ArtistTitleDto.keyName(doc.songKey), snippet, total);
+        }
+
+        // лучшее из вхождений term в text, начиная с первого (at)
+        private static int matchKind(String text, String term, int at) {
+            int best = INSIDE_WORD;
+            for (; at >= 0; at = text.indexOf(term, at + 1)) {
+                if (SearchText.isWordChar(text, at - 1)) continue;
+                if (!SearchText.isWordChar(text, at + term.length())) return WHOLE_WORD;
+                best = WORD_START;
+            }
+            return best;
+        }
+
+        // строка текста вокруг совпадения, не длиннее 2 * SNIPPET_RADIUS + слово
+        private static String snippet(String lyrics, int at, int length) {
+            int lineStart = lyrics.lastIndexOf('\n', at) + 1;
+            int lineEnd = lyrics.indexOf('\n', at);
+            if (lineEnd < 0) lineEnd = lyrics.length();
+
+            int from = Math.max(lineStart, at - SNIPPET_RADIUS);
+            int to = Math.min(lineEnd, at + length + SNIPPET_RADIUS);
+            return (from > lineStart ? "…" : "") + lyrics.substring(from, to).strip() + (to < lineEnd ? "…" : "");
+        }
+
+        private void add(Doc doc) {
+            doc.no = byNo.size();
+            byNo.add(doc);
+            bySong.put(doc.songId, doc);
+
+            Set<String> grams = new LinkedHashSet<>();
+            for (String token : doc.tokens()) {
+                tokens.computeIfAbsent(token, t -> new Postings()).add(doc.no);
+                SearchText.trigrams(token, grams);
+            }
+            for (String gram : grams) {
+                trigrams.computeIfAbsent(gram, g -> new Postings()).add(doc.no);
+            }
+        }
+
+        private void removeDoc(Long songId) {
+            Doc doc = bySong.remove(songId);
+            if (doc == null) return;
+            byNo.set(doc.no, null);
+
+            Set<String> grams = new LinkedHashSet<>();
+            for (String token : doc.tokens()) {
+                removePosting(tokens, token, doc.no);
+                SearchText.trigrams(token, grams);
+            }
+            for (String gram : grams) {
+                removePosting(trigrams, gram, doc.no);
+            }
+        }
+
+        private static void removePosting(Map<String, Postings> map, String key, int no) {
+            Postings postings = map.get(key);
+            if (postings == null) return;
+            postings.remove(no);
+            if (postings.size == 0) map.remove(key);
+        }
+
+        // при обновлении песня получает новый номер; когда дыр становится больше половины - перенумеровать
+        private void compactIfSparse() {
+            if (byNo.size() < 1024 || byNo.size() < 2 * bySong.size()) return;
+
+            List<Doc> docs = new ArrayList<>(bySong.values());
+            docs.sort(Comparator.comparingInt(d -> d.no));
+            bySong.clear();
+            byNo.clear();
+            tokens.clear();
+            trigrams.clear();
+            docs.forEach(this::add);
+        }
+    }
+
+    // номера песен по возрастанию (новые номера всегда больше прежних)
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int no) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = no;
+        }
+
+        void remove(int no) {
+            int i = Arrays.binarySearch(docs, 0, size, no);
+            if (i < 0) return;
+            System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+            size--;
+        }
+
+        void addTo(BitSet set) {
+            for (int i = 0; i < size; i++) {
+                set.set(docs[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.myguitarlib.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.myguitarlib.repository.SongRepository;
+
+import java.util.List;
+
+// Построение поискового индекса при старте - в фоне, приложение в это время уже отвечает
+// (поиск идёт через базу, пока индекс не готов)
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SongSearchIndexLoader {
+
+    private static final int PAGE = 500;
+
+    private final SongRepository songRepository;
+    private final SongSearchIndex index;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        Thread.ofVirtual().name("song-search-index").start(this::rebuild);
+    }
+
+    void rebuild() {
+        long started = System.nanoTime();
+        try {
+            long afterId = 0;
+            int count = 0;
+            List<SongText> page;
+            do {
+                page = songRepository.findSearchTexts(afterId, PageRequest.of(0, PAGE));
+                for (SongText text : page) {
+                    index.load(text);
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).id();
+                }
+                count += page.size();
+            } while (page.size() == PAGE);
+
+            index.markReady();
+            log.info("Поисковый индекс: {} песен за {} мс", count, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Поисковый индекс не построен, поиск идёт через базу", e);
+        }
+    }
+}
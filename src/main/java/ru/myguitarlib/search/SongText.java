@@ -0,0 +1,4 @@
+package ru.myguitarlib.search;
+
+// Текстовые поля песни для построения индекса (без аккордов); songKey - код songs.song_key
+public record SongText(Long id, Long ownerId, String artist, String title, String lyrics, Integer songKey) {}
@@ -0,0 +1,127 @@
+package ru.myguitarlib.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.myguitarlib.config.SecurityProperties;
+import ru.myguitarlib.exception.ServiceBusyException;
+import ru.myguitarlib.metrics.HotPathMetrics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BCrypt в своём пуле из threads потоков с очередью queueCapacity.
+ * Волна входов/регистраций занимает только этот пул, а не все потоки Tomcat и процессор;
+ * когда очередь полна - сразу ServiceBusyException (503 + Retry-After), а не ожидание.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    public record Stats(int threads, int active, int queued, long completed, long rejected,
+                        double hashAvgMillis, double hashMaxMillis, double waitAvgMillis) {}
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int retryAfterSeconds;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator hashMaxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder waitNanos = new LongAdder();
+
+    public BoundedPasswordEncoder(SecurityProperties.PasswordConfig config) {
+        this.delegate = new BCryptPasswordEncoder(config.getStrength());
+        this.retryAfterSeconds = config.getRetryAfterSeconds();
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                config.getThreads(), config.getThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // хэш с меньшим strength, чем в настройках - DaoAuthenticationProvider пересчитает его при входе
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public Stats stats() {
+        long count = hashes.sum();
+        return new Stats(
+                executor.getMaximumPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                count,
+                rejected.sum(),
+                count == 0 ? 0 : hashNanos.sum() / 1e6 / count,
+                hashMaxNanos.get() / 1e6,
+                count == 0 ? 0 : waitNanos.sum() / 1e6 / count);
+    }
+
+    private <T> T run(Callable<T> task) {
+        long submitted = System.nanoTime();
+        String endpoint = HotPathMetrics.endpoint();   // хэш считается в потоке пула, тег - от запроса
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                waitNanos.add(started - submitted);
+                HotPathMetrics.record(HotPathMetrics.Op.PASSWORD_QUEUE, endpoint, started - submitted);
+                try {
+                    return task.call();
+                } finally {
+                    long took = System.nanoTime() - started;
+                    hashes.increment();
+                    hashNanos.add(took);
+                    hashMaxNanos.accumulate(took);
+                    HotPathMetrics.record(HotPathMetrics.Op.PASSWORD_HASH, endpoint, took);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            HotPathMetrics.count(HotPathMetrics.Count.PASSWORD_REJECTED, 1);
+            throw new ServiceBusyException("AUTH_BUSY",
+                    "Слишком много входов одновременно, повторите чуть позже", retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Хэширование пароля прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
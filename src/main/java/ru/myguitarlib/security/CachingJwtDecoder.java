@@ -0,0 +1,86 @@
+package ru.myguitarlib.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import ru.myguitarlib.metrics.HotPathMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Проверенные токены: один и тот же access_token приходит в каждом запросе до 15 минут,
+ * а проверка RSA-подписи - самое дорогое в аутентификации. Повторно токен не проверяется,
+ * пока не истёк его exp (но не дольше maxTtl).
+ *
+ * Ключ - SHA-256 токена; в кэш попадают только токены, прошедшие проверку delegate.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Duration maxTtl;
+    private final Cache<String, Jwt> cache;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maxSize, Duration maxTtl) {
+        this.delegate = delegate;
+        this.maxTtl = maxTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String key, Jwt jwt) -> timeToLive(jwt)))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long started = HotPathMetrics.start();
+        try {
+            String key = hash(token);
+            Jwt cached = cache.getIfPresent(key);
+            if (cached != null && cached.getTokenValue().equals(token)) {
+                return cached;
+            }
+
+            long verifyStarted = HotPathMetrics.start();
+            Jwt jwt = delegate.decode(token);
+            HotPathMetrics.stop(HotPathMetrics.Op.JWT_VERIFY, verifyStarted);
+            cache.put(key, jwt);
+            return jwt;
+        } finally {
+            HotPathMetrics.stop(HotPathMetrics.Op.JWT_DECODE, started);
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private Duration timeToLive(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) return maxTtl;
+        Duration left = Duration.between(Instant.now(), expiresAt);
+        if (left.isNegative()) return Duration.ZERO;
+        return left.compareTo(maxTtl) < 0 ? left : maxTtl;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);   // SHA-256 есть в любой JVM
+        }
+    }
+}
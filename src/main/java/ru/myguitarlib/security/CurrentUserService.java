@@ -0,0 +1,37 @@
+package ru.myguitarlib.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import ru.myguitarlib.exception.ApiException;
+import ru.myguitarlib.repository.UserRepository;
+
+// Пользователь запроса по JWT: id из claim "uid" через PrincipalCache, без запроса к users
+@Service
+@RequiredArgsConstructor
+public class CurrentUserService {
+
+    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+
+    public Long userId(Jwt jwt) {
+        return resolve(jwt).id();
+    }
+
+    public UserPrincipal resolve(Jwt jwt) {
+        String email = jwt.getSubject();
+        Long uid = jwt.getClaims().get(JwtTokenService.UID_CLAIM) instanceof Number n ? n.longValue() : null;
+
+        UserPrincipal principal = uid != null
+                ? principalCache.get(uid, id -> userRepository.findById(id).map(UserPrincipal::of).orElse(null))
+                // токены, выпущенные до появления uid
+                : userRepository.findByEmail(email).map(UserPrincipal::of).orElse(null);
+
+        // после смены email старые токены не действуют
+        if (principal == null || !principal.email().equals(email)) {
+            throw new ApiException("USER_NOT_FOUND", "Пользователь не найден", HttpStatus.UNAUTHORIZED);
+        }
+        return principal;
+    }
+}
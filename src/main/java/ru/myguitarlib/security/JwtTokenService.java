@@ -0,0 +1,51 @@
+package ru.myguitarlib.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+import ru.myguitarlib.metrics.HotPathMetrics;
+import ru.myguitarlib.model.User;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+// Выпуск access/refresh токенов (общий для AuthController и TokenRefreshController)
+@Service
+@RequiredArgsConstructor
+public class JwtTokenService {
+
+    // id пользователя в токене - по нему песни ищутся без запроса к users
+    public static final String UID_CLAIM = "uid";
+
+    private final JwtEncoder jwtEncoder;
+
+    public String generateToken(User user, Collection<? extends GrantedAuthority> authorities, int ttlSeconds) {
+        List<String> roles = authorities == null
+                ? List.of()
+                : authorities.stream().map(GrantedAuthority::getAuthority).toList();
+        return generateToken(user.getId(), user.getEmail(), roles, ttlSeconds);
+    }
+
+    public String generateToken(Long userId, String email, List<String> roles, int ttlSeconds) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusSeconds(ttlSeconds);
+
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("myguitarlib")
+                .issuedAt(now)
+                .expiresAt(expiresAt)
+                .subject(email)
+                .claim(UID_CLAIM, userId)
+                .claim("roles", roles)
+                .build();
+
+        long started = HotPathMetrics.start();
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+        HotPathMetrics.stop(HotPathMetrics.Op.JWT_ENCODE, started);
+        return token;
+    }
+}
@@ -0,0 +1,55 @@
+package ru.myguitarlib.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.myguitarlib.config.CacheProperties;
+
+import java.util.function.Function;
+
+/**
+ * Пользователи по id из токена. Ограничен по размеру и по времени жизни записи,
+ * изменение/удаление пользователя сбрасывает запись сразу (UserCacheListener).
+ */
+@Component
+public class PrincipalCache {
+
+    private final Cache<Long, UserPrincipal> cache;
+
+    public PrincipalCache(CacheProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getPrincipals().getMaxSize())
+                .expireAfterWrite(properties.getPrincipals().getTtl())
+                .recordStats()
+                .build();
+    }
+
+    // loader может вернуть null (пользователя нет) - тогда ничего не кэшируется
+    public UserPrincipal get(Long userId, Function<Long, UserPrincipal> loader) {
+        return cache.get(userId, loader);
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+        // и ещё раз после коммита: параллельный запрос мог успеть загрузить старые данные
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
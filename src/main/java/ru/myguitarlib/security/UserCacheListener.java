@@ -0,0 +1,21 @@
+package ru.myguitarlib.security;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.myguitarlib.model.User;
+
+// JPA-слушатель User (бин Spring через SpringBeanContainer Hibernate)
+@Component
+@RequiredArgsConstructor
+public class UserCacheListener {
+
+    private final PrincipalCache principalCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        principalCache.invalidate(user.getId());
+    }
+}
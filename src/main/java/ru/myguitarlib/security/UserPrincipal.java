@@ -0,0 +1,11 @@
+package ru.myguitarlib.security;
+
+import ru.myguitarlib.model.User;
+
+// То, что нужно запросу о пользователе: id для выборки песен и email для сверки с токеном
+public record UserPrincipal(Long id, String email) {
+
+    public static UserPrincipal of(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail());
+    }
+}
@@ -0,0 +1,60 @@
+package ru.myguitarlib.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Component;
+import ru.myguitarlib.config.CacheProperties;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Готовые тела GET /song/{id}/sheet (ChordSheetRenderer): текст или JSON построчно, уже в байтах.
+ * Ключ - версия песни (updatedAt) и тональность, как у CompressedSongCache; память ограничена
+ * суммой размеров (app.cache.sheets.max-bytes).
+ */
+@Component
+public class ChordSheetCache {
+
+    public record Key(Long songId, LocalDateTime version, int semitones, boolean lines) {}
+
+    private static final int ENTRY_OVERHEAD = 96;   // ключ, запись и заголовок массива
+
+    private final Cache<Key, byte[]> cache;
+    private final long maxBytes;
+
+    public ChordSheetCache(CacheProperties properties) {
+        this.maxBytes = properties.getSheets().getMaxBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, byte[] body) -> body.length + ENTRY_OVERHEAD)
+                .recordStats()
+                .build();
+    }
+
+    // render - раскладка и сериализация, только при промахе
+    public byte[] get(Key key, Supplier<byte[]> render) {
+        return cache.get(key, k -> render.get());
+    }
+
+    public void evictSong(Long songId) {
+        cache.asMap().keySet().removeIf(key -> key.songId().equals(songId));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public long bytes() {
+        return cache.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+}
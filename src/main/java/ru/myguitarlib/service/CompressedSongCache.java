@@ -0,0 +1,183 @@
+package ru.myguitarlib.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import ru.myguitarlib.config.CacheProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Готовые тела ответа GET /song/{id}: уже сериализованные (JSON или SongWireCodec) и сжатые.
+ * Повторный запрос песни в той же тональности отдаёт байты как есть - без Jackson и без компрессора.
+ *
+ * Память ограничена суммой размеров тел (app.cache.compressed.max-bytes); редко запрашиваемые
+ * ответы Caffeine вытесняет первыми, а первый запрос песни сжимается на лету и кладётся в кэш.
+ * В ключе updatedAt - изменённая песня ищется по новому ключу, evictSong убирает старые.
+ */
+@Component
+public class CompressedSongCache {
+
+    public enum Encoding {
+        GZIP("gzip"), DEFLATE("deflate");
+
+        private final String token;
+
+        Encoding(String token) {
+            this.token = token;
+        }
+
+        // значение Content-Encoding
+        public String token() {
+            return token;
+        }
+    }
+
+    public record Key(Long songId, LocalDateTime version, int semitones, boolean binary, Encoding encoding) {}
+
+    public record Stats(long entries, long bytes, long maxBytes, long hits, long misses, double hitRate,
+                        double compressionRatio, double cpuSavedMillis) {}
+
+    // nanos - сколько стоило собрать и сжать тело: столько процессора экономит каждое попадание
+    private record Entry(byte[] body, long nanos) {}
+
+    private static final int ENTRY_OVERHEAD = 96;   // ключ, запись и заголовок массива
+
+    private final Cache<Key, Entry> cache;
+    private final CacheProperties.CompressedCache config;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+
+    public CompressedSongCache(CacheProperties properties) {
+        this.config = properties.getCompressed();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxBytes())
+                .weigher((Key key, Entry entry) -> entry.body().length + ENTRY_OVERHEAD)
+                .build();
+    }
+
+    /**
+     * Сжатие, которое принимает клиент (Accept-Encoding): gzip, а если клиент ставит deflate выше
+     * и он включён - deflate. null - клиент сжатие не принимает.
+     * Явно названное сжатие важнее "*" (RFC 9110, 12.5.3): "gzip;q=0, *" - gzip нельзя.
+     */
+    public Encoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) return null;
+
+        double gzip = -1;      // -1 - не названо
+        double deflate = -1;
+        double any = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String name = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double q = quality(tokens);
+            switch (name) {
+                case "gzip", "x-gzip" -> gzip = q;
+                case "deflate" -> deflate = q;
+                case "*" -> any = q;
+                default -> { }
+            }
+        }
+        if (gzip < 0) gzip = any;
+        if (deflate < 0) deflate = any;
+
+        if (config.isDeflate() && deflate > gzip) return Encoding.DEFLATE;
+        return gzip > 0 ? Encoding.GZIP : null;
+    }
+
+    // uncompressed - сериализация ответа, вызывается только при промахе
+    public byte[] get(Key key, Supplier<byte[]> uncompressed) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            hits.increment();
+            savedNanos.add(entry.nanos());
+            return entry.body();
+        }
+
+        misses.increment();
+        long started = System.nanoTime();
+        byte[] raw = uncompressed.get();
+        byte[] body = compress(raw, key.encoding(), config.getLevel());
+        rawBytes.add(raw.length);
+        compressedBytes.add(body.length);
+
+        cache.put(key, new Entry(body, System.nanoTime() - started));
+        return body;
+    }
+
+    public void evictSong(Long songId) {
+        cache.asMap().keySet().removeIf(key -> key.songId().equals(songId));
+    }
+
+    public Stats stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        long compressed = compressedBytes.sum();
+        long bytes = cache.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L);
+        return new Stats(
+                cache.estimatedSize(),
+                bytes,
+                config.getMaxBytes(),
+                h,
+                m,
+                h + m == 0 ? 0 : (double) h / (h + m),
+                compressed == 0 ? 0 : (double) rawBytes.sum() / compressed,
+                savedNanos.sum() / 1e6);
+    }
+
+    static byte[] compress(byte[] raw, Encoding encoding, int level) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 3 + 64);
+        try {
+            if (encoding == Encoding.GZIP) {
+                try (GZIPOutputStream gzip = new LeveledGzipStream(out, level)) {
+                    gzip.write(raw);
+                }
+            } else {
+                Deflater deflater = new Deflater(level);   // zlib-обёртка, как и положено для "deflate"
+                try (DeflaterOutputStream stream = new DeflaterOutputStream(out, deflater)) {
+                    stream.write(raw);
+                } finally {
+                    deflater.end();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // ByteArrayOutputStream не бросает
+        }
+        return out.toByteArray();
+    }
+
+    private static double quality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // у GZIPOutputStream уровень сжатия не настраивается снаружи
+    private static final class LeveledGzipStream extends GZIPOutputStream {
+        LeveledGzipStream(ByteArrayOutputStream out, int level) throws IOException {
+            super(out);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package ru.myguitarlib.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Component;
+import ru.myguitarlib.config.CacheProperties;
+import ru.myguitarlib.dto.song.SongDto;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Готовые SongDto по ключу (id песни, updatedAt, сдвиг в полутонах).
+ * Изменённая песня получает новый updatedAt, так что старые записи уже не находятся;
+ * updateSong/deleteSong дополнительно вычищают их, чтобы не занимали место.
+ * Закэшированные DTO нельзя менять.
+ */
+@Component
+public class RenderedSongCache {
+
+    public record Key(Long songId, LocalDateTime version, int semitones) {}
+
+    private final Cache<Key, SongDto> cache;
+
+    public RenderedSongCache(CacheProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getSongs().getMaxSize())
+                .recordStats()
+                .build();
+    }
+
+    public SongDto get(Key key, Function<Key, SongDto> loader) {
+        return cache.get(key, loader);
+    }
+
+    // несколько песен сразу: loader получает только промахи и грузит их одним запросом
+    public Map<Key, SongDto> getAll(Collection<Key> keys, Function<Set<? extends Key>, Map<Key, SongDto>> loader) {
+        return cache.getAll(keys, loader);
+    }
+
+    public void evictSong(Long songId) {
+        cache.asMap().keySet().removeIf(key -> key.songId().equals(songId));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,207 @@
+package ru.myguitarlib.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.myguitarlib.dto.setlist.SetlistDto;
+import ru.myguitarlib.dto.setlist.SetlistEntryDto;
+import ru.myguitarlib.dto.setlist.SetlistEntryRow;
+import ru.myguitarlib.dto.setlist.SetlistSummaryDto;
+import ru.myguitarlib.dto.setlist.SetlistUpsertDto;
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.dto.song.SongChordRow;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.dto.song.SongViewRow;
+import ru.myguitarlib.exception.ApiException;
+import ru.myguitarlib.mapper.SongMapper;
+import ru.myguitarlib.model.setlist.Setlist;
+import ru.myguitarlib.model.setlist.SetlistEntry;
+import ru.myguitarlib.repository.SetlistRepository;
+import ru.myguitarlib.repository.SongRepository;
+import ru.myguitarlib.repository.UserRepository;
+import ru.myguitarlib.utilites.ChordTransposer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Программы выступлений. Открытие программы - постоянное число запросов при любой длине:
+ * название, песни по порядку (без текста), затем одним запросом тексты песен окна,
+ * которых ещё нет в RenderedSongCache, и одним - их аккорды. Каждая песня транспонируется
+ * на свой сдвиг и кладётся в тот же кэш, что и GET /song/{id}.
+ */
+@Service
+public class SetlistService {
+
+    public static final int MAX_ENTRIES = 200;
+
+    private final SetlistRepository setlistRepository;
+    private final SongRepository songRepository;
+    private final UserRepository userRepository;
+    private final ChordTransposer transposer;
+    private final RenderedSongCache cache;
+    private final TransactionTemplate readOnlyTx;
+
+    public SetlistService(SetlistRepository setlistRepository, SongRepository songRepository,
+                          UserRepository userRepository, ChordTransposer transposer, RenderedSongCache cache,
+                          PlatformTransactionManager transactionManager) {
+        this.setlistRepository = setlistRepository;
+        this.songRepository = songRepository;
+        this.userRepository = userRepository;
+        this.transposer = transposer;
+        this.cache = cache;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public List<SetlistSummaryDto> list(Long userId) {
+        return setlistRepository.findSummaries(userId);
+    }
+
+    @Transactional
+    public Long create(Long userId, SetlistUpsertDto dto) {
+        Setlist setlist = new Setlist();
+        setlist.setOwner(userRepository.getReferenceById(userId));
+        apply(setlist, dto, userId);
+        return setlistRepository.save(setlist).getId();
+    }
+
+    @Transactional
+    public void update(Long id, Long userId, SetlistUpsertDto dto) {
+        Setlist setlist = find(id, userId);
+        apply(setlist, dto, userId);
+        setlistRepository.save(setlist);
+    }
+
+    @Transactional
+    public void delete(Long id, Long userId) {
+        setlistRepository.delete(find(id, userId));
+    }
+
+    // конец окна песен для GET /setlist/{id}: без prefetch - до конца программы, с prefetch=N - from и N следующих
+    public static int windowEnd(int from, Integer prefetch) {
+        if (from < 0 || (prefetch != null && prefetch < 0)) {
+            throw new ApiException("BAD_PREFETCH", "from и prefetch не могут быть отрицательными", HttpStatus.BAD_REQUEST);
+        }
+        return prefetch == null ? MAX_ENTRIES : (int) Math.min((long) from + prefetch + 1, MAX_ENTRIES);
+    }
+
+    /**
+     * Программа с песнями позиций [from, to): текст и аккорды уже в тональности каждой записи.
+     * Остальные записи - только исполнитель и название (song = null).
+     */
+    public SetlistDto load(Long id, Long userId, int from, int to) {
+        return readOnlyTx.execute(status -> {
+            String name = setlistRepository.findName(id, userId)
+                    .orElseThrow(() -> new ApiException("SETLIST_NOT_FOUND", "Программа не найдена", HttpStatus.NOT_FOUND));
+            List<SetlistEntryRow> rows = setlistRepository.findEntryRows(id);
+
+            Set<RenderedSongCache.Key> keys = new LinkedHashSet<>();
+            for (int i = Math.max(from, 0); i < Math.min(to, rows.size()); i++) {
+                keys.add(key(rows.get(i)));
+            }
+            Map<RenderedSongCache.Key, SongDto> songs = keys.isEmpty()
+                    ? Map.of()
+                    : cache.getAll(keys, missing -> loadSongs(missing, userId));
+
+            List<SetlistEntryDto> entries = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                SetlistEntryRow row = rows.get(i);
+                SongDto song = i >= from && i < to ? songs.get(key(row)) : null;
+                entries.add(new SetlistEntryDto(i, row.songId(), row.semitones(), row.artist(), row.title(), song));
+            }
+            return new SetlistDto(id, name, entries);
+        });
+    }
+
+    // промахи кэша: песни одним запросом, аккорды тех, что хранятся строками, - другим
+    private Map<RenderedSongCache.Key, SongDto> loadSongs(Set<? extends RenderedSongCache.Key> keys, Long userId) {
+        Set<Long> ids = new HashSet<>();
+        for (RenderedSongCache.Key key : keys) ids.add(key.songId());
+
+        Map<Long, SongViewRow> views = new HashMap<>();
+        List<Long> withRows = new ArrayList<>();
+        for (SongViewRow row : songRepository.findViews(ids, userId)) {
+            views.put(row.id(), row);
+            if (row.chordTrack() == null) withRows.add(row.id());
+        }
+        Map<Long, List<SongChordRow>> chords = new HashMap<>();
+        if (!withRows.isEmpty()) {
+            for (SongChordRow ch : songRepository.findChordRows(withRows)) {
+                chords.computeIfAbsent(ch.songId(), songId -> new ArrayList<>()).add(ch);
+            }
+        }
+
+        // одна песня в двух тональностях - два независимых DTO: транспонирование меняет аккорды на месте
+        Map<RenderedSongCache.Key, SongDto> loaded = new HashMap<>();
+        for (RenderedSongCache.Key key : keys) {
+            SongViewRow view = views.get(key.songId());
+            if (view == null) continue;   // удалена между запросами
+            List<SongChordDto> songChords = new ArrayList<>();
+            for (SongChordRow ch : chords.getOrDefault(key.songId(), List.of())) {
+                songChords.add(new SongChordDto(ch.id(), ch.lineIndex(), ch.charIndex(), ch.chord(), ch.chordId()));
+            }
+            SongDto song = SongMapper.toDto(view, songChords);
+            transposer.transposeChords(song.getChords(), key.semitones());
+            loaded.put(key, song);
+        }
+        return loaded;
+    }
+
+    private static RenderedSongCache.Key key(SetlistEntryRow row) {
+        return new RenderedSongCache.Key(row.songId(), row.updatedAt(), Math.floorMod(row.semitones(), 12));
+    }
+
+    private Setlist find(Long id, Long userId) {
+        return setlistRepository.findByIdAndOwnerId(id, userId)
+                .orElseThrow(() -> new ApiException("SETLIST_NOT_FOUND", "Программа не найдена", HttpStatus.NOT_FOUND));
+    }
+
+    // записи переиспользуются по порядку: перестановка песен - UPDATE строк, а не удаление и вставка
+    private void apply(Setlist setlist, SetlistUpsertDto dto, Long userId) {
+        if (dto.getName() == null || dto.getName().isBlank()) {
+            throw new ApiException("BAD_SETLIST", "У программы должно быть название", HttpStatus.BAD_REQUEST);
+        }
+        List<SetlistUpsertDto.Entry> incoming = dto.getEntries() == null ? List.of() : dto.getEntries();
+        if (incoming.size() > MAX_ENTRIES) {
+            throw new ApiException("BAD_SETLIST", "В программе не больше " + MAX_ENTRIES + " песен", HttpStatus.BAD_REQUEST);
+        }
+
+        Set<Long> ids = new HashSet<>();
+        for (SetlistUpsertDto.Entry entry : incoming) {
+            if (entry.getSongId() == null) {
+                throw new ApiException("BAD_SETLIST", "Не указана песня программы", HttpStatus.BAD_REQUEST);
+            }
+            ids.add(entry.getSongId());
+        }
+        if (!ids.isEmpty() && songRepository.findOwnedIds(ids, userId).size() != ids.size()) {
+            throw new ApiException("SONG_NOT_FOUND", "Песня не найдена", HttpStatus.NOT_FOUND);
+        }
+
+        setlist.setName(dto.getName().strip());
+        List<SetlistEntry> entries = setlist.getEntries();
+        for (int i = 0; i < incoming.size(); i++) {
+            SetlistEntry entry;
+            if (i < entries.size()) {
+                entry = entries.get(i);
+            } else {
+                entry = new SetlistEntry();
+                entry.setSetlist(setlist);
+                entries.add(entry);
+            }
+            entry.setSong(songRepository.getReferenceById(incoming.get(i).getSongId()));   // ссылка без SELECT
+            entry.setPosition(i);
+            entry.setSemitones(Math.floorMod(incoming.get(i).getSemitones(), 12));
+        }
+        while (entries.size() > incoming.size()) {
+            entries.remove(entries.size() - 1);
+        }
+    }
+}
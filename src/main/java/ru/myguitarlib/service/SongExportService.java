@@ -0,0 +1,245 @@
+package ru.myguitarlib.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.dto.song.SongChordRow;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.dto.song.SongViewRow;
+import ru.myguitarlib.exception.ApiException;
+import ru.myguitarlib.mapper.SongMapper;
+import ru.myguitarlib.metrics.HotPathMetrics;
+import ru.myguitarlib.repository.SongRepository;
+import ru.myguitarlib.utilites.ChordSheetRenderer;
+import ru.myguitarlib.utilites.ChordTransposer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Выгрузка всей библиотеки пользователя одним потоком: NDJSON (SongDto на строку)
+ * или zip из "Исполнитель - Название.txt" в том же виде, что принимает импорт.
+ *
+ * Библиотека читается страницами по id (курсор - последний id), каждая страница -
+ * два запроса сразу в DTO в своей короткой транзакции. Сущностей в контексте нет,
+ * поэтому память не растёт с размером библиотеки, даже когда open-in-view держит
+ * один EntityManager на весь ответ.
+ */
+@Slf4j
+@Service
+public class SongExportService {
+
+    static final int PAGE_SIZE = 200;
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    public enum Format {
+        NDJSON("ndjson", SongExportService.NDJSON),
+        ZIP("zip", MediaType.parseMediaType("application/zip"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String fileName() {
+            return "myguitarlib." + extension;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public static Format parse(String format) {
+            for (Format f : values()) {
+                if (f.extension.equalsIgnoreCase(format)) return f;
+            }
+            throw new ApiException("BAD_FORMAT", "format может быть только 'ndjson' или 'zip'", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private final SongRepository songRepository;
+    private final ChordTransposer transposer;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+
+    public SongExportService(SongRepository songRepository, ChordTransposer transposer, ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.songRepository = songRepository;
+        this.transposer = transposer;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    // пишет в out (тело ответа) по мере чтения; возвращает число выгруженных песен
+    public int export(Long userId, Format format, int semitones, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        int shift = Math.floorMod(semitones, 12);
+        int exported = 0;
+
+        try (SongSink sink = format == Format.ZIP ? new ZipSink(out) : new NdjsonSink(objectMapper, out)) {
+            long afterId = 0;
+            while (true) {
+                long cursor = afterId;
+                List<SongDto> page = readOnlyTx.execute(status -> loadPage(userId, cursor));
+                for (SongDto song : page) {
+                    transposer.transposeChords(song.getChords(), shift);
+                    sink.write(song);
+                }
+                sink.flush();   // клиент получает страницу сразу, а не в конце
+                exported += page.size();
+                HotPathMetrics.count(HotPathMetrics.Count.SONGS_EXPORTED, page.size());
+
+                if (page.size() < PAGE_SIZE) break;
+                afterId = page.get(page.size() - 1).getId();
+            }
+        }
+
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Экспорт пользователя {} ({}): {} песен за {} мс ({} песен/с)",
+                userId, format, exported, millis, Math.round(exported / Math.max(millis / 1000.0, 1e-3)));
+        return exported;
+    }
+
+    private List<SongDto> loadPage(Long userId, long afterId) {
+        List<SongViewRow> rows = songRepository.findExportPage(userId, afterId, PageRequest.ofSize(PAGE_SIZE));
+
+        // аккорды всех песен страницы, которые хранятся строками song_chords, - одним запросом
+        List<Long> withRows = new ArrayList<>();
+        for (SongViewRow row : rows) {
+            if (row.chordTrack() == null) withRows.add(row.id());
+        }
+        Map<Long, List<SongChordDto>> chords = new HashMap<>();
+        if (!withRows.isEmpty()) {
+            for (SongChordRow ch : songRepository.findChordRows(withRows)) {
+                chords.computeIfAbsent(ch.songId(), id -> new ArrayList<>())
+                        .add(new SongChordDto(ch.id(), ch.lineIndex(), ch.charIndex(), ch.chord(), ch.chordId()));
+            }
+        }
+
+        List<SongDto> page = new ArrayList<>(rows.size());
+        for (SongViewRow row : rows) {
+            page.add(SongMapper.toDto(row, chords.getOrDefault(row.id(), List.of())));
+        }
+        return page;
+    }
+
+    interface SongSink extends AutoCloseable {
+        void write(SongDto song) throws IOException;
+
+        void flush() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    // SongDto на строку; out не закрывается - это тело ответа
+    static final class NdjsonSink implements SongSink {
+        private final ObjectWriter writer;
+        private final JsonGenerator json;
+
+        NdjsonSink(ObjectMapper objectMapper, OutputStream out) throws IOException {
+            // одна строка на песню и flush только постранично
+            this.writer = objectMapper.writer()
+                    .without(SerializationFeature.INDENT_OUTPUT)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.json = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.json.setRootValueSeparator(null);   // иначе пробел перед каждым объектом
+        }
+
+        @Override
+        public void write(SongDto song) throws IOException {
+            writer.writeValue(json, song);
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
+        }
+    }
+
+    // песня - файл "Исполнитель - Название.txt": аккорды над текстом (ChordSheetRenderer)
+    static final class ZipSink implements SongSink {
+        private final ZipOutputStream zip;
+        private final Writer text;
+        private final Set<String> names = new HashSet<>();   // zip всё равно помнит имена для оглавления
+
+        ZipSink(OutputStream out) {
+            this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+            this.text = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void write(SongDto song) throws IOException {
+            zip.putNextEntry(new ZipEntry(uniqueName(fileName(song))));
+            ChordSheetRenderer.render(song, text);
+            text.flush();
+            zip.closeEntry();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            zip.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.finish();   // оглавление zip; сам out закроет контейнер
+            zip.flush();
+        }
+
+        private String uniqueName(String base) {
+            String name = base + ".txt";
+            for (int n = 2; !names.add(name); n++) {
+                name = base + " (" + n + ").txt";
+            }
+            return name;
+        }
+    }
+
+    // как ждёт SongImportService: "Исполнитель - Название", без символов, запрещённых в именах файлов
+    static String fileName(SongDto song) {
+        String title = song.getTitle() == null || song.getTitle().isBlank() ? "Без названия" : song.getTitle().strip();
+        String name = song.getArtist() == null || song.getArtist().isBlank()
+                ? title
+                : song.getArtist().strip() + " - " + title;
+        StringBuilder safe = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            safe.append(c < ' ' || "/\\:*?\"<>|".indexOf(c) >= 0 ? '_' : c);
+        }
+        return safe.toString().strip();
+    }
+}
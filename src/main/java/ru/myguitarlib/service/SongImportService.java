@@ -0,0 +1,336 @@
+package ru.myguitarlib.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import ru.myguitarlib.config.SongImportProperties;
+import ru.myguitarlib.dto.song.SongImportReportDto;
+import ru.myguitarlib.exception.ApiException;
+import ru.myguitarlib.model.User;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.search.SongSearchIndex;
+import ru.myguitarlib.utilites.ChordParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Массовый импорт: zip или набор .txt файлов "аккорды над текстом".
+ * Разбор - параллельно на виртуальных потоках, сохранение - пачками
+ * (id из последовательностей, поэтому Hibernate группирует INSERT'ы).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SongImportService {
+
+    static final int MAX_SONG_BYTES = 1024 * 1024;   // одна песня в файле - не больше 1 МБ
+    private static final Charset WINDOWS_1251 = Charset.forName("windows-1251");
+
+    private final ChordParser chordParser;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final SongImportProperties properties;
+    private final SongStorageService songStorageService;
+    private final SongSearchIndex songSearchIndex;
+
+    public record ImportFile(String name, byte[] content) {}
+
+    private record Parsed(Song song, String error) {}
+
+    /**
+     * Два прохода по загрузке. Первый только читает и считает: число файлов, размер каждого
+     * и сумму распакованных байт - zip-бомба отклоняется до того, как что-то сохранено.
+     * Второй читает заново и разбирает/сохраняет окнами по batch-size файлов, так что
+     * в памяти одновременно не больше одного окна текстов.
+     */
+    public SongImportReportDto importUploads(Long userId, List<MultipartFile> uploads) {
+        long started = System.nanoTime();
+        try (ImportReader check = reader(uploads)) {
+            while (check.next() != null) {
+                // только лимиты
+            }
+        } catch (IOException e) {
+            throw badFile();
+        }
+
+        int batchSize = Math.max(1, properties.getBatchSize());
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        var results = new ArrayList<SongImportReportDto.FileResult>();
+        int imported = 0;
+        long parseNanos = 0;
+        long persistNanos = 0;
+
+        try (ImportReader reader = reader(uploads);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<ImportFile> window = new ArrayList<>(batchSize);
+            boolean more = true;
+            while (more) {
+                window.clear();
+                ImportFile file;
+                while (window.size() < batchSize && (file = reader.next()) != null) {
+                    window.add(file);
+                }
+                more = window.size() == batchSize;
+                if (window.isEmpty()) break;
+
+                // 1. разбор окна - каждый файл в своём виртуальном потоке
+                long parseStarted = System.nanoTime();
+                List<Future<Song>> futures = window.stream()
+                        .map(f -> executor.submit(() -> parse(f)))
+                        .toList();
+                List<Parsed> parsed = new ArrayList<>(window.size());
+                for (Future<Song> future : futures) {
+                    parsed.add(await(future));
+                }
+                long persistStarted = System.nanoTime();
+                parseNanos += persistStarted - parseStarted;
+
+                // 2. сохранение окна одной транзакцией
+                int first = results.size();
+                for (int i = 0; i < window.size(); i++) {
+                    results.add(fileResult(window.get(i), parsed.get(i)));
+                }
+                imported += persist(userId, tx, parsed, results.subList(first, results.size()));
+                persistNanos += System.nanoTime() - persistStarted;
+                log.info("Импорт пользователя {}: обработано {} файлов", userId, results.size());
+            }
+        } catch (IOException e) {
+            throw badFile();
+        }
+        long finished = System.nanoTime();
+
+        var report = new SongImportReportDto();
+        report.setTotal(results.size());
+        report.setImported(imported);
+        report.setFailed(results.size() - imported);
+        report.setParseMillis(parseNanos / 1_000_000);
+        report.setPersistMillis(persistNanos / 1_000_000);
+        report.setTotalMillis((finished - started) / 1_000_000);
+        report.setSongsPerSecond(imported / Math.max((finished - started) / 1e9, 1e-9));
+        report.setFiles(results);
+
+        log.info("Импорт пользователя {}: {} песен за {} мс ({} песен/с)",
+                userId, imported, report.getTotalMillis(), Math.round(report.getSongsPerSecond()));
+        return report;
+    }
+
+    ImportReader reader(List<MultipartFile> uploads) {
+        return new ImportReader(uploads, properties.getMaxFiles(), properties.getMaxTotalBytes());
+    }
+
+    private int persist(Long userId, TransactionTemplate tx, List<Parsed> parsed, List<SongImportReportDto.FileResult> results) {
+        List<Integer> batch = new ArrayList<>(parsed.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            if (parsed.get(i).song() != null) batch.add(i);
+        }
+        if (batch.isEmpty()) return 0;
+
+        try {
+            tx.executeWithoutResult(status -> {
+                User owner = entityManager.getReference(User.class, userId);
+                for (int i : batch) {
+                    Song song = parsed.get(i).song();
+                    song.setOwner(owner);
+                    song.setComment("");
+                    songStorageService.beforeSave(song);
+                    entityManager.persist(song);
+                }
+                entityManager.flush();
+                entityManager.clear();   // под open-in-view контекст живёт весь запрос
+            });
+        } catch (RuntimeException e) {
+            log.warn("Импорт: пачка с файла {} не сохранена: {}", results.get(batch.get(0)).getFileName(), e.getMessage());
+            for (int i : batch) {
+                results.get(i).setStatus("FAILED");
+                results.get(i).setError("Ошибка сохранения");
+            }
+            return 0;
+        }
+        for (int i : batch) {
+            results.get(i).setStatus("IMPORTED");
+            results.get(i).setSongId(parsed.get(i).song().getId());
+            songSearchIndex.put(userId, parsed.get(i).song());
+        }
+        return batch.size();
+    }
+
+    private Song parse(ImportFile file) {
+        String text = decode(file.content());
+        String baseName = baseName(file.name());
+
+        // "Исполнитель - Название.txt"
+        String artist = "";
+        String title = baseName;
+        int dash = baseName.indexOf(" - ");
+        if (dash > 0) {
+            artist = baseName.substring(0, dash).trim();
+            title = baseName.substring(dash + 3).trim();
+        }
+        return chordParser.parser(artist, title, text);
+    }
+
+    private static Parsed await(Future<Song> future) {
+        try {
+            return new Parsed(future.get(), null);
+        } catch (ExecutionException e) {
+            return new Parsed(null, "Не удалось разобрать файл");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("IMPORT_INTERRUPTED", "Импорт прерван", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private static SongImportReportDto.FileResult fileResult(ImportFile file, Parsed parsed) {
+        var result = new SongImportReportDto.FileResult();
+        result.setFileName(file.name());
+        if (parsed.song() == null) {
+            result.setStatus("FAILED");
+            result.setError(parsed.error());
+        } else {
+            result.setArtist(parsed.song().getArtist());
+            result.setTitle(parsed.song().getTitle());
+            result.setChords(parsed.song().getChords().size());
+        }
+        return result;
+    }
+
+    private static ApiException badFile() {
+        return new ApiException("IMPORT_BAD_FILE", "Не удалось прочитать файлы импорта", HttpStatus.BAD_REQUEST);
+    }
+
+    // UTF-8, а если файл в ней не читается - windows-1251 (старые сборники песен)
+    private static String decode(byte[] bytes) {
+        String text;
+        try {
+            text = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            text = new String(bytes, WINDOWS_1251);
+        }
+        return text.startsWith("\uFEFF") ? text.substring(1) : text;
+    }
+
+    private static String baseName(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    /**
+     * Файлы загрузки по одному: zip раскрывается потоком, .txt берётся как есть.
+     * Лимиты проверяются по ходу чтения: файлов - maxFiles, одного файла - MAX_SONG_BYTES,
+     * всего распакованного (включая пропущенные записи архива) - maxTotalBytes.
+     */
+    static final class ImportReader implements AutoCloseable {
+
+        private final List<MultipartFile> uploads;
+        private final int maxFiles;
+        private final long maxTotalBytes;
+        private final byte[] skipBuffer = new byte[8192];
+
+        private int nextUpload;
+        private ZipInputStream zip;
+        private int files;
+        private long totalBytes;
+
+        ImportReader(List<MultipartFile> uploads, int maxFiles, long maxTotalBytes) {
+            this.uploads = uploads;
+            this.maxFiles = maxFiles;
+            this.maxTotalBytes = maxTotalBytes;
+        }
+
+        // null - файлы кончились
+        ImportFile next() throws IOException {
+            while (true) {
+                if (zip != null) {
+                    ImportFile file = nextEntry();
+                    if (file != null) return file;
+                    zip.close();
+                    zip = null;
+                }
+                if (nextUpload == uploads.size()) return null;
+
+                MultipartFile upload = uploads.get(nextUpload++);
+                String name = upload.getOriginalFilename() == null ? "song.txt" : upload.getOriginalFilename();
+                if (name.toLowerCase(Locale.ROOT).endsWith(".zip")) {
+                    zip = new ZipInputStream(upload.getInputStream());
+                } else {
+                    try (InputStream in = upload.getInputStream()) {
+                        return counted(name, in);
+                    }
+                }
+            }
+        }
+
+        private ImportFile nextEntry() throws IOException {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (!entry.isDirectory() && !name.startsWith("__MACOSX/")
+                        && name.toLowerCase(Locale.ROOT).endsWith(".txt")) {
+                    return counted(name, zip);
+                }
+                skip();   // getNextEntry распаковал бы её сам, мимо бюджета
+            }
+            return null;
+        }
+
+        private ImportFile counted(String name, InputStream in) throws IOException {
+            if (++files > maxFiles) {
+                throw new ApiException("IMPORT_TOO_MANY_FILES",
+                        "За один раз можно импортировать не больше " + maxFiles + " песен", HttpStatus.BAD_REQUEST);
+            }
+            long left = maxTotalBytes - totalBytes;
+            byte[] content = in.readNBytes((int) Math.min(MAX_SONG_BYTES, left) + 1);
+            if (content.length > MAX_SONG_BYTES) {
+                throw new ApiException("IMPORT_FILE_TOO_BIG", "Слишком большой файл: " + name, HttpStatus.BAD_REQUEST);
+            }
+            add(content.length);
+            return new ImportFile(name, content);
+        }
+
+        private void skip() throws IOException {
+            int n;
+            while ((n = zip.read(skipBuffer)) > 0) {
+                add(n);
+            }
+        }
+
+        private void add(long bytes) {
+            totalBytes += bytes;
+            if (totalBytes > maxTotalBytes) {
+                throw new ApiException("IMPORT_TOO_BIG",
+                        "Слишком много данных после распаковки: не больше " + maxTotalBytes / (1024 * 1024) + " МБ за раз",
+                        HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (zip != null) zip.close();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.myguitarlib.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.myguitarlib.config.SongProperties;
+import ru.myguitarlib.mapper.SongMapper;
+import ru.myguitarlib.model.enums.ChordStorage;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.model.song.SongChord;
+import ru.myguitarlib.utilites.ChordDictionary;
+import ru.myguitarlib.utilites.ChordSymbol;
+import ru.myguitarlib.utilites.ChordTrackCodec;
+import ru.myguitarlib.utilites.KeyDetector;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Подготовка песни к сохранению: аккорды в том формате, что задан app.song.chord-storage,
+// пустые исполнитель/название - "", а не null (по ним идёт постраничная выдача),
+// тональность по аккордам - чтобы список фильтровался по ней без чтения song_chords,
+// запись аккордов нормализована - чтобы показ без сдвига не трогал их.
+// Песня с символом, который не берётся в общий словарь (не аккорд, слишком длинный), хранится
+// дорожкой и при chord-storage: rows - символы дорожки лежат в самой песне.
+// Так же хранится песня, которая принесла бы в словарь больше MAX_NEW_CHORDS новых символов:
+// одна песня не может заполнить общий словарь за всех
+@Service
+@RequiredArgsConstructor
+public class SongStorageService {
+
+    static final int MAX_NEW_CHORDS = 32;
+
+    private final SongProperties properties;
+    private final ChordDictionary dictionary;
+
+    public void beforeSave(Song song) {
+        if (song.getArtist() == null) song.setArtist("");
+        if (song.getTitle() == null) song.setTitle("");
+
+        song.setSongKey(detectKey(song));
+
+        if (properties.getChordStorage() == ChordStorage.TRACK) {
+            normalize(song.getChords());
+            SongMapper.packChordTrack(song);
+        } else {
+            SongMapper.unpackChordTrack(song);
+            normalize(song.getChords());
+            if (!inDictionary(song.getChords())) {
+                SongMapper.packChordTrack(song);
+            }
+        }
+    }
+
+    // запись как после транспонирования на 0: "(Am)" -> "Am", "A//C" -> "A/C";
+    // поэтому показ в исходной тональности отдаёт аккорды как есть, без прохода по таблице
+    private static void normalize(List<SongChord> chords) {
+        for (SongChord ch : chords) {
+            if (ch.getChord() != null) ch.setChord(ChordSymbol.parse(ch.getChord()).transpose(0));
+        }
+    }
+
+    // заодно добавляет в словарь новые аккорды - до flush, а не из конвертера посреди него
+    private boolean inDictionary(List<SongChord> chords) {
+        Set<String> unknown = new HashSet<>();
+        for (SongChord ch : chords) {
+            if (ch.getChord() != null && dictionary.find(ch.getChord()) < 0) unknown.add(ch.getChord());
+        }
+        if (unknown.size() > MAX_NEW_CHORDS) return false;
+
+        for (String chord : unknown) {
+            if (dictionary.intern(chord) < 0) return false;
+        }
+        return true;
+    }
+
+    // код songs.song_key, аккорды - из дорожки или из строк, в порядке песни
+    public int detectKey(Song song) {
+        List<String> chords;
+        if (song.getChordTrack() != null && song.getChords().isEmpty()) {
+            chords = ChordTrackCodec.decode(song.getChordTrack()).stream()
+                    .map(ChordTrackCodec.Entry::chord)
+                    .toList();
+        } else {
+            chords = song.getChords().stream()
+                    .sorted(Comparator.comparingInt(SongChord::getLineIndex).thenComparingInt(SongChord::getCharIndex))
+                    .map(SongChord::getChord)
+                    .toList();
+        }
+        return KeyDetector.code(chords);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.myguitarlib.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.dto.song.SongVersion;
+import ru.myguitarlib.dto.song.SongViewRow;
+import ru.myguitarlib.exception.ApiException;
+import ru.myguitarlib.mapper.SongMapper;
+import ru.myguitarlib.repository.SongRepository;
+import ru.myguitarlib.utilites.ChordTransposer;
+
+import java.util.List;
+
+// Просмотр песни: сначала дешёвый запрос версии, потом готовый ответ из кэша
+@Service
+public class SongViewService {
+
+    private final SongRepository songRepository;
+    private final ChordTransposer transposer;
+    private final RenderedSongCache cache;
+    private final CompressedSongCache compressedCache;
+    private final ChordSheetCache sheetCache;
+    private final TransactionTemplate readOnlyTx;
+
+    public SongViewService(SongRepository songRepository, ChordTransposer transposer, RenderedSongCache cache,
+                           CompressedSongCache compressedCache, ChordSheetCache sheetCache,
+                           PlatformTransactionManager transactionManager) {
+        this.songRepository = songRepository;
+        this.transposer = transposer;
+        this.cache = cache;
+        this.compressedCache = compressedCache;
+        this.sheetCache = sheetCache;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public SongDto getSong(Long id, Long userId, int semitones) {
+        return getSong(version(id, userId), userId, semitones);
+    }
+
+    // версия уже известна (контроллер проверял по ней If-None-Match) - второй раз не читаем
+    public SongDto getSong(SongVersion version, Long userId, int semitones) {
+        var key = new RenderedSongCache.Key(version.id(), version.updatedAt(), Math.floorMod(semitones, 12));
+        return cache.get(key, k -> render(k.songId(), userId, k.semitones()));
+    }
+
+    public SongVersion version(Long id, Long userId) {
+        return songRepository.findVersion(id, userId)
+                .orElseThrow(() -> new ApiException("SONG_NOT_FOUND", "Песня не найдена", HttpStatus.NOT_FOUND));
+    }
+
+    public void evict(Long songId) {
+        cache.evictSong(songId);
+        compressedCache.evictSong(songId);
+        sheetCache.evictSong(songId);
+    }
+
+    private SongDto render(Long id, Long userId, int semitones) {
+        SongDto dto = readOnlyTx.execute(status -> load(id, userId));
+
+        // транспонируем DTO: аккорды могут быть и строками song_chords, и в chord_track
+        transposer.transposeChords(dto.getChords(), semitones);
+        return dto;
+    }
+
+    // колонки и аккорды сразу в DTO: ни сущностей, ни снимков для dirty checking,
+    // под open-in-view транспонированное не может уйти обратно в базу
+    private SongDto load(Long id, Long userId) {
+        SongViewRow row = songRepository.findView(id, userId)
+                .orElseThrow(() -> new ApiException("SONG_NOT_FOUND", "Песня не найдена", HttpStatus.NOT_FOUND));
+        List<SongChordDto> chords = row.chordTrack() == null ? songRepository.findChordViews(id) : null;
+        return SongMapper.toDto(row, chords);
+    }
+}
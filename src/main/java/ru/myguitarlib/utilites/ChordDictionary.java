@@ -0,0 +1,264 @@
+package ru.myguitarlib.utilites;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Общий словарь аккордов: каждый различный символ получает небольшой int id,
+ * и для него заранее посчитаны все 12 транспозиций.
+ * Загружается из таблицы chord_symbols при первом обращении,
+ * новые символы дописываются туда сразу (отдельным соединением, вне текущей транзакции).
+ *
+ * Таблица общая для всех пользователей, поэтому в неё попадают только аккорды по грамматике
+ * (ChordSymbol.isWellFormed) не длиннее MAX_SYMBOL_LENGTH и не больше MAX_SYMBOLS штук.
+ * Всё остальное транспонируется в памяти, а песня с таким символом хранится дорожкой
+ * (SongStorageService), где символы лежат в самой песне.
+ */
+@Slf4j
+@Component
+public class ChordDictionary {
+
+    public static final int MAX_SYMBOLS = 10_000;
+    public static final int MAX_SYMBOL_LENGTH = 16;
+
+    private final DataSource dataSource;   // null - словарь только в памяти
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] symbols = new String[0];
+    private volatile String[][] transpositions = new String[0][];
+    private int nextId;                    // меняется только под lock
+    private volatile boolean loaded;
+
+    // ReentrantLock, а не synchronized: под ним идут запросы к базе, а виртуальный поток
+    // внутри synchronized блокирует свой поток-носитель
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public record Stats(int size, long hits, long misses) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    @Autowired
+    public ChordDictionary(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    // словарь без базы - для тестов и бенчмарков
+    public ChordDictionary() {
+        this.dataSource = null;
+        this.loaded = true;
+    }
+
+    // id символа; символ, которого нет в словаре и который туда не берётся, - ошибка
+    public int idOf(String symbol) {
+        int id = intern(symbol);
+        if (id < 0) {
+            throw new IllegalArgumentException("Символ не помещается в словарь аккордов: " + symbol);
+        }
+        return id;
+    }
+
+    // id символа без добавления; -1 - его нет в словаре
+    public int find(String symbol) {
+        if (symbol == null) symbol = "";
+        ensureLoaded();
+
+        Integer id = ids.get(symbol);
+        if (id != null) {
+            hits.increment();
+            return id;
+        }
+        misses.increment();
+        return -1;
+    }
+
+    // id символа, при необходимости добавленного; -1 - не аккорд, слишком длинный или словарь полон
+    public int intern(String symbol) {
+        if (symbol == null) symbol = "";
+        int id = find(symbol);
+        if (id >= 0) return id;
+        if (!accepts(symbol)) return -1;
+
+        lock.lock();
+        try {
+            if (ids.size() >= MAX_SYMBOLS && !ids.containsKey(symbol)) return -1;
+            return internLocked(symbol);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // перенос старых данных (ChordIdMigration): символы уже сохранённых песен берутся как есть
+    public int importSymbol(String symbol) {
+        if (symbol == null) symbol = "";
+        int id = find(symbol);
+        if (id >= 0) return id;
+
+        lock.lock();
+        try {
+            return internLocked(symbol);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String symbol(int id) {
+        ensureLoaded(id);
+        return symbols[id];
+    }
+
+    public String transpose(int id, int semitones) {
+        ensureLoaded(id);
+        return transpositions[id][Math.floorMod(semitones, 12)];
+    }
+
+    // только чтение: словарь пополняется при сохранении песни (SongStorageService), а не при показе;
+    // символа нет - транспонируется на месте и нигде не сохраняется
+    public String transpose(String symbol, int semitones) {
+        int id = find(symbol);
+        return id >= 0 ? transpose(id, semitones) : ChordSymbol.parse(symbol).transpose(semitones);
+    }
+
+    public Stats stats() {
+        return new Stats(ids.size(), hits.sum(), misses.sum());
+    }
+
+    private static boolean accepts(String symbol) {
+        return symbol.length() <= MAX_SYMBOL_LENGTH && ChordSymbol.parse(symbol).isWellFormed();
+    }
+
+    private int internLocked(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) return id;
+
+        int newId = nextId;
+        if (dataSource != null) {
+            try {
+                insert(newId, symbol);
+            } catch (SQLException e) {
+                // id мог занять другой экземпляр приложения - перечитываем таблицу
+                log.warn("Не удалось добавить аккорд '{}' в словарь, перечитываем: {}", symbol, e.getMessage());
+                reload();
+                id = ids.get(symbol);
+                if (id != null) return id;
+                newId = nextId;
+                try {
+                    insert(newId, symbol);
+                } catch (SQLException retry) {
+                    throw new IllegalStateException("Не удалось добавить аккорд в словарь: " + symbol, retry);
+                }
+            }
+        }
+
+        put(newId, symbol);
+        return newId;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            lock.lock();
+            try {
+                if (!loaded) {
+                    reload();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // chord_id из song_chords мог записать другой экземпляр приложения - тогда перечитываем таблицу.
+    // symbols[id] заполняется после transpositions[id], так что по нему видно обе строки
+    private void ensureLoaded(int id) {
+        ensureLoaded();
+        if (has(id)) return;
+
+        lock.lock();
+        try {
+            if (!has(id) && dataSource != null) {
+                reload();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!has(id)) {
+            throw new IllegalStateException("Нет аккорда с id " + id + " в словаре");
+        }
+    }
+
+    private boolean has(int id) {
+        String[] current = symbols;
+        return id >= 0 && id < current.length && current[id] != null;
+    }
+
+    // вызывается только под lock
+    private void reload() {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("select id, symbol from chord_symbols order by id");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                put(rs.getInt(1), rs.getString(2));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось загрузить словарь аккордов", e);
+        }
+        loaded = true;
+        log.info("Словарь аккордов загружен: {} символов", ids.size());
+    }
+
+    // вызывается только под lock
+    private void put(int id, String symbol) {
+        if (id >= symbols.length) {
+            int capacity = Math.max(id + 1, symbols.length + 16);
+            String[] newSymbols = Arrays.copyOf(symbols, capacity);
+            String[][] newTranspositions = Arrays.copyOf(transpositions, capacity);
+            newSymbols[id] = symbol;
+            newTranspositions[id] = precompute(symbol);
+            transpositions = newTranspositions;
+            symbols = newSymbols;
+        } else {
+            transpositions[id] = precompute(symbol);
+            symbols[id] = symbol;
+        }
+        nextId = Math.max(nextId, id + 1);
+        ids.put(symbol, id);
+    }
+
+    private static String[] precompute(String symbol) {
+        ChordSymbol parsed = ChordSymbol.parse(symbol);
+        String[] row = new String[12];
+        for (int shift = 0; shift < 12; shift++) {
+            row[shift] = parsed.transpose(shift);
+        }
+        return row;
+    }
+
+    private void insert(int id, String symbol) throws SQLException {
+        // своё соединение в autocommit: символ остаётся в словаре,
+        // даже если транзакция, сохраняющая песню, откатится
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("insert into chord_symbols (id, symbol) values (?, ?)")) {
+            c.setAutoCommit(true);
+            ps.setInt(1, id);
+            ps.setString(2, symbol);
+            ps.executeUpdate();
+        }
+    }
+}
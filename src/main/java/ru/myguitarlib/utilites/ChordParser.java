@@ -1,9 +1,14 @@
 package ru.myguitarlib.utilites;
 
 import org.springframework.stereotype.Component;
+import ru.myguitarlib.metrics.HotPathMetrics;
 import ru.myguitarlib.model.song.Song;
 import ru.myguitarlib.model.song.SongChord;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -16,55 +21,139 @@ public class ChordParser {
             Pattern.compile("\\b([A-G][#b]?m?(maj)?(?:[67]?|add|sus|dim|aug)?(?:/?[A-G][#b]?)?)\\b",
                     Pattern.CASE_INSENSITIVE);
 
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Получатель результата разбора: аккорды и строки текста приходят по мере чтения,
+     * весь текст целиком в памяти не держится.
+     */
+    public interface Sink {
+        void chord(int lineIndex, int charIndex, String chord);
+
+        // строка текста без перевода строки; line действителен только во время вызова
+        void lyricsLine(CharSequence line);
+    }
+
     public Song parser(String artist, String title, String rawText) {
+        try {
+            return parser(artist, title, new StringReader(rawText));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // StringReader не бросает
+        }
+    }
+
+    public Song parser(String artist, String title, Reader rawText) throws IOException {
+        long started = HotPathMetrics.start();
         Song song = new Song();
         song.setTitle(title);
         song.setArtist(artist);
 
-        String[] split = rawText.split("\\R");
-
         List<SongChord> chords = new ArrayList<>();
         StringBuilder lyrics = new StringBuilder();
 
-        int indexLine = 0;
+        parse(rawText, new Sink() {
+            @Override
+            public void chord(int lineIndex, int charIndex, String chord) {
+                var newChord = new SongChord();
+                newChord.setSong(song);
+                newChord.setCharIndex(charIndex);
+                newChord.setLineIndex(lineIndex);
+                newChord.setChord(chord);
+                chords.add(newChord);
+            }
 
-        int flagWas = 0;  // 0 - ожидаются аккорды, 1 - ожидается текст
+            @Override
+            public void lyricsLine(CharSequence line) {
+                lyrics.append(line).append('\n');
+            }
+        });
+
+        song.setLyrics(lyrics.toString().trim());
+        song.setChords(chords);
 
-        for (var i = 0; i < split.length; i++) {
+        HotPathMetrics.stop(HotPathMetrics.Op.CHORD_PARSE, started);
+        HotPathMetrics.count(HotPathMetrics.Count.CHORDS_PARSED, chords.size());
+        return song;
+    }
 
-            Matcher matcher = CHORD_PATTERN.matcher(split[i]);
+    /**
+     * Разбор за один проход: строки читаются из reader в общий буфер
+     * (без split в массив строк), каждая строка проверяется регуляркой один раз.
+     */
+    public void parse(Reader reader, Sink sink) throws IOException {
+        new LineState(sink).run(reader);
+    }
 
-            if (matcher.find()) {
+    // те же переводы строк, что и \R (ChordSheetRenderer делит текст так же)
+    static boolean isLineBreak(char c) {
+        return c == '\n' || c == '\r' || c == '\u000B' || c == '\u000C'
+                || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static final class LineState {
+        private final Sink sink;
+        private final StringBuilder line = new StringBuilder(128);
+        private final Matcher matcher = CHORD_PATTERN.matcher("");
+
+        private int indexLine = 0;
+        private int flagWas = 0;  // 0 - ожидаются аккорды, 1 - ожидается текст
+
+        LineState(Sink sink) {
+            this.sink = sink;
+        }
 
-                matcher.reset();
-                while(matcher.find()) {
-                    var newChord = new SongChord();
-                    newChord.setSong(song);
-                    newChord.setCharIndex(matcher.start());
-                    newChord.setLineIndex(indexLine);
-                    newChord.setChord(matcher.group(1));
-                    chords.add(newChord);
+        void run(Reader reader) throws IOException {
+            char[] buffer = new char[BUFFER_SIZE];
+            boolean pendingCr = false;
+            boolean hasLine = false;
+
+            int n;
+            while ((n = reader.read(buffer)) != -1) {
+                for (int i = 0; i < n; i++) {
+                    char c = buffer[i];
+                    if (pendingCr) {
+                        pendingCr = false;
+                        if (c == '\n') continue;   // \r\n - один перевод строки
+                    }
+                    if (isLineBreak(c)) {
+                        handleLine();
+                        hasLine = false;
+                        pendingCr = c == '\r';
+                    } else {
+                        line.append(c);
+                        hasLine = true;
+                    }
                 }
+            }
+            if (hasLine) {
+                handleLine();
+            }
+        }
+
+        private void handleLine() {
+            matcher.reset(line);
+
+            if (matcher.find()) {
+                do {
+                    sink.chord(indexLine, matcher.start(), matcher.group(1));
+                } while (matcher.find());
                 indexLine++;
 
-                if(flagWas == 1) {  // если подряд акорды то добавить пустой текст
-                    lyrics.append(System.lineSeparator());
+                if (flagWas == 1) {  // если подряд акорды то добавить пустой текст
+                    sink.lyricsLine("");
                 }
                 flagWas = 1;  // дальше ожидается текст
 
             } else {
-                lyrics.append(split[i]).append(System.lineSeparator());
+                sink.lyricsLine(line);
 
                 if (flagWas == 0) { // если был текст и опять текст - добавить строку аккодов
                     indexLine++;
                 }
                 flagWas = 0; // дальше ожидаются аккорды
             }
-        }
-
-        song.setLyrics(lyrics.toString().trim());
-        song.setChords(chords);
 
-        return song;
+            line.setLength(0);
+        }
     }
 }
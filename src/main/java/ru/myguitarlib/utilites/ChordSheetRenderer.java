@@ -0,0 +1,146 @@
+package ru.myguitarlib.utilites;
+
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.dto.song.SongDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Обратное ChordParser: песня (lyrics + аккорды по lineIndex/charIndex) снова становится
+ * моноширинным текстом "строка аккордов над строкой текста". ChordParser.parser(render(песня))
+ * даёт ту же песню.
+ *
+ * Аккорд ставится в свою колонку charIndex; если предыдущий до неё дотянулся (после
+ * транспонирования C -> C#m), - через пробел после него, иначе парсер склеит их в одно слово.
+ * Текст пишется прямо в Appendable (Writer ответа) кусками lyrics - без split и промежуточных строк.
+ */
+public final class ChordSheetRenderer {
+
+    // блок для клиентов, которые рисуют сами: chords = null - над строкой аккордов нет
+    public record Line(String chords, String lyrics) {}
+
+    private static final String SPACES = " ".repeat(64);
+
+    private static final Comparator<SongChordDto> POSITION =
+            Comparator.comparingInt(SongChordDto::getLineIndex).thenComparingInt(SongChordDto::getCharIndex);
+
+    private interface Visitor {
+        void chordLine(List<SongChordDto> chords, int from, int to) throws IOException;
+
+        void lyricsLine(CharSequence lyrics, int start, int end) throws IOException;
+    }
+
+    private ChordSheetRenderer() {
+    }
+
+    public static void render(SongDto song, Appendable out) throws IOException {
+        walk(song, new Visitor() {
+            @Override
+            public void chordLine(List<SongChordDto> chords, int from, int to) throws IOException {
+                appendChords(out, chords, from, to);
+                out.append('\n');
+            }
+
+            @Override
+            public void lyricsLine(CharSequence lyrics, int start, int end) throws IOException {
+                out.append(lyrics, start, end).append('\n');
+            }
+        });
+    }
+
+    public static String render(SongDto song) {
+        StringBuilder out = new StringBuilder(song.getLyrics() == null ? 16 : song.getLyrics().length() * 2);
+        try {
+            render(song, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // StringBuilder не бросает
+        }
+        return out.toString();
+    }
+
+    // та же раскладка построчно: строка текста и строка аккордов над ней
+    public static List<Line> lines(SongDto song) {
+        List<Line> lines = new ArrayList<>();
+        StringBuilder chordLine = new StringBuilder(64);
+        String[] pending = new String[1];
+        try {
+            walk(song, new Visitor() {
+                @Override
+                public void chordLine(List<SongChordDto> chords, int from, int to) throws IOException {
+                    if (pending[0] != null) lines.add(new Line(pending[0], ""));
+                    chordLine.setLength(0);
+                    appendChords(chordLine, chords, from, to);
+                    pending[0] = chordLine.toString();
+                }
+
+                @Override
+                public void lyricsLine(CharSequence lyrics, int start, int end) {
+                    lines.add(new Line(pending[0], lyrics.subSequence(start, end).toString()));
+                    pending[0] = null;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (pending[0] != null) lines.add(new Line(pending[0], ""));
+        return lines;
+    }
+
+    private static void walk(SongDto song, Visitor visitor) throws IOException {
+        String lyrics = song.getLyrics() == null ? "" : song.getLyrics();
+        List<SongChordDto> chords = sorted(song.getChords());
+        int lastChordLine = chords.isEmpty() ? -1 : chords.get(chords.size() - 1).getLineIndex();
+
+        int next = 0;
+        int start = 0;
+        boolean textLeft = true;
+        for (int lineIndex = 0; textLeft || lineIndex <= lastChordLine; lineIndex++) {
+            while (next < chords.size() && chords.get(next).getLineIndex() < lineIndex) next++;
+            int from = next;
+            while (next < chords.size() && chords.get(next).getLineIndex() == lineIndex) next++;
+            if (next > from) visitor.chordLine(chords, from, next);
+
+            if (textLeft) {
+                int end = start;
+                while (end < lyrics.length() && !ChordParser.isLineBreak(lyrics.charAt(end))) end++;
+                visitor.lyricsLine(lyrics, start, end);
+                textLeft = end < lyrics.length();
+                start = end + (end + 1 < lyrics.length() && lyrics.charAt(end) == '\r' && lyrics.charAt(end + 1) == '\n' ? 2 : 1);
+            } else if (lineIndex < lastChordLine) {
+                // аккорды ниже текста (песня кончается строкой аккордов): пустые строки держат их lineIndex
+                visitor.lyricsLine("", 0, 0);
+            }
+        }
+    }
+
+    private static void appendChords(Appendable out, List<SongChordDto> chords, int from, int to) throws IOException {
+        int column = 0;
+        for (int i = from; i < to; i++) {
+            String chord = chords.get(i).getChord();
+            if (chord == null || chord.isEmpty()) continue;
+            int at = Math.max(chords.get(i).getCharIndex(), column == 0 ? 0 : column + 1);
+            for (int pad = at - column; pad > 0; pad -= SPACES.length()) {
+                out.append(SPACES, 0, Math.min(pad, SPACES.length()));
+            }
+            out.append(chord);
+            column = at + chord.length();
+        }
+    }
+
+    // из запроса и из chord_track аккорды уже по порядку; сортируется только новая песня из редактора
+    private static List<SongChordDto> sorted(List<SongChordDto> chords) {
+        if (chords == null) return List.of();
+        for (int i = 1; i < chords.size(); i++) {
+            if (POSITION.compare(chords.get(i - 1), chords.get(i)) > 0) {
+                List<SongChordDto> copy = new ArrayList<>(chords);
+                copy.sort(POSITION);
+                return copy;
+            }
+        }
+        return chords;
+    }
+}
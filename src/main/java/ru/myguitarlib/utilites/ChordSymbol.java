@@ -0,0 +1,227 @@
+package ru.myguitarlib.utilites;
+
+import java.util.regex.Pattern;
+
+/**
+ * Аккорд, разобранный один раз на корень / качество / бас.
+ * Транспонирование - выбор имени ноты из таблицы, готовые строки
+ * для каждого из 12 сдвигов запоминаются, повторный вызов ничего не выделяет.
+ */
+public final class ChordSymbol {
+
+    private static final String[] SHARP_NAMES = {
+            "C", "C#", "D", "D#", "E", "F", "F#", "G", "G#", "A", "A#", "B"
+    };
+    private static final String[] FLAT_NAMES = {
+            "C", "Db", "D", "Eb", "E", "F", "Gb", "G", "Ab", "A", "Bb", "B"
+    };
+
+    // высота ноты по букве: A B C D E F G
+    private static final int[] LETTER_PITCH = {9, 11, 0, 2, 4, 5, 7};
+
+    // тональности, которые пишутся через бемоли (индекс - высота корня)
+    //                                         C      Db     D      Eb     E      F      Gb     G      Ab     A      Bb     B
+    private static final boolean[] FLAT_MAJOR = {false, true, false, true, false, true, false, false, true, false, true, false};
+    private static final boolean[] FLAT_MINOR = {true, false, true, true, false, true, false, true, false, false, true, false};
+
+    // качество аккорда из известных частей, каждая не больше одного раза:
+    // трезвучие, большая септима, ступень, sus, до трёх альтераций/добавленных ступеней
+    private static final Pattern QUALITY = Pattern.compile(
+            "(?:m|min|-|dim|°|o|aug|\\+|ø)?"
+                    + "(?:maj|Maj|M|Δ)?"
+                    + "(?:2|4|5|6|7|9|11|13|6/9|69)?"
+                    + "(?:sus[24]?)?"
+                    + "(?:(?:add|b|#|♭|♯)(?:2|4|5|6|9|11|13)){0,3}");
+
+    private static final int NATURAL = 0;
+    private static final int SHARP = 1;
+    private static final int FLAT = -1;
+
+    static final ChordSymbol UNKNOWN = new ChordSymbol("?", -1, NATURAL, "", -1, NATURAL, "");
+
+    private final String text;       // нормализованная запись аккорда
+    private final int root;          // 0..11, -1 - не аккорд (возвращается как есть)
+    private final int rootAccidental;
+    private final String quality;    // "m7", "sus4", "maj7" ...
+    private final int bass;          // 0..11, -1 - нет баса
+    private final int bassAccidental;
+    private final String bassTail;   // всё, что после басовой ноты
+    private final boolean minor;
+
+    private final String[] spellings = new String[12];
+
+    private ChordSymbol(String text, int root, int rootAccidental, String quality,
+                        int bass, int bassAccidental, String bassTail) {
+        this.text = text;
+        this.root = root;
+        this.rootAccidental = rootAccidental;
+        this.quality = quality;
+        this.bass = bass;
+        this.bassAccidental = bassAccidental;
+        this.bassTail = bassTail;
+        this.minor = isMinorQuality(quality);
+        if (root >= 0) {
+            spellings[0] = text;
+        }
+    }
+
+    public static ChordSymbol parse(String chord) {
+        if (chord == null) return UNKNOWN;
+
+        String s = normalize(chord);
+        if (s.isEmpty()) return UNKNOWN;
+
+        int len = s.length();
+        int rootPitch = letterPitch(s.charAt(0));
+        if (rootPitch < 0) {
+            return new ChordSymbol(s, -1, NATURAL, "", -1, NATURAL, "");
+        }
+
+        int pos = 1;
+        int rootAcc = accidentalAt(s, pos);
+        if (rootAcc != NATURAL) pos++;
+
+        // качество - до слэша, за которым идёт нота баса ("6/9" басом не считается)
+        int slash = -1;
+        for (int i = pos; i < len - 1; i++) {
+            if (s.charAt(i) == '/' && letterPitch(s.charAt(i + 1)) >= 0) {
+                slash = i;
+                break;
+            }
+        }
+
+        if (slash < 0) {
+            return new ChordSymbol(s, pitch(rootPitch, rootAcc), rootAcc, s.substring(pos), -1, NATURAL, "");
+        }
+
+        int bassPitch = letterPitch(s.charAt(slash + 1));
+        int bassPos = slash + 2;
+        int bassAcc = accidentalAt(s, bassPos);
+        if (bassAcc != NATURAL) bassPos++;
+
+        return new ChordSymbol(s, pitch(rootPitch, rootAcc), rootAcc, s.substring(pos, slash),
+                pitch(bassPitch, bassAcc), bassAcc, s.substring(bassPos));
+    }
+
+    public String transpose(int semitones) {
+        if (root < 0) return text;
+
+        int shift = Math.floorMod(semitones, 12);
+        String spelled = spellings[shift];
+        if (spelled == null) {
+            spelled = spell(shift);
+            spellings[shift] = spelled;   // гонка безопасна: значение всегда одно и то же
+        }
+        return spelled;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /** Высота корня 0..11 (C = 0), -1 если это не аккорд. */
+    public int getRoot() {
+        return root;
+    }
+
+    /** Высота басовой ноты 0..11, -1 если баса нет. */
+    public int getBass() {
+        return bass;
+    }
+
+    public String getQuality() {
+        return quality;
+    }
+
+    public boolean isMinor() {
+        return minor;
+    }
+
+    public boolean isChord() {
+        return root >= 0;
+    }
+
+    /** Аккорд по грамматике: известное качество и бас без хвоста ("Good", "C9999" - нет). */
+    public boolean isWellFormed() {
+        return root >= 0 && bassTail.isEmpty() && QUALITY.matcher(quality).matches();
+    }
+
+    private String spell(int shift) {
+        int newRoot = (root + shift) % 12;
+
+        boolean flats = rootAccidental != NATURAL
+                ? rootAccidental == FLAT
+                : (minor ? FLAT_MINOR[newRoot] : FLAT_MAJOR[newRoot]);
+        String[] names = flats ? FLAT_NAMES : SHARP_NAMES;
+
+        StringBuilder sb = new StringBuilder(text.length() + 2);
+        sb.append(names[newRoot]).append(quality);
+
+        if (bass >= 0) {
+            String[] bassNames = bassAccidental == NATURAL
+                    ? names
+                    : (bassAccidental == FLAT ? FLAT_NAMES : SHARP_NAMES);
+            sb.append('/').append(bassNames[(bass + shift) % 12]).append(bassTail);
+        }
+        return sb.toString();
+    }
+
+    // убираем скобки и пробелы, "//" -> "/", "bbb" -> "b", "###" -> "#"
+    // (то же, что делали регулярки в старом ChordTransposer, но без них)
+    static String normalize(String chord) {
+        String s = stripBrackets(chord);
+        int len = s.length();
+        StringBuilder sb = null;
+
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            int run = i + 1;
+            while (run < len && s.charAt(run) == c) run++;
+
+            boolean collapse = (c == '/' && run - i >= 2) || ((c == 'b' || c == '#') && run - i >= 3);
+            if (collapse) {
+                if (sb == null) sb = new StringBuilder(len).append(s, 0, i);
+                sb.append(c);
+                i = run - 1;
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? s : sb.toString();
+    }
+
+    private static String stripBrackets(String chord) {
+        int len = chord.length();
+        StringBuilder sb = null;
+
+        for (int i = 0; i < len; i++) {
+            char c = chord.charAt(i);
+            if (c == '(' || c == ')' || Character.isWhitespace(c)) {
+                if (sb == null) sb = new StringBuilder(len).append(chord, 0, i);
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? chord : sb.toString();
+    }
+
+    private static int letterPitch(char c) {
+        return c >= 'A' && c <= 'G' ? LETTER_PITCH[c - 'A'] : -1;
+    }
+
+    private static int accidentalAt(String s, int pos) {
+        if (pos >= s.length()) return NATURAL;
+        char c = s.charAt(pos);
+        if (c == '#' || c == '♯') return SHARP;
+        if (c == 'b' || c == '♭') return FLAT;
+        return NATURAL;
+    }
+
+    private static int pitch(int letterPitch, int accidental) {
+        return Math.floorMod(letterPitch + accidental, 12);
+    }
+
+    private static boolean isMinorQuality(String quality) {
+        return quality.startsWith("m") && !quality.startsWith("maj");
+    }
+}
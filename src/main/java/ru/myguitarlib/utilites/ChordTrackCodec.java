@@ -0,0 +1,173 @@
+package ru.myguitarlib.utilites;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Дорожка аккордов песни одним столбцом (songs.chord_track) вместо строк song_chords.
+ *
+ * Формат v1:
+ *   версия (1 байт)
+ *   словарь песни: varint N, затем N строк (varint длина + UTF-8)
+ *   varint M аккордов, для каждого:
+ *     zigzag-varint сдвиг строки от предыдущего аккорда,
+ *     zigzag-varint позиция (на той же строке - сдвиг от предыдущего аккорда),
+ *     varint номер символа в словаре
+ * Типичный аккорд занимает 3 байта.
+ */
+public final class ChordTrackCodec {
+
+    private static final int VERSION = 1;
+
+    public record Entry(int lineIndex, int charIndex, String chord) {}
+
+    private ChordTrackCodec() {}
+
+    public static byte[] encode(List<Entry> chords) {
+        Map<String, Integer> symbols = new LinkedHashMap<>();
+        for (Entry e : chords) {
+            symbols.putIfAbsent(symbolOf(e), symbols.size());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + symbols.size() * 4 + chords.size() * 3);
+        out.write(VERSION);
+
+        writeVarint(out, symbols.size());
+        for (String symbol : symbols.keySet()) {
+            byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        writeVarint(out, chords.size());
+        int prevLine = 0;
+        int prevChar = 0;
+        for (Entry e : chords) {
+            int lineDelta = e.lineIndex() - prevLine;
+            int charBase = lineDelta == 0 ? prevChar : 0;
+            writeVarint(out, zigzag(lineDelta));
+            writeVarint(out, zigzag(e.charIndex() - charBase));
+            writeVarint(out, symbols.get(symbolOf(e)));
+            prevLine = e.lineIndex();
+            prevChar = e.charIndex();
+        }
+        return out.toByteArray();
+    }
+
+    public static List<Entry> decode(byte[] track) {
+        Reader in = new Reader(track);
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Неизвестная версия дорожки аккордов: " + version);
+        }
+
+        String[] symbols = new String[in.readVarint()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = in.readString();
+        }
+
+        int count = in.readVarint();
+        List<Entry> chords = new ArrayList<>(count);
+        int line = 0;
+        int ch = 0;
+        for (int i = 0; i < count; i++) {
+            int lineDelta = unzigzag(in.readVarint());
+            int charDelta = unzigzag(in.readVarint());
+            line += lineDelta;
+            ch = (lineDelta == 0 ? ch : 0) + charDelta;
+            chords.add(new Entry(line, ch, symbols[in.readVarint()]));
+        }
+        return chords;
+    }
+
+    private static String symbolOf(Entry e) {
+        return e.chord() == null ? "" : e.chord();
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static void writeVarlong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static final class Reader {
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() {
+            if (pos >= data.length) throw new IllegalArgumentException("Данные закончились раньше времени");
+            return data[pos++] & 0xFF;
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("Слишком длинный varint");
+        }
+
+        long readVarlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("Слишком длинный varint");
+        }
+
+        byte[] readBytes() {
+            int length = readVarint();
+            if (length < 0 || length > data.length - pos) {
+                throw new IllegalArgumentException("Некорректная длина: " + length);
+            }
+            byte[] bytes = Arrays.copyOfRange(data, pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+
+        boolean atEnd() {
+            return pos == data.length;
+        }
+
+        String readString() {
+            int length = readVarint();
+            if (length < 0 || length > data.length - pos) {
+                throw new IllegalArgumentException("Некорректная длина строки: " + length);
+            }
+            String s = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return s;
+        }
+    }
+}
@@ -1,86 +1,73 @@
 package ru.myguitarlib.utilites;
 
-import org.springframework.cache.annotation.Cacheable;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.metrics.HotPathMetrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
+@RequiredArgsConstructor
 public class ChordTransposer {
 
-    private static final String[] NOTES = {
-            "C", "C#", "D", "D#", "E", "F", "F#", "G", "G#", "A", "A#", "B"
-    };
+    // все 12 транспозиций каждого символа посчитаны заранее в словаре
+    private final ChordDictionary dictionary;
 
-    @Cacheable(value = "chords", key = "#chord + '_' + #semitones")
     public String transpose(String chord, int semitones) {
-        if (chord == null || chord.trim().isEmpty()) return "?";
-
-        String normalized = normalizeChord(chord.trim());
-        if (normalized.isEmpty()) return "?";
-
-        if (!normalized.matches(".*[A-G].*")) return normalized;
-
-        String root = extractRoot(normalized);
-        if (!root.isEmpty()) {
-            String newRoot = transposeNote(root, semitones);
-            String rest = normalized.substring(root.length());
-
-            String newBass = transposeBass(rest, semitones);
-            return newRoot + newBass + removeBass(rest);
-        }
-
-        return transposeFirstLetter(normalized, semitones);
-    }
-
-    private static String normalizeChord(String chord) {
-        return chord.replaceAll("[()\\s]+", "")
-                .replaceAll("/+", "/")
-                .replaceAll("b{3,}", "b")
-                .replaceAll("#{3,}", "#");
-    }
-
-    private static String extractRoot(String chord) {
-        Pattern rootPattern = Pattern.compile("^([A-G]([#b])?\\d?)");
-        Matcher m = rootPattern.matcher(chord);
-        return m.find() ? m.group(1) : "";
-    }
-
-    private static String transposeNote(String note, int semitones) {
-        for (int i = 0; i < NOTES.length; i++) {
-            if (NOTES[i].equalsIgnoreCase(note)) {
-                int newIndex = (i + semitones + NOTES.length * 10) % NOTES.length;
-                return NOTES[newIndex];
+        if (chord == null) return ChordSymbol.UNKNOWN.transpose(semitones);
+        return dictionary.transpose(chord, semitones);
+    }
+
+    /**
+     * Транспонирует все аккорды песни за один вызов: каждый различный символ
+     * считается один раз, результат - в том же порядке, что и на входе.
+     * При сдвиге, кратном 12, возвращается исходный список: запись аккордов
+     * нормализуется один раз при сохранении песни (SongStorageService), а не при каждом показе.
+     */
+    public List<String> transposeAll(List<String> chords, int semitones) {
+        if (chords.isEmpty() || Math.floorMod(semitones, 12) == 0) return chords;
+
+        // мерим песню целиком: один аккорд - поиск в таблице, дешевле самого замера
+        long started = HotPathMetrics.start();
+        Map<String, String> distinct = new HashMap<>();
+        List<String> result = new ArrayList<>(chords.size());
+        for (String chord : chords) {
+            String transposed = distinct.get(chord);
+            if (transposed == null) {
+                transposed = transpose(chord, semitones);
+                distinct.put(chord, transposed);
             }
+            result.add(transposed);
         }
-        return note;
-    }
-
-    private static String transposeBass(String chord, int semitones) {
-        int slashIndex = chord.indexOf('/');
-        if (slashIndex == -1) return "";
-
-        String bass = chord.substring(slashIndex + 1);
-        String bassRoot = extractRoot(bass);
-        if (bassRoot.isEmpty()) return "";
-
-        String newBassRoot = transposeNote(bassRoot, semitones);
-        return "/" + newBassRoot + bass.substring(bassRoot.length());
-    }
-
-    private static String removeBass(String chord) {
-        int slashIndex = chord.indexOf('/');
-        return slashIndex == -1 ? chord : chord.substring(0, slashIndex);
-    }
-
-    private static String transposeFirstLetter(String chord, int semitones) {
-        Matcher m = Pattern.compile("^[A-G]").matcher(chord);
-        if (m.find()) {
-            String firstNote = chord.substring(0, 1);
-            String newNote = transposeNote(firstNote, semitones);
-            return newNote + chord.substring(1);
+        HotPathMetrics.stop(HotPathMetrics.Op.CHORD_TRANSPOSE, started);
+        return result;
+    }
+
+    /**
+     * Аккорды песни (SongDto) - символы заменяются на месте. У аккордов из song_chords
+     * есть chordId: транспозиция берётся прямо из строки таблицы словаря, без поиска по символу.
+     */
+    public void transposeChords(List<SongChordDto> chords, int semitones) {
+        if (chords == null || chords.isEmpty() || Math.floorMod(semitones, 12) == 0) return;
+
+        long started = HotPathMetrics.start();
+        Map<String, String> distinct = null;
+        for (SongChordDto ch : chords) {
+            String transposed;
+            if (ch.getChordId() != null) {
+                transposed = dictionary.transpose(ch.getChordId(), semitones);
+            } else {
+                if (distinct == null) distinct = new HashMap<>();
+                transposed = distinct.computeIfAbsent(ch.getChord(), chord -> transpose(chord, semitones));
+            }
+            ch.setChord(transposed);
+            ch.setChordId(null);   // id был у исходного символа
         }
-        return chord;
+        HotPathMetrics.stop(HotPathMetrics.Op.CHORD_TRANSPOSE, started);
     }
 }
 
@@ -0,0 +1,168 @@
+package ru.myguitarlib.utilites;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Тональность песни по её аккордам - считается один раз при сохранении (songs.song_key).
+ *
+ * Звуки каждого аккорда (корень, терция, квинта, септима, бас) складываются в гистограмму
+ * по 12 ступеням, гистограмма сравнивается (корреляция) с профилями Крумхансла-Кесслер
+ * для всех 24 тональностей. Первый и последний аккорд весят больше: песня обычно
+ * начинается и заканчивается на тонике - это и различает параллельные C и Am.
+ */
+public final class KeyDetector {
+
+    // songs.song_key: 0..11 - мажор от C, 12..23 - минор; -1 - посчитано, но не определить
+    public static final int UNKNOWN = -1;
+
+    private static final int MIN_CHORDS = 3;
+
+    private static final double[] MAJOR_PROFILE = {6.35, 2.23, 3.48, 2.33, 4.38, 4.09, 2.52, 5.19, 2.39, 3.66, 2.29, 2.88};
+    private static final double[] MINOR_PROFILE = {6.33, 2.68, 3.52, 5.38, 2.60, 3.53, 2.54, 4.75, 3.98, 2.69, 3.34, 3.17};
+
+    private static final double EDGE_WEIGHT = 2;      // множитель для первого и последнего аккорда
+    private static final double TONIC_BONUS = 0.15;   // к корреляции, если крайний аккорд - тоника лада
+
+    public record Key(int tonic, boolean minor) {
+
+        public int code() {
+            return tonic + (minor ? 12 : 0);
+        }
+
+        // null - не посчитана или не определена
+        public static Key ofCode(Integer code) {
+            if (code == null || code < 0 || code > 23) return null;
+            return new Key(code % 12, code >= 12);
+        }
+
+        // "Am", "F#m", "Bb" - запись как у транспонированных аккордов
+        public String name() {
+            return ChordSymbol.parse(minor ? "Cm" : "C").transpose(tonic);
+        }
+
+        /** "Am", "a#m", "Bb", "Cmaj"; null - не тональность. */
+        public static Key parse(String text) {
+            if (text == null || text.isBlank()) return null;
+            String s = text.strip();
+            s = s.substring(0, 1).toUpperCase(Locale.ROOT) + s.substring(1);
+
+            ChordSymbol symbol = ChordSymbol.parse(s);
+            if (!symbol.isChord() || symbol.getBass() >= 0) return null;
+            return switch (symbol.getQuality()) {
+                case "", "maj" -> new Key(symbol.getRoot(), false);
+                case "m", "min" -> new Key(symbol.getRoot(), true);
+                default -> null;
+            };
+        }
+    }
+
+    private KeyDetector() {}
+
+    /** Тональность по аккордам в порядке следования; null - аккордов слишком мало. */
+    public static Key detect(List<String> chords) {
+        double[] histogram = new double[12];
+        ChordSymbol first = null;
+        ChordSymbol last = null;
+        int count = 0;
+
+        for (int i = 0; i < chords.size(); i++) {
+            ChordSymbol symbol = ChordSymbol.parse(chords.get(i));
+            if (!symbol.isChord()) continue;
+            if (first == null) first = symbol;
+            last = symbol;
+            addTones(histogram, symbol, 1);
+            count++;
+        }
+        if (count < MIN_CHORDS) return null;
+
+        addTones(histogram, first, EDGE_WEIGHT - 1);
+        addTones(histogram, last, EDGE_WEIGHT - 1);
+
+        Key best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int code = 0; code < 24; code++) {
+            Key key = Key.ofCode(code);
+            double score = correlation(histogram, key.minor() ? MINOR_PROFILE : MAJOR_PROFILE, key.tonic())
+                    + tonicBonus(key, first) + tonicBonus(key, last);
+            if (score > bestScore) {
+                bestScore = score;
+                best = key;
+            }
+        }
+        return best;
+    }
+
+    // код для songs.song_key
+    public static int code(List<String> chords) {
+        Key key = detect(chords);
+        return key == null ? UNKNOWN : key.code();
+    }
+
+    private static double tonicBonus(Key key, ChordSymbol chord) {
+        return chord.getRoot() == key.tonic() && chord.isMinor() == key.minor() ? TONIC_BONUS : 0;
+    }
+
+    private static void addTones(double[] histogram, ChordSymbol chord, double weight) {
+        int root = chord.getRoot();
+        String q = chord.getQuality();
+
+        histogram[root] += 2 * weight;
+
+        int third = -1;
+        int fifth = 7;
+        if (q.startsWith("sus2")) {
+            third = 2;
+        } else if (q.startsWith("sus")) {
+            third = 5;
+        } else if (q.startsWith("dim") || q.startsWith("m7b5") || q.startsWith("m7-5")) {
+            third = 3;
+            fifth = 6;
+        } else if (q.startsWith("aug") || q.startsWith("+")) {
+            third = 4;
+            fifth = 8;
+        } else if (chord.isMinor()) {
+            third = 3;
+        } else if (!q.equals("5")) {   // "5" - квинта без терции
+            third = 4;
+        }
+        if (third >= 0) histogram[(root + third) % 12] += weight;
+        histogram[(root + fifth) % 12] += weight;
+
+        if (q.contains("maj7") || q.contains("maj9")) {
+            histogram[(root + 11) % 12] += weight / 2;
+        } else if (q.startsWith("dim7")) {
+            histogram[(root + 9) % 12] += weight / 2;
+        } else if (q.contains("7") || q.contains("9")) {
+            histogram[(root + 10) % 12] += weight / 2;
+        }
+
+        if (chord.getBass() >= 0 && chord.getBass() != root) {
+            histogram[chord.getBass()] += weight;
+        }
+    }
+
+    // корреляция Пирсона гистограммы с профилем, сдвинутым на tonic
+    private static double correlation(double[] histogram, double[] profile, int tonic) {
+        double meanH = 0;
+        double meanP = 0;
+        for (int i = 0; i < 12; i++) {
+            meanH += histogram[i];
+            meanP += profile[i];
+        }
+        meanH /= 12;
+        meanP /= 12;
+
+        double cov = 0;
+        double varH = 0;
+        double varP = 0;
+        for (int i = 0; i < 12; i++) {
+            double h = histogram[(i + tonic) % 12] - meanH;
+            double p = profile[i] - meanP;
+            cov += h * p;
+            varH += h * h;
+            varP += p * p;
+        }
+        return varH == 0 ? 0 : cov / Math.sqrt(varH * varP);
+    }
+}
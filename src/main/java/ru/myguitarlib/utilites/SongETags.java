@@ -0,0 +1,48 @@
+package ru.myguitarlib.utilites;
+
+import ru.myguitarlib.dto.song.LibraryVersion;
+import ru.myguitarlib.dto.song.SongVersion;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Сильные ETag'и по версиям из базы (updatedAt песни, count + max(updatedAt) библиотеки).
+ * Считаются до чтения песни и сборки JSON - на совпавший If-None-Match ответ 304 почти даром.
+ */
+public final class SongETags {
+
+    private SongETags() {
+    }
+
+    // одна версия в разных тональностях - разные тела ответа
+    public static String song(SongVersion version, int semitones) {
+        return song(version, semitones, false, null);
+    }
+
+    // binary - ответ в SongWireCodec, а не JSON; contentEncoding - gzip/deflate или null.
+    // Другое представление - другой ETag
+    public static String song(SongVersion version, int semitones, boolean binary, String contentEncoding) {
+        return "\"s" + version.id() + "-" + stamp(version.updatedAt()) + "-t" + Math.floorMod(semitones, 12)
+                + (binary ? "-b" : "") + (contentEncoding != null ? "-" + contentEncoding : "") + "\"";
+    }
+
+    // раскладка "аккорды над текстом": lines - JSON построчно, иначе текст
+    public static String sheet(SongVersion version, int semitones, boolean lines) {
+        return "\"h" + version.id() + "-" + stamp(version.updatedAt()) + "-t" + Math.floorMod(semitones, 12)
+                + (lines ? "-l" : "") + "\"";
+    }
+
+    // variant - чем собран ответ при той же версии (например, поиск по индексу или по базе);
+    // userId - чтобы после входа под другим пользователем в том же браузере не совпал чужой ETag
+    public static String library(Long userId, LibraryVersion version, String variant) {
+        return "\"l" + userId + "-" + version.songs() + "-" + stamp(version.lastUpdated()) + "-" + variant + "\"";
+    }
+
+    // до наносекунд: две правки подряд в одну миллисекунду тоже различаются
+    private static String stamp(LocalDateTime time) {
+        if (time == null) return "0";
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        return Long.toString(seconds, 36) + "." + Integer.toString(time.getNano(), 36);
+    }
+}
@@ -0,0 +1,113 @@
+package ru.myguitarlib.utilites;
+
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.dto.song.SongDto;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SongDto в компактном двоичном виде - для ответа GET /song/{id} с
+ * Accept: application/vnd.myguitarlib.song+binary (см. SongBinaryMessageConverter).
+ *
+ * Формат v1:
+ *   версия (1 байт)
+ *   маска заполненных полей (1 байт): id, scrollSpeed, fontSize, artist, title, comment, lyrics, chords
+ *   varint id, zigzag-varint scrollSpeed и fontSize, строки - varint длина + UTF-8
+ *   аккорды - varint длина + дорожка ChordTrackCodec (словарь символов, позиции разностями)
+ * id строк song_chords не передаются - клиенту они не нужны (в режиме chord-storage=track их и нет).
+ */
+public final class SongWireCodec {
+
+    private static final int VERSION = 1;
+
+    private static final int ID = 1;
+    private static final int SCROLL_SPEED = 1 << 1;
+    private static final int FONT_SIZE = 1 << 2;
+    private static final int ARTIST = 1 << 3;
+    private static final int TITLE = 1 << 4;
+    private static final int COMMENT = 1 << 5;
+    private static final int LYRICS = 1 << 6;
+    private static final int CHORDS = 1 << 7;
+
+    private SongWireCodec() {}
+
+    public static byte[] encode(SongDto song) {
+        int mask = (song.getId() != null ? ID : 0)
+                | (song.getScrollSpeed() != null ? SCROLL_SPEED : 0)
+                | (song.getFontSize() != null ? FONT_SIZE : 0)
+                | (song.getArtist() != null ? ARTIST : 0)
+                | (song.getTitle() != null ? TITLE : 0)
+                | (song.getComment() != null ? COMMENT : 0)
+                | (song.getLyrics() != null ? LYRICS : 0)
+                | (song.getChords() != null ? CHORDS : 0);
+
+        int lyricsLength = song.getLyrics() == null ? 0 : song.getLyrics().length();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + lyricsLength * 2);
+        out.write(VERSION);
+        out.write(mask);
+
+        if (song.getId() != null) ChordTrackCodec.writeVarlong(out, song.getId());
+        if (song.getScrollSpeed() != null) ChordTrackCodec.writeVarint(out, ChordTrackCodec.zigzag(song.getScrollSpeed()));
+        if (song.getFontSize() != null) ChordTrackCodec.writeVarint(out, ChordTrackCodec.zigzag(song.getFontSize()));
+        writeString(out, song.getArtist());
+        writeString(out, song.getTitle());
+        writeString(out, song.getComment());
+        writeString(out, song.getLyrics());
+
+        if (song.getChords() != null) {
+            List<ChordTrackCodec.Entry> entries = new ArrayList<>(song.getChords().size());
+            for (SongChordDto ch : song.getChords()) {
+                entries.add(new ChordTrackCodec.Entry(ch.getLineIndex(), ch.getCharIndex(), ch.getChord()));
+            }
+            writeBytes(out, ChordTrackCodec.encode(entries));
+        }
+        return out.toByteArray();
+    }
+
+    public static SongDto decode(byte[] data) {
+        ChordTrackCodec.Reader in = new ChordTrackCodec.Reader(data);
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Неизвестная версия формата песни: " + version);
+        }
+        int mask = in.readByte();
+
+        SongDto song = new SongDto();
+        if ((mask & ID) != 0) song.setId(in.readVarlong());
+        if ((mask & SCROLL_SPEED) != 0) song.setScrollSpeed(ChordTrackCodec.unzigzag(in.readVarint()));
+        if ((mask & FONT_SIZE) != 0) song.setFontSize(ChordTrackCodec.unzigzag(in.readVarint()));
+        if ((mask & ARTIST) != 0) song.setArtist(in.readString());
+        if ((mask & TITLE) != 0) song.setTitle(in.readString());
+        if ((mask & COMMENT) != 0) song.setComment(in.readString());
+        if ((mask & LYRICS) != 0) song.setLyrics(in.readString());
+
+        if ((mask & CHORDS) != 0) {
+            List<ChordTrackCodec.Entry> entries = ChordTrackCodec.decode(in.readBytes());
+            List<SongChordDto> chords = new ArrayList<>(entries.size());
+            for (ChordTrackCodec.Entry e : entries) {
+                SongChordDto ch = new SongChordDto();
+                ch.setLineIndex(e.lineIndex());
+                ch.setCharIndex(e.charIndex());
+                ch.setChord(e.chord());
+                chords.add(ch);
+            }
+            song.setChords(chords);
+        }
+        if (!in.atEnd()) {
+            throw new IllegalArgumentException("Лишние данные после песни");
+        }
+        return song;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value != null) writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+        ChordTrackCodec.writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.myguitarlib.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.net.ConnectException;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    // пул Hikari исчерпан - перегрузка, клиент повторит
+    @Test
+    void poolTimeoutIsServiceBusy() {
+        var ex = new CannotCreateTransactionException("Could not open JPA EntityManager",
+                new SQLTransientConnectionException("HikariPool-1 - Connection is not available, request timed out after 3000ms."));
+
+        var response = handler.handleNoConnection(ex);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    // база недоступна или неверный пароль - не перегрузка, обычный 500
+    @Test
+    void databaseDownIsNotServiceBusy() {
+        var down = new CannotCreateTransactionException("Could not open JPA EntityManager",
+                new SQLException("Connection refused", "08001", new ConnectException("Connection refused")));
+        var badPassword = new DataAccessResourceFailureException("Unable to acquire JDBC Connection",
+                new SQLException("password authentication failed for user \"guitar\"", "28P01"));
+
+        assertSame(down, assertThrows(CannotCreateTransactionException.class, () -> handler.handleNoConnection(down)));
+        assertSame(badPassword, assertThrows(DataAccessResourceFailureException.class, () -> handler.handleNoConnection(badPassword)));
+    }
+}
@@ -0,0 +1,187 @@
+package ru.myguitarlib.mapper;
+
+import org.junit.jupiter.api.Test;
+import org.openapitools.jackson.nullable.JsonNullable;
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.dto.song.SongPatchDto;
+import ru.myguitarlib.dto.song.SongUpsertDto;
+import ru.myguitarlib.dto.song.SongViewRow;
+import ru.myguitarlib.exception.ApiException;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.model.song.SongChord;
+import ru.myguitarlib.utilites.ChordTrackCodec;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SongMapperTest {
+
+    @Test
+    void upsertKeepsUnchangedChordRows() {
+        Song song = song("a\nb\nc", chord(0, 0, "Am"), chord(1, 2, "F"), chord(2, 0, "E"));
+        List<SongChord> before = new ArrayList<>(song.getChords());
+
+        SongMapper.applyUpsert(song, upsert("a\nb\nc", dto(0, 0, "Am"), dto(1, 2, "F"), dto(2, 0, "E")));
+
+        assertEquals(3, song.getChords().size());
+        for (int i = 0; i < 3; i++) {
+            assertSame(before.get(i), song.getChords().get(i));
+        }
+        assertEquals(List.of("0:0:Am", "1:2:F", "2:0:E"), describe(song));
+    }
+
+    @Test
+    void upsertChangesSymbolsInPlaceAndReusesRemovedRows() {
+        SongChord am = chord(0, 0, "Am");
+        SongChord f = chord(1, 2, "F");
+        SongChord e = chord(2, 0, "E");
+        Song song = song("a\nb\nc", am, f, e);
+
+        // Am -> A7 на месте, F уехал на другую позицию, E удалён
+        SongMapper.applyUpsert(song, upsert("a\nb\nc", dto(0, 0, "A7"), dto(1, 4, "F")));
+
+        assertEquals(List.of("0:0:A7", "1:4:F"), describe(song));
+        assertEquals(2, song.getChords().size());
+        assertSame(am, song.getChords().get(0));
+        assertSame(f, song.getChords().get(1));   // строка переиспользована, а не удалена и вставлена
+    }
+
+    @Test
+    void upsertAddsNewRowsWhenNothingToReuse() {
+        Song song = song("a", chord(0, 0, "Am"));
+        SongMapper.applyUpsert(song, upsert("a", dto(0, 0, "Am"), dto(0, 3, "C"), dto(0, 6, "G")));
+
+        assertEquals(List.of("0:0:Am", "0:3:C", "0:6:G"), describe(song));
+        assertSame(song, song.getChords().get(2).getSong());
+    }
+
+    @Test
+    void patchChangesOnlyPresentFields() {
+        Song song = song("a", chord(0, 0, "Am"));
+        song.setArtist("Кино");
+        song.setTitle("Звезда");
+        song.setComment("старый");
+
+        SongPatchDto patch = new SongPatchDto();
+        patch.setComment(JsonNullable.of("новый"));
+        patch.setTitle(JsonNullable.of(null));
+        SongMapper.applyPatch(song, patch);
+
+        assertEquals("Кино", song.getArtist());
+        assertEquals(null, song.getTitle());
+        assertEquals("новый", song.getComment());
+        assertEquals("a", song.getLyrics());
+        assertEquals(List.of("0:0:Am"), describe(song));
+    }
+
+    @Test
+    void patchReplacesLyricsLinesAndShiftsChords() {
+        Song song = song("one\ntwo\nthree\nfour",
+                chord(0, 0, "Am"), chord(1, 0, "F"), chord(2, 0, "C"), chord(3, 1, "G"));
+
+        // строки 1..2 ("two", "three") -> одна строка
+        SongPatchDto.LyricsEdit edit = new SongPatchDto.LyricsEdit();
+        edit.setFromLine(1);
+        edit.setToLine(3);
+        edit.setText("two and three");
+        SongPatchDto patch = new SongPatchDto();
+        patch.setLyrics(edit);
+        SongMapper.applyPatch(song, patch);
+
+        assertEquals("one\ntwo and three\nfour", song.getLyrics());
+        assertEquals(List.of("0:0:Am", "1:0:F", "2:1:G"), describe(song));
+    }
+
+    @Test
+    void patchAddsAndRemovesChords() {
+        Song song = song("a\nb", chord(0, 0, "Am"), chord(1, 0, "F"));
+
+        SongPatchDto.ChordPosition gone = new SongPatchDto.ChordPosition();
+        gone.setLineIndex(1);
+        gone.setCharIndex(0);
+        SongPatchDto patch = new SongPatchDto();
+        patch.setRemoveChords(List.of(gone));
+        patch.setAddChords(List.of(dto(0, 0, "A7"), dto(1, 2, "Dm")));
+        SongMapper.applyPatch(song, patch);
+
+        assertEquals(List.of("0:0:A7", "1:2:Dm"), describe(song));
+    }
+
+    @Test
+    void patchRejectsLyricsRangeOutsideText() {
+        Song song = song("a\nb");
+        SongPatchDto.LyricsEdit edit = new SongPatchDto.LyricsEdit();
+        edit.setFromLine(1);
+        edit.setToLine(5);
+        SongPatchDto patch = new SongPatchDto();
+        patch.setLyrics(edit);
+
+        assertThrows(ApiException.class, () -> SongMapper.applyPatch(song, patch));
+    }
+
+    @Test
+    void viewRowTakesChordsFromTrackOrFromQuery() {
+        byte[] track = ChordTrackCodec.encode(List.of(
+                new ChordTrackCodec.Entry(0, 0, "Am"), new ChordTrackCodec.Entry(1, 4, "E7")));
+        SongDto fromTrack = SongMapper.toDto(new SongViewRow(7L, "a", "t", "c", "l", 1, 2, track), null);
+        assertEquals(List.of("0:0:Am", "1:4:E7"), describe(fromTrack.getChords()));
+        assertEquals("a", fromTrack.getArtist());
+        assertEquals(2, fromTrack.getFontSize());
+
+        List<SongChordDto> rows = List.of(new SongChordDto(5L, 0, 2, "C"));
+        SongDto fromRows = SongMapper.toDto(new SongViewRow(7L, "a", "t", "c", "l", 1, 2, null), rows);
+        assertSame(rows, fromRows.getChords());
+    }
+
+    private static Song song(String lyrics, SongChord... chords) {
+        Song song = new Song();
+        song.setLyrics(lyrics);
+        for (SongChord ch : chords) {
+            ch.setSong(song);
+            song.getChords().add(ch);
+        }
+        return song;
+    }
+
+    private static SongChord chord(int line, int ch, String symbol) {
+        SongChord chord = new SongChord();
+        chord.setLineIndex(line);
+        chord.setCharIndex(ch);
+        chord.setChord(symbol);
+        return chord;
+    }
+
+    private static SongChordDto dto(int line, int ch, String symbol) {
+        SongChordDto dto = new SongChordDto();
+        dto.setLineIndex(line);
+        dto.setCharIndex(ch);
+        dto.setChord(symbol);
+        return dto;
+    }
+
+    private static SongUpsertDto upsert(String lyrics, SongChordDto... chords) {
+        SongUpsertDto dto = new SongUpsertDto();
+        dto.setLyrics(lyrics);
+        dto.setChords(List.of(chords));
+        return dto;
+    }
+
+    private static List<String> describe(List<SongChordDto> chords) {
+        return chords.stream()
+                .map(c -> c.getLineIndex() + ":" + c.getCharIndex() + ":" + c.getChord())
+                .toList();
+    }
+
+    private static List<String> describe(Song song) {
+        return song.getChords().stream()
+                .sorted(Comparator.comparingInt(SongChord::getLineIndex).thenComparingInt(SongChord::getCharIndex))
+                .map(c -> c.getLineIndex() + ":" + c.getCharIndex() + ":" + c.getChord())
+                .toList();
+    }
+}
@@ -0,0 +1,86 @@
+package ru.myguitarlib.metrics;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EndpointTagFilterTest {
+
+    @RestController
+    @RequestMapping("/api/v1/song")
+    static class Songs {
+        @GetMapping("/{id}")
+        public String get(@PathVariable Long id) {
+            return "";
+        }
+    }
+
+    private EndpointTagFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        StaticWebApplicationContext context = new StaticWebApplicationContext();
+        context.registerSingleton("songs", Songs.class);
+        context.refresh();
+        RequestMappingHandlerMapping mapping = new RequestMappingHandlerMapping();
+        mapping.setApplicationContext(context);
+        mapping.afterPropertiesSet();
+        filter = new EndpointTagFilter(() -> mapping);
+    }
+
+    @AfterEach
+    void unbind() {
+        HotPathMetrics.exit();
+    }
+
+    // то, что внутри цепочки (фильтры Spring Security с разбором JWT), уже знает endpoint
+    @Test
+    void tagsSecurityFiltersWithEndpoint() throws Exception {
+        String[] seen = new String[1];
+        FilterChain chain = (request, response) -> seen[0] = HotPathMetrics.endpoint();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/song/42"), new MockHttpServletResponse(), chain);
+
+        assertEquals("GET /api/v1/song/{id}", seen[0]);
+        assertEquals(HotPathMetrics.NO_ENDPOINT, HotPathMetrics.endpoint());
+    }
+
+    @Test
+    void unknownPathStaysUntagged() throws Exception {
+        String[] seen = new String[1];
+        FilterChain chain = (request, response) -> seen[0] = HotPathMetrics.endpoint();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/favicon.ico"), new MockHttpServletResponse(), chain);
+        assertEquals(HotPathMetrics.NO_ENDPOINT, seen[0]);
+
+        filter.doFilter(new MockHttpServletRequest("DELETE", "/api/v1/song/42"), new MockHttpServletResponse(), chain);
+        assertEquals(HotPathMetrics.NO_ENDPOINT, seen[0]);
+    }
+
+    // StreamingResponseBody: afterCompletion в потоке запроса не вызывается, тег снимается раньше
+    @Test
+    void asyncStartReleasesWorkerThread() {
+        var interceptor = new EndpointTagInterceptor();
+        var request = new MockHttpServletRequest("GET", "/api/v1/song/export");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/song/export");
+        var response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, new Object());
+        assertEquals("GET /api/v1/song/export", HotPathMetrics.endpoint());
+
+        interceptor.afterConcurrentHandlingStarted(request, response, new Object());
+        assertEquals(HotPathMetrics.NO_ENDPOINT, HotPathMetrics.endpoint());
+    }
+}
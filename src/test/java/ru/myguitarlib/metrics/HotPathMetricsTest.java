@@ -0,0 +1,53 @@
+package ru.myguitarlib.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class HotPathMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void unbind() {
+        HotPathMetrics.exit();
+        HotPathMetrics.bind(null);
+    }
+
+    @Test
+    void recordsNothingUntilBound() {
+        long started = HotPathMetrics.start();
+        HotPathMetrics.stop(HotPathMetrics.Op.CHORD_PARSE, started);
+
+        assertEquals(0, started);
+        assertNull(registry.find("myguitarlib.chords.parse").timer());
+    }
+
+    @Test
+    void tagsByCurrentEndpoint() {
+        HotPathMetrics.bind(registry);
+
+        HotPathMetrics.enter("GET /api/v1/song/{id}");
+        HotPathMetrics.stop(HotPathMetrics.Op.SONG_TO_DTO, HotPathMetrics.start());
+        HotPathMetrics.stop(HotPathMetrics.Op.SONG_TO_DTO, HotPathMetrics.start());
+        HotPathMetrics.count(HotPathMetrics.Count.CHORDS_PARSED, 12);
+        HotPathMetrics.exit();
+        HotPathMetrics.stop(HotPathMetrics.Op.SONG_TO_DTO, HotPathMetrics.start());
+
+        assertEquals(2, registry.get("myguitarlib.song.to.dto").tag("endpoint", "GET /api/v1/song/{id}").timer().count());
+        assertEquals(1, registry.get("myguitarlib.song.to.dto").tag("endpoint", HotPathMetrics.NO_ENDPOINT).timer().count());
+        assertEquals(12.0, registry.get("myguitarlib.chords.parsed").counter().count());
+    }
+
+    @Test
+    void recordsForEndpointCapturedInAnotherThread() {
+        HotPathMetrics.bind(registry);
+
+        HotPathMetrics.record(HotPathMetrics.Op.PASSWORD_HASH, "POST /api/v1/auth/login", 50_000_000);
+
+        assertEquals(1, registry.get("myguitarlib.password.hash").tag("endpoint", "POST /api/v1/auth/login").timer().count());
+    }
+}
@@ -0,0 +1,84 @@
+package ru.myguitarlib.search;
+
+import org.junit.jupiter.api.Test;
+import ru.myguitarlib.dto.song.ArtistTitleDto;
+import ru.myguitarlib.model.song.Song;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SongSearchIndexTest {
+
+    private static final Comparator<ArtistTitleDto> BY_TITLE = Comparator.comparing(ArtistTitleDto::getTitle);
+
+    private final SongSearchIndex index = new SongSearchIndex();
+
+    SongSearchIndexTest() {
+        index.load(new SongText(1L, 10L, "Кино", "Группа крови", "Тёплое место, но улицы ждут\nотпечатков наших ног", null));
+        index.load(new SongText(2L, 10L, "Сплин", "Орбит без сахара", "Ёлка в огнях\nи ты где-то рядом", 21));
+        index.load(new SongText(3L, 10L, "Ёлка", "Прованс", "Самолёт уже взлетел", 0));
+        index.load(new SongText(4L, 20L, "Кино", "Звезда по имени Солнце", "Белый снег, серый лёд", null));
+        index.markReady();
+    }
+
+    @Test
+    void foldsCaseAndYo() {
+        assertEquals(List.of(3L, 2L), ids(index.search(10L, "ЕЛКА", BY_TITLE)));
+        assertEquals(List.of(1L), ids(index.search(10L, "теплое", BY_TITLE)));
+        assertEquals(List.of(4L), ids(index.search(20L, "лед", BY_TITLE)));
+    }
+
+    @Test
+    void searchesInsideWordsAndByWordStart() {
+        assertEquals(List.of(1L), ids(index.search(10L, "чатк", BY_TITLE)));
+        assertEquals(List.of(2L), ids(index.search(10L, "ря", BY_TITLE)));
+        assertEquals(List.of(), ids(index.search(10L, "несуществующее", BY_TITLE)));
+    }
+
+    @Test
+    void requiresAllWordsAndRanksFieldsAndSnippets() {
+        List<ArtistTitleDto> found = index.search(10L, "кино крови", BY_TITLE);
+        assertEquals(List.of(1L), ids(found));
+
+        // исполнитель важнее текста
+        List<ArtistTitleDto> elka = index.search(10L, "елка", BY_TITLE);
+        assertEquals(3L, elka.get(0).getId());
+        assertEquals(null, elka.get(0).getSnippet());
+        assertEquals("Ёлка в огнях", elka.get(1).getSnippet());
+    }
+
+    @Test
+    void filtersByKey() {
+        List<ArtistTitleDto> minor = index.search(10L, "елка", 21, BY_TITLE);
+        assertEquals(List.of(2L), ids(minor));
+        assertEquals("Am", minor.get(0).getKey());
+
+        assertEquals(List.of(3L), ids(index.search(10L, "елка", 0, BY_TITLE)));
+        assertEquals(List.of(), ids(index.search(10L, "елка", 5, BY_TITLE)));
+        assertEquals(null, index.search(10L, "крови", BY_TITLE).get(0).getKey());
+    }
+
+    @Test
+    void updatesAndRemovesSongs() {
+        Song song = new Song();
+        song.setId(2L);
+        song.setArtist("Сплин");
+        song.setTitle("Выхода нет");
+        song.setLyrics("Сколько лет прошло");
+        index.put(10L, song);
+
+        assertEquals(List.of(3L), ids(index.search(10L, "елка", BY_TITLE)));
+        assertEquals(List.of(2L), ids(index.search(10L, "выход", BY_TITLE)));
+
+        index.remove(10L, 2L);
+        assertEquals(List.of(), ids(index.search(10L, "сплин", BY_TITLE)));
+        // чужие песни не видны
+        assertEquals(List.of(), ids(index.search(20L, "сплин", BY_TITLE)));
+    }
+
+    private static List<Long> ids(List<ArtistTitleDto> found) {
+        return found.stream().map(ArtistTitleDto::getId).toList();
+    }
+}
@@ -0,0 +1,101 @@
+package ru.myguitarlib.service;
+
+import org.junit.jupiter.api.Test;
+import ru.myguitarlib.config.CacheProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedSongCacheTest {
+
+    private static final byte[] BODY = "{\"lyrics\":\"Мы все живём с закрытыми глазами\"}".repeat(50)
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void negotiatesGzipAndOptionalDeflate() {
+        CompressedSongCache cache = cache(false);
+        assertEquals(CompressedSongCache.Encoding.GZIP, cache.negotiate("gzip, deflate, br"));
+        assertEquals(CompressedSongCache.Encoding.GZIP, cache.negotiate("*"));
+        assertEquals(CompressedSongCache.Encoding.GZIP, cache.negotiate("deflate;q=1, gzip;q=0.5"));
+        assertNull(cache.negotiate("deflate"));
+        assertNull(cache.negotiate("gzip;q=0, identity"));
+        assertNull(cache.negotiate(null));
+        // явный отказ важнее "*", в любом порядке
+        assertNull(cache.negotiate("gzip;q=0, *"));
+        assertNull(cache.negotiate("*, gzip;q=0"));
+        assertEquals(CompressedSongCache.Encoding.GZIP, cache.negotiate("*;q=0, gzip"));
+        assertEquals(CompressedSongCache.Encoding.GZIP, cache.negotiate("deflate;q=0, *"));
+
+        CompressedSongCache withDeflate = cache(true);
+        assertEquals(CompressedSongCache.Encoding.DEFLATE, withDeflate.negotiate("deflate"));
+        assertEquals(CompressedSongCache.Encoding.DEFLATE, withDeflate.negotiate("deflate;q=1, gzip;q=0.5"));
+        assertEquals(CompressedSongCache.Encoding.GZIP, withDeflate.negotiate("gzip, deflate"));
+        assertEquals(CompressedSongCache.Encoding.DEFLATE, withDeflate.negotiate("gzip;q=0, *"));
+        assertEquals(CompressedSongCache.Encoding.GZIP, withDeflate.negotiate("deflate;q=0, *"));
+    }
+
+    @Test
+    void compressedBodiesInflateBack() throws IOException {
+        byte[] gzip = CompressedSongCache.compress(BODY, CompressedSongCache.Encoding.GZIP, 9);
+        byte[] deflate = CompressedSongCache.compress(BODY, CompressedSongCache.Encoding.DEFLATE, 9);
+
+        assertArrayEquals(BODY, readAll(new GZIPInputStream(new ByteArrayInputStream(gzip))));
+        assertArrayEquals(BODY, readAll(new InflaterInputStream(new ByteArrayInputStream(deflate))));
+        assertTrue(gzip.length < BODY.length / 5, "gzip " + gzip.length + " из " + BODY.length);
+    }
+
+    @Test
+    void serializesOnlyOnMiss() {
+        CompressedSongCache cache = cache(false);
+        var key = new CompressedSongCache.Key(1L, LocalDateTime.of(2025, 1, 1, 0, 0), 2, false,
+                CompressedSongCache.Encoding.GZIP);
+        AtomicInteger serialized = new AtomicInteger();
+
+        byte[] first = cache.get(key, () -> {
+            serialized.incrementAndGet();
+            return BODY;
+        });
+        byte[] second = cache.get(key, () -> {
+            serialized.incrementAndGet();
+            return BODY;
+        });
+
+        assertSame(first, second);
+        assertEquals(1, serialized.get());
+        var stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertTrue(stats.compressionRatio() > 5, "ratio " + stats.compressionRatio());
+
+        cache.evictSong(1L);
+        cache.get(key, () -> {
+            serialized.incrementAndGet();
+            return BODY;
+        });
+        assertEquals(2, serialized.get());
+    }
+
+    private static CompressedSongCache cache(boolean deflate) {
+        CacheProperties properties = new CacheProperties();
+        properties.getCompressed().setDeflate(deflate);
+        return new CompressedSongCache(properties);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+}
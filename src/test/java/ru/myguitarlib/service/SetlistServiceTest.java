@@ -0,0 +1,220 @@
+package ru.myguitarlib.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import ru.myguitarlib.config.CacheProperties;
+import ru.myguitarlib.dto.setlist.SetlistDto;
+import ru.myguitarlib.dto.setlist.SetlistEntryDto;
+import ru.myguitarlib.dto.setlist.SetlistEntryRow;
+import ru.myguitarlib.dto.setlist.SetlistUpsertDto;
+import ru.myguitarlib.dto.song.SongChordRow;
+import ru.myguitarlib.dto.song.SongViewRow;
+import ru.myguitarlib.exception.ApiException;
+import ru.myguitarlib.model.setlist.Setlist;
+import ru.myguitarlib.model.setlist.SetlistEntry;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.repository.SetlistRepository;
+import ru.myguitarlib.repository.SongRepository;
+import ru.myguitarlib.repository.UserRepository;
+import ru.myguitarlib.utilites.ChordDictionary;
+import ru.myguitarlib.utilites.ChordTransposer;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SetlistServiceTest {
+
+    private static final long OWNER = 7L;
+    private static final long SETLIST = 1L;
+    private static final LocalDateTime VERSION = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    // песни пользователя: 3 удалена после того, как программа прочитана
+    private final Map<Long, SongViewRow> songs = new HashMap<>(Map.of(
+            10L, view(10L, "Группа крови"),
+            20L, view(20L, "Звезда"),
+            30L, view(30L, "Кукушка")));
+    private final List<SetlistEntryRow> entries = new ArrayList<>();
+    private final Setlist stored = new Setlist();
+    private final Map<String, Integer> calls = new HashMap<>();
+    private List<?> lastViewIds;
+
+    private final SetlistService service = new SetlistService(
+            setlistRepository(), songRepository(), stub(UserRepository.class, Map.of()),
+            new ChordTransposer(new ChordDictionary()), new RenderedSongCache(new CacheProperties()),
+            stub(PlatformTransactionManager.class, Map.of(
+                    "getTransaction", args -> new SimpleTransactionStatus(),
+                    "commit", args -> null,
+                    "rollback", args -> null)));
+
+    @Test
+    void loadsWholeSetlistWithConstantQueries() {
+        entry(10L, 0);
+        entry(20L, 2);
+        entry(10L, 0);     // та же песня в той же тональности
+        entry(10L, 5);     // и в другой
+        entry(30L, 0);
+        songs.remove(30L); // удалена между findEntryRows и findViews
+
+        SetlistDto setlist = service.load(SETLIST, OWNER, 0, SetlistService.MAX_ENTRIES);
+        List<SetlistEntryDto> loaded = setlist.getEntries();
+
+        assertEquals(1, calls.get("findViews"));
+        assertEquals(1, calls.get("findChordRows"));
+        assertEquals(List.of(0, 1, 2, 3, 4), loaded.stream().map(SetlistEntryDto::getPosition).toList());
+        assertEquals("Am", loaded.get(0).getSong().getChords().get(0).getChord());
+        assertEquals("Bm", loaded.get(1).getSong().getChords().get(0).getChord());
+        assertSame(loaded.get(0).getSong(), loaded.get(2).getSong());
+        assertNotSame(loaded.get(0).getSong().getChords().get(0), loaded.get(3).getSong().getChords().get(0));
+        assertEquals("Dm", loaded.get(3).getSong().getChords().get(0).getChord());
+        assertNull(loaded.get(4).getSong());
+        assertEquals("Кукушка", loaded.get(4).getTitle());
+
+        // второй раз - из RenderedSongCache; в базу снова только за удалённой песней
+        service.load(SETLIST, OWNER, 0, SetlistService.MAX_ENTRIES);
+        assertEquals(2, calls.get("findViews"));
+        assertEquals(List.of(30L), lastViewIds);
+    }
+
+    @Test
+    void loadsOnlyPrefetchWindow() {
+        for (long id : List.of(10L, 20L, 30L, 10L)) entry(id, 0);
+
+        List<SetlistEntryDto> loaded = service.load(SETLIST, OWNER, 1, SetlistService.windowEnd(1, 1)).getEntries();
+
+        assertEquals(4, loaded.size());
+        assertNull(loaded.get(0).getSong());
+        assertEquals("Звезда", loaded.get(1).getSong().getTitle());
+        assertEquals("Кукушка", loaded.get(2).getSong().getTitle());
+        assertNull(loaded.get(3).getSong());
+        assertEquals("Группа крови", loaded.get(3).getTitle());
+    }
+
+    @Test
+    void windowEndValidatesAndClamps() {
+        assertEquals(SetlistService.MAX_ENTRIES, SetlistService.windowEnd(0, null));
+        assertEquals(3, SetlistService.windowEnd(3, 0));
+        assertEquals(6, SetlistService.windowEnd(3, 2));
+        assertEquals(SetlistService.MAX_ENTRIES, SetlistService.windowEnd(Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+        assertEquals("BAD_PREFETCH", assertThrows(ApiException.class, () -> SetlistService.windowEnd(-1, null)).getCode());
+        assertEquals("BAD_PREFETCH", assertThrows(ApiException.class, () -> SetlistService.windowEnd(0, -1)).getCode());
+    }
+
+    @Test
+    void updateReusesEntriesInOrder() {
+        service.update(SETLIST, OWNER, upsert("Концерт", 10L, 0, 20L, 3, 30L, 0));
+        List<SetlistEntry> before = List.copyOf(stored.getEntries());
+
+        service.update(SETLIST, OWNER, upsert(" Бис ", 30L, -1, 10L, 14));
+
+        assertEquals("Бис", stored.getName());
+        assertEquals(2, stored.getEntries().size());
+        assertSame(before.get(0), stored.getEntries().get(0));
+        assertSame(before.get(1), stored.getEntries().get(1));
+        assertEquals(List.of(30L, 10L), stored.getEntries().stream().map(e -> e.getSong().getId()).toList());
+        assertEquals(List.of(0, 1), stored.getEntries().stream().map(SetlistEntry::getPosition).toList());
+        assertEquals(List.of(11, 2), stored.getEntries().stream().map(SetlistEntry::getSemitones).toList());
+    }
+
+    @Test
+    void updateRejectsBadInput() {
+        assertEquals("BAD_SETLIST", code(upsert(" ", 10L, 0)));
+        assertEquals("SONG_NOT_FOUND", code(upsert("Чужая песня", 10L, 0, 99L, 0)));
+
+        SetlistUpsertDto noSong = upsert("Без песни", 10L, 0);
+        noSong.getEntries().get(0).setSongId(null);
+        assertEquals("BAD_SETLIST", code(noSong));
+
+        Object[] tooMany = new Object[(SetlistService.MAX_ENTRIES + 1) * 2];
+        for (int i = 0; i < tooMany.length; i += 2) {
+            tooMany[i] = 10L;
+            tooMany[i + 1] = 0;
+        }
+        assertEquals("BAD_SETLIST", code(upsert("Длинная", tooMany)));
+        assertEquals(0, stored.getEntries().size());
+    }
+
+    private String code(SetlistUpsertDto dto) {
+        return assertThrows(ApiException.class, () -> service.update(SETLIST, OWNER, dto)).getCode();
+    }
+
+    private SetlistRepository setlistRepository() {
+        return stub(SetlistRepository.class, Map.of(
+                "findName", args -> Optional.of("Концерт"),
+                "findEntryRows", args -> List.copyOf(entries),
+                "findByIdAndOwnerId", args -> Optional.of(stored),
+                "save", args -> args[0]));
+    }
+
+    private SongRepository songRepository() {
+        return stub(SongRepository.class, Map.of(
+                "findViews", args -> {
+                    calls.merge("findViews", 1, Integer::sum);
+                    lastViewIds = List.copyOf((Collection<?>) args[0]);
+                    return ((Collection<?>) args[0]).stream().map(songs::get).filter(v -> v != null).toList();
+                },
+                "findChordRows", args -> {
+                    calls.merge("findChordRows", 1, Integer::sum);
+                    return ((Collection<?>) args[0]).stream()
+                            .map(id -> new SongChordRow((Long) id, (Long) id * 10, 0, 0, "Am", null))
+                            .toList();
+                },
+                "findOwnedIds", args -> ((Collection<?>) args[0]).stream().filter(songs::containsKey).toList(),
+                "getReferenceById", args -> {
+                    Song song = new Song();
+                    song.setId((Long) args[0]);
+                    return song;
+                }));
+    }
+
+    private void entry(long songId, int semitones) {
+        SongViewRow song = songs.get(songId);
+        entries.add(new SetlistEntryRow(songId, semitones, "Кино", song.title(), VERSION));
+    }
+
+    private static SongViewRow view(Long id, String title) {
+        return new SongViewRow(id, "Кино", title, "", "текст", 0, 0, null);
+    }
+
+    private static SetlistUpsertDto upsert(String name, Object... songAndShift) {
+        SetlistUpsertDto dto = new SetlistUpsertDto();
+        dto.setName(name);
+        dto.setEntries(new ArrayList<>());
+        for (int i = 0; i < songAndShift.length; i += 2) {
+            SetlistUpsertDto.Entry entry = new SetlistUpsertDto.Entry();
+            entry.setSongId((Long) songAndShift[i]);
+            entry.setSemitones((Integer) songAndShift[i + 1]);
+            dto.getEntries().add(entry);
+        }
+        return dto;
+    }
+
+    // репозитории без базы: только те методы, которые вызывает сервис
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode" -> { return System.identityHashCode(proxy); }
+                case "equals" -> { return proxy == args[0]; }
+                case "toString" -> { return type.getSimpleName(); }
+                default -> { }
+            }
+            Function<Object[], Object> impl = methods.get(method.getName());
+            if (impl == null) throw new UnsupportedOperationException(method.getName());
+            return impl.apply(args);
+        });
+    }
+}
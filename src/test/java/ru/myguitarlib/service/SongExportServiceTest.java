@@ -0,0 +1,90 @@
+package ru.myguitarlib.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.utilites.ChordParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SongExportServiceTest {
+
+    private final ChordParser parser = new ChordParser();
+
+    @Test
+    void ndjsonIsOneSongPerLine() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (var sink = new SongExportService.NdjsonSink(objectMapper, out)) {
+            sink.write(song(1L, "Кино", "Звезда", "Am\nF", chord(0, 0, "Am")));
+            sink.write(song(2L, "Кино", "Пачка", "C", chord(0, 0, "C")));
+        }
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1, first.get("id").asInt());
+        assertEquals("Am\nF", first.get("lyrics").asText());
+        assertEquals("Am", first.get("chords").get(0).get("chord").asText());
+        assertEquals("Пачка", objectMapper.readTree(lines[1]).get("title").asText());
+    }
+
+    @Test
+    void zipEntriesReadBackByImportParser() throws IOException {
+        SongDto song = song(1L, "Кино", "Группа крови", "Тёплое место\n\nно улицы ждут",
+                chord(0, 0, "Am"), chord(0, 6, "C"), chord(2, 3, "Dm"), chord(2, 4, "G"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (var sink = new SongExportService.ZipSink(out)) {
+            sink.write(song);
+            sink.write(song(2L, "Кино", "Группа крови", ""));
+            sink.write(song(3L, "AC/DC", "T.N.T.", ""));
+        }
+
+        List<String> names = new ArrayList<>();
+        String text = null;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+                String content = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                if (text == null) text = content;
+            }
+        }
+        assertEquals(List.of("Кино - Группа крови.txt", "Кино - Группа крови (2).txt", "AC_DC - T.N.T..txt"), names);
+
+        // соседние аккорды Dm и G не слипаются: G сдвинут на пробел
+        Song parsed = parser.parser("Кино", "Группа крови", text);
+        assertEquals(song.getLyrics(), parsed.getLyrics());
+        assertEquals(List.of("0:0:Am", "0:6:C", "2:3:Dm", "2:6:G"), parsed.getChords().stream()
+                .map(c -> c.getLineIndex() + ":" + c.getCharIndex() + ":" + c.getChord())
+                .toList());
+    }
+
+    private static SongDto song(Long id, String artist, String title, String lyrics, SongChordDto... chords) {
+        SongDto dto = new SongDto();
+        dto.setId(id);
+        dto.setArtist(artist);
+        dto.setTitle(title);
+        dto.setLyrics(lyrics);
+        dto.setChords(List.of(chords));
+        return dto;
+    }
+
+    private static SongChordDto chord(int line, int ch, String symbol) {
+        return new SongChordDto(null, line, ch, symbol);
+    }
+}
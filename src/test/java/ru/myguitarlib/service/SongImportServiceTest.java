@@ -0,0 +1,113 @@
+package ru.myguitarlib.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+import ru.myguitarlib.exception.ApiException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SongImportServiceTest {
+
+    private static final int MB = 1024 * 1024;
+
+    @Test
+    void readsZipEntriesAndPlainFilesInOrder() throws IOException {
+        byte[] zip = zip(
+                entry("Кино - Звезда.txt", "Am\nзвезда".getBytes(StandardCharsets.UTF_8)),
+                entry("__MACOSX/._Кино - Звезда.txt", new byte[10]),
+                entry("cover.jpg", new byte[100]),
+                entry("Кино - Пачка.txt", "C\nпачка".getBytes(StandardCharsets.UTF_8)));
+
+        List<String> names = new ArrayList<>();
+        try (var reader = new SongImportService.ImportReader(
+                List.of(upload("songs.zip", zip), upload("ДДТ - Осень.txt", "Em\nосень".getBytes(StandardCharsets.UTF_8))),
+                10, MB)) {
+            SongImportService.ImportFile file;
+            while ((file = reader.next()) != null) names.add(file.name());
+        }
+        assertEquals(List.of("Кино - Звезда.txt", "Кино - Пачка.txt", "ДДТ - Осень.txt"), names);
+    }
+
+    // 40 записей по 1 МБ нулей сжимаются в килобайты; чтение обрывается на бюджете, а не после распаковки всего
+    @Test
+    void zipBombStopsAtTotalBudget() throws IOException {
+        Entry[] entries = new Entry[40];
+        for (int i = 0; i < entries.length; i++) entries[i] = entry(i + ".txt", new byte[SongImportService.MAX_SONG_BYTES]);
+        byte[] zip = zip(entries);
+
+        List<SongImportService.ImportFile> read = new ArrayList<>();
+        try (var reader = new SongImportService.ImportReader(List.of(upload("bomb.zip", zip)), 5000, 8L * MB)) {
+            ApiException e = assertThrows(ApiException.class, () -> {
+                SongImportService.ImportFile file;
+                while ((file = reader.next()) != null) read.add(file);
+            });
+            assertEquals("IMPORT_TOO_BIG", e.getCode());
+        }
+        assertEquals(8, read.size());
+    }
+
+    @Test
+    void skippedEntriesCountTowardsBudget() throws IOException {
+        byte[] zip = zip(entry("bomb.bin", new byte[20 * MB]), entry("song.txt", "Am".getBytes(StandardCharsets.UTF_8)));
+
+        try (var reader = new SongImportService.ImportReader(List.of(upload("bomb.zip", zip)), 5000, 8L * MB)) {
+            ApiException e = assertThrows(ApiException.class, reader::next);
+            assertEquals("IMPORT_TOO_BIG", e.getCode());
+        }
+    }
+
+    @Test
+    void oversizedEntryAndPlainFileAreRejected() throws IOException {
+        byte[] big = new byte[SongImportService.MAX_SONG_BYTES + 1];
+
+        try (var reader = new SongImportService.ImportReader(List.of(upload("a.zip", zip(entry("big.txt", big)))), 5000, 64L * MB)) {
+            assertEquals("IMPORT_FILE_TOO_BIG", assertThrows(ApiException.class, reader::next).getCode());
+        }
+        try (var reader = new SongImportService.ImportReader(List.of(upload("big.txt", big)), 5000, 64L * MB)) {
+            assertEquals("IMPORT_FILE_TOO_BIG", assertThrows(ApiException.class, reader::next).getCode());
+        }
+    }
+
+    @Test
+    void tooManyFilesAreRejected() throws IOException {
+        List<MultipartFile> uploads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) uploads.add(upload(i + ".txt", "Am".getBytes(StandardCharsets.UTF_8)));
+
+        try (var reader = new SongImportService.ImportReader(uploads, 3, MB)) {
+            for (int i = 0; i < 3; i++) reader.next();
+            assertEquals("IMPORT_TOO_MANY_FILES", assertThrows(ApiException.class, reader::next).getCode());
+        }
+    }
+
+    private record Entry(String name, byte[] content) {}
+
+    private static Entry entry(String name, byte[] content) {
+        return new Entry(name, content);
+    }
+
+    private static byte[] zip(Entry... entries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8)) {
+            for (Entry entry : entries) {
+                zip.putNextEntry(new ZipEntry(entry.name()));
+                zip.write(entry.content());
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static MultipartFile upload(String name, byte[] content) {
+        return new MockMultipartFile("files", name, null, content);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.myguitarlib.service;
+
+import org.junit.jupiter.api.Test;
+import ru.myguitarlib.config.SongProperties;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.model.song.SongChord;
+import ru.myguitarlib.utilites.ChordDictionary;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SongStorageServiceTest {
+
+    private static final List<String> ROOTS = List.of("C", "C#", "Db", "D", "Eb", "E", "F", "F#", "G", "Ab", "A", "Bb", "B");
+
+    private final ChordDictionary dictionary = new ChordDictionary();
+    private final SongStorageService storage = new SongStorageService(new SongProperties(), dictionary);
+
+    @Test
+    void chordsGoToDictionaryAndStayRows() {
+        Song song = song("Am", "F", "C", "G7", "Dm7b5");
+
+        storage.beforeSave(song);
+
+        assertNull(song.getChordTrack());
+        assertEquals(5, song.getChords().size());
+        assertEquals(5, dictionary.stats().size());
+    }
+
+    @Test
+    void chordSpellingIsNormalizedOnSave() {
+        Song song = song("(Am)", "A//C", " G ");
+
+        storage.beforeSave(song);
+
+        assertEquals(List.of("Am", "A/C", "G"), song.getChords().stream().map(SongChord::getChord).toList());
+    }
+
+    // "Good" начинается с ноты, но это не аккорд: песня уходит в дорожку, словарь не растёт
+    @Test
+    void songWithNonChordIsStoredAsTrack() {
+        Song song = song("Am", "Good", "C9999");
+
+        storage.beforeSave(song);
+
+        assertNotNull(song.getChordTrack());
+        assertTrue(song.getChords().isEmpty());
+        assertTrue(dictionary.find("Good") < 0);
+        assertTrue(dictionary.find("C9999") < 0);
+    }
+
+    @Test
+    void songCannotFillSharedDictionary() {
+        String[] chords = new String[SongStorageService.MAX_NEW_CHORDS + 1];
+        for (int i = 0; i < chords.length; i++) {
+            chords[i] = ROOTS.get(i % ROOTS.size()) + List.of("", "m", "7").get(i / ROOTS.size());
+        }
+        Song song = song(chords);
+
+        storage.beforeSave(song);
+
+        assertNotNull(song.getChordTrack());
+        assertEquals(0, dictionary.stats().size());
+    }
+
+    private static Song song(String... chords) {
+        Song song = new Song();
+        for (int i = 0; i < chords.length; i++) {
+            SongChord ch = new SongChord();
+            ch.setSong(song);
+            ch.setLineIndex(i);
+            ch.setCharIndex(0);
+            ch.setChord(chords[i]);
+            song.getChords().add(ch);
+        }
+        return song;
+    }
+}
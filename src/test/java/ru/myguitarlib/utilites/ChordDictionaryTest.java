@@ -0,0 +1,90 @@
+package ru.myguitarlib.utilites;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChordDictionaryTest {
+
+    // chord_symbols в памяти: общая для двух экземпляров приложения
+    private final Map<Integer, String> table = new TreeMap<>();
+
+    @Test
+    void idWrittenByAnotherInstanceIsReloaded() {
+        ChordDictionary first = new ChordDictionary(dataSource());
+        ChordDictionary second = new ChordDictionary(dataSource());
+        assertEquals(0, first.intern("Am"));
+        assertEquals("Am", second.symbol(0));
+
+        // second уже загружен; id 1 появляется в song_chords от first
+        int id = first.intern("Em");
+
+        assertEquals("Em", second.symbol(id));
+        assertEquals("F#m", second.transpose(id, 2));
+    }
+
+    @Test
+    void unknownIdIsAnErrorNotAnIndexOutOfBounds() {
+        ChordDictionary dictionary = new ChordDictionary(dataSource());
+        dictionary.intern("Am");
+
+        assertThrows(IllegalStateException.class, () -> dictionary.symbol(42));
+        assertThrows(IllegalStateException.class, () -> dictionary.transpose(-1, 2));
+        assertThrows(IllegalStateException.class, () -> new ChordDictionary().symbol(0));
+    }
+
+    // JDBC без базы: только select всех символов и insert одного
+    private DataSource dataSource() {
+        return proxy(DataSource.class, (name, args) -> name.equals("getConnection") ? connection() : null);
+    }
+
+    private Connection connection() {
+        return proxy(Connection.class, (name, args) -> name.equals("prepareStatement") ? statement((String) args[0]) : null);
+    }
+
+    private PreparedStatement statement(String sql) {
+        Object[] params = new Object[3];
+        return proxy(PreparedStatement.class, (name, args) -> switch (name) {
+            case "setInt", "setString" -> params[(Integer) args[0]] = args[1];
+            case "executeUpdate" -> {
+                if (table.putIfAbsent((Integer) params[1], (String) params[2]) != null) {
+                    throw new java.sql.SQLException("duplicate id " + params[1]);
+                }
+                yield 1;
+            }
+            case "executeQuery" -> rows(sql.startsWith("select") ? new ArrayList<>(table.entrySet()) : List.of());
+            default -> null;
+        });
+    }
+
+    private ResultSet rows(List<Map.Entry<Integer, String>> rows) {
+        int[] at = {-1};
+        return proxy(ResultSet.class, (name, args) -> switch (name) {
+            case "next" -> ++at[0] < rows.size();
+            case "getInt" -> rows.get(at[0]).getKey();
+            case "getString" -> rows.get(at[0]).getValue();
+            default -> null;
+        });
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method.getName(), args));
+    }
+}
@@ -0,0 +1,126 @@
+package ru.myguitarlib.utilites;
+
+import org.junit.jupiter.api.Test;
+import ru.myguitarlib.model.song.Song;
+import ru.myguitarlib.model.song.SongChord;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Потоковый парсер должен давать то же, что прежний split("\\R")-парсер
+class ChordParserTest {
+
+    private static final List<String> CORPUS = List.of(
+            """
+            Куплет1:
+            Am               F
+            Мы все живём с закрытыми глазами,
+            Dm      E
+            высоко поднятыми в небеса.
+                 F       Dm
+            Придёт ли кто,
+                                E            Am
+            чтобы однажды наши веки распахнуть,
+                F         G Am
+            когда-нибудь?
+
+            ПРИПЕВ:
+                          F
+            Миру нужен герой,
+            """,
+            "Am\nC\nтекст после двух строк аккордов\n",
+            "Am  F\r\nпервая\r\nвторая\r\n\r\nG\r\nтретья",
+            "строка\rещё строка\u2028Em\u2029последняя",
+            "G/B  C#m  Bb  Dmaj7\n\n\n",
+            "\n\nAm\n   пустые строки в начале\n",
+            "",
+            "just some lyrics\nwithout any chords at all\n"
+    );
+
+    private final ChordParser parser = new ChordParser();
+
+    @Test
+    void matchesLegacyParserOnCorpus() {
+        for (String text : CORPUS) {
+            Song expected = legacyParse(text);
+            Song actual = parser.parser("artist", "title", text);
+
+            assertEquals(expected.getLyrics(), actual.getLyrics(), text);
+            assertEquals(describe(expected.getChords()), describe(actual.getChords()), text);
+        }
+    }
+
+    @Test
+    void readsAcrossBufferBoundaries() throws IOException {
+        String text = CORPUS.get(0).repeat(200) + CORPUS.get(2);
+        Song expected = legacyParse(text);
+
+        // Reader, отдающий по 3 символа - строки и \r\n рвутся между чтениями
+        Reader slow = new StringReader(text) {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                return super.read(cbuf, off, Math.min(len, 3));
+            }
+        };
+        Song actual = parser.parser("artist", "title", slow);
+
+        assertEquals(expected.getLyrics(), actual.getLyrics());
+        assertEquals(describe(expected.getChords()), describe(actual.getChords()));
+    }
+
+    private static List<String> describe(List<SongChord> chords) {
+        return chords.stream()
+                .map(c -> c.getLineIndex() + ":" + c.getCharIndex() + ":" + c.getChord())
+                .toList();
+    }
+
+    // прежняя реализация ChordParser.parser (перевод строки - '\n')
+    private static Song legacyParse(String rawText) {
+        Pattern chordPattern = Pattern.compile(
+                "\\b([A-G][#b]?m?(maj)?(?:[67]?|add|sus|dim|aug)?(?:/?[A-G][#b]?)?)\\b",
+                Pattern.CASE_INSENSITIVE);
+
+        Song song = new Song();
+        String[] split = rawText.split("\\R");
+        List<SongChord> chords = new ArrayList<>();
+        StringBuilder lyrics = new StringBuilder();
+        int indexLine = 0;
+        int flagWas = 0;
+
+        for (String line : split) {
+            Matcher matcher = chordPattern.matcher(line);
+            if (matcher.find()) {
+                matcher.reset();
+                while (matcher.find()) {
+                    var newChord = new SongChord();
+                    newChord.setCharIndex(matcher.start());
+                    newChord.setLineIndex(indexLine);
+                    newChord.setChord(matcher.group(1));
+                    chords.add(newChord);
+                }
+                indexLine++;
+                if (flagWas == 1) {
+                    lyrics.append('\n');
+                }
+                flagWas = 1;
+            } else {
+                lyrics.append(line).append('\n');
+                if (flagWas == 0) {
+                    indexLine++;
+                }
+                flagWas = 0;
+            }
+        }
+
+        song.setLyrics(lyrics.toString().trim());
+        song.setChords(chords);
+        return song;
+    }
+}
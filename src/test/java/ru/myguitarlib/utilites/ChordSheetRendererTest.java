@@ -0,0 +1,151 @@
+package ru.myguitarlib.utilites;
+
+import org.junit.jupiter.api.Test;
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.model.song.Song;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChordSheetRendererTest {
+
+    private static final String[] WORDS = {"мы", "ждём", "перемен", "звезда", "по", "имени", "солнце", "и", "кровь", "—", "ля-ля"};
+    private static final String[] CHORDS = {"Am", "C", "Dm", "E", "F", "G", "G7", "Bb", "F#m", "Cmaj7", "Em", "G/B", "A6"};
+
+    private final ChordParser parser = new ChordParser();
+
+    @Test
+    void chordsGoAboveTheirLine() {
+        SongDto song = song("Группа крови на рукаве\n\nмой порядковый номер",
+                chord(0, 0, "Am"), chord(0, 7, "C"), chord(2, 4, "Dm"));
+
+        assertEquals("""
+                Am     C
+                Группа крови на рукаве
+
+                    Dm
+                мой порядковый номер
+                """, ChordSheetRenderer.render(song));
+        assertEquals(List.of(
+                new ChordSheetRenderer.Line("Am     C", "Группа крови на рукаве"),
+                new ChordSheetRenderer.Line(null, ""),
+                new ChordSheetRenderer.Line("    Dm", "мой порядковый номер")), ChordSheetRenderer.lines(song));
+    }
+
+    @Test
+    void longerTransposedChordPushesNextOne() {
+        // C и G стояли вплотную через пробел; C#m длиннее - G сдвигается, а не слипается
+        SongDto song = song("раз два", chord(0, 0, "C#m"), chord(0, 2, "G#"));
+        assertEquals("C#m G#\nраз два\n", ChordSheetRenderer.render(song));
+    }
+
+    @Test
+    void chordsBelowLastLyricsLineKeepTheirLines() {
+        SongDto song = song("конец", chord(1, 0, "Am"), chord(3, 2, "E"));
+        assertEquals("конец\nAm\n\n\n  E\n", ChordSheetRenderer.render(song));
+        assertEquals(List.of("1:0:Am", "3:2:E"), describe(parser.parser("", "", ChordSheetRenderer.render(song))));
+    }
+
+    @Test
+    void parseRenderParseIsStable() {
+        List<String> corpus = List.of(
+                """
+                Куплет1:
+                Am               F
+                Мы все живём с закрытыми глазами,
+                Dm      E
+                высоко поднятыми в небеса.
+
+                ПРИПЕВ:
+                              F
+                Миру нужен герой,
+                """,
+                "Am\nC\nтекст после двух строк аккордов\n",
+                "Am  F\r\nпервая\r\nвторая\r\n\r\nG\r\nтретья",
+                "текст\nAm  E\n\nC\nG7",
+                "одна строка");
+        for (String text : corpus) {
+            Song first = parser.parser("", "", text);
+            Song second = parser.parser("", "", ChordSheetRenderer.render(dto(first)));
+            assertEquals(first.getLyrics(), second.getLyrics(), text);
+            assertEquals(describe(first), describe(second), text);
+        }
+    }
+
+    // свойство: для любой песни, которую мог выдать парсер, parser(render(song)) == song
+    @Test
+    void renderIsInverseOfParserOnRandomSongs() {
+        Random random = new Random(20240601);
+        for (int n = 0; n < 2000; n++) {
+            SongDto song = randomSong(random);
+            String sheet = ChordSheetRenderer.render(song);
+            Song parsed = parser.parser("", "", sheet);
+
+            assertEquals(song.getLyrics(), parsed.getLyrics(), sheet);
+            assertEquals(describe(song.getChords()), describe(parsed), sheet);
+        }
+    }
+
+    private static SongDto randomSong(Random random) {
+        int lineCount = 1 + random.nextInt(12);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < lineCount; i++) {
+            boolean edge = i == 0 || i == lineCount - 1;   // парсер обрезает пробелы по краям текста
+            lines.add(!edge && random.nextInt(5) == 0 ? "" : randomLine(random));
+        }
+
+        List<SongChordDto> chords = new ArrayList<>();
+        int chordLines = lineCount + (random.nextInt(4) == 0 ? 1 + random.nextInt(3) : 0);   // иногда и ниже текста
+        for (int line = 0; line < chordLines; line++) {
+            if (random.nextInt(3) == 0) continue;
+            int column = random.nextInt(6);
+            for (int k = random.nextInt(4); k >= 0; k--) {
+                String symbol = CHORDS[random.nextInt(CHORDS.length)];
+                chords.add(chord(line, column, symbol));
+                column += symbol.length() + 1 + random.nextInt(8);
+            }
+        }
+        return song(String.join("\n", lines), chords.toArray(SongChordDto[]::new));
+    }
+
+    private static String randomLine(Random random) {
+        StringBuilder line = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for (int k = random.nextInt(6); k > 0; k--) {
+            line.append(random.nextInt(4) == 0 ? "  " : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return line.toString();
+    }
+
+    private static SongDto dto(Song song) {
+        return song(song.getLyrics(), song.getChords().stream()
+                .map(c -> chord(c.getLineIndex(), c.getCharIndex(), c.getChord()))
+                .toArray(SongChordDto[]::new));
+    }
+
+    private static SongDto song(String lyrics, SongChordDto... chords) {
+        SongDto dto = new SongDto();
+        dto.setLyrics(lyrics);
+        dto.setChords(List.of(chords));
+        return dto;
+    }
+
+    private static SongChordDto chord(int line, int ch, String symbol) {
+        return new SongChordDto(null, line, ch, symbol);
+    }
+
+    private static List<String> describe(Song song) {
+        return describe(song.getChords().stream()
+                .map(c -> chord(c.getLineIndex(), c.getCharIndex(), c.getChord()))
+                .toList());
+    }
+
+    private static List<String> describe(List<SongChordDto> chords) {
+        return chords.stream()
+                .map(c -> c.getLineIndex() + ":" + c.getCharIndex() + ":" + c.getChord())
+                .toList();
+    }
+}
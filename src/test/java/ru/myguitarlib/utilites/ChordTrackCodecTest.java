@@ -0,0 +1,61 @@
+package ru.myguitarlib.utilites;
+
+import org.junit.jupiter.api.Test;
+import ru.myguitarlib.model.song.Song;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChordTrackCodecTest {
+
+    @Test
+    void roundTripsParsedSong() {
+        Song song = new ChordParser().parser("artist", "title", """
+                Am               F
+                Мы все живём с закрытыми глазами,
+                Dm      E
+                высоко поднятыми в небеса.
+                G/B  C#m  Bb  Dmaj7
+                Am
+                C
+                последняя строка
+                """);
+        List<ChordTrackCodec.Entry> entries = song.getChords().stream()
+                .map(c -> new ChordTrackCodec.Entry(c.getLineIndex(), c.getCharIndex(), c.getChord()))
+                .toList();
+
+        assertEquals(entries, ChordTrackCodec.decode(ChordTrackCodec.encode(entries)));
+    }
+
+    @Test
+    void roundTripsArbitraryOrderAndLargeOffsets() {
+        Random random = new Random(42);
+        String[] symbols = {"Am", "F", "C#m7", "Ré", "", "G/B"};
+        for (int n = 0; n < 200; n++) {
+            List<ChordTrackCodec.Entry> entries = new ArrayList<>();
+            int count = random.nextInt(50);
+            for (int i = 0; i < count; i++) {
+                int line = random.nextInt(5) == 0 ? random.nextInt(100_000) : random.nextInt(40);
+                entries.add(new ChordTrackCodec.Entry(line, random.nextInt(300), symbols[random.nextInt(symbols.length)]));
+            }
+            assertEquals(entries, ChordTrackCodec.decode(ChordTrackCodec.encode(entries)));
+        }
+    }
+
+    @Test
+    void rejectsUnknownVersionAndTruncatedData() {
+        byte[] track = ChordTrackCodec.encode(List.of(new ChordTrackCodec.Entry(0, 5, "Am")));
+
+        byte[] otherVersion = track.clone();
+        otherVersion[0] = 9;
+        assertThrows(IllegalArgumentException.class, () -> ChordTrackCodec.decode(otherVersion));
+
+        byte[] truncated = Arrays.copyOf(track, track.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> ChordTrackCodec.decode(truncated));
+    }
+}
@@ -0,0 +1,119 @@
+package ru.myguitarlib.utilites;
+
+import org.junit.jupiter.api.Test;
+import ru.myguitarlib.dto.song.SongChordDto;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChordTransposerTest {
+
+    private final ChordDictionary dictionary = new ChordDictionary();
+    private final ChordTransposer transposer = new ChordTransposer(dictionary);
+
+    @Test
+    void transposesRootQualityAndBass() {
+        assertEquals("Bm", transposer.transpose("Am", 2));
+        assertEquals("B7", transposer.transpose("A7", 2));
+        assertEquals("Bm/A", transposer.transpose("Am/G", 2));
+        assertEquals("Fmaj7", transposer.transpose("Cmaj7", 5));
+        assertEquals("B6/9", transposer.transpose("A6/9", 2));
+    }
+
+    @Test
+    void spellsEnharmonics() {
+        // бемольные корни раньше не транспонировались вовсе
+        assertEquals("C", transposer.transpose("Bb", 2));
+        assertEquals("C", transposer.transpose("Eb", -3));
+        // у натурального корня написание берётся по тональности
+        assertEquals("Bbm", transposer.transpose("Am", 1));
+        assertEquals("F#m", transposer.transpose("Em", 2));
+        assertEquals("Db", transposer.transpose("C", 1));
+        // явный знак альтерации сохраняется
+        assertEquals("Dm", transposer.transpose("C#m", 1));
+        assertEquals("Eb/G", transposer.transpose("D/F#", 1));
+        assertEquals("C#m", transposer.transpose("Dm", -1));
+    }
+
+    @Test
+    void keepsSpellingForZeroShiftAndNormalizes() {
+        assertEquals("Am", transposer.transpose("(Am)", 0));
+        assertEquals("Am", transposer.transpose("Am", 12));
+        assertEquals("B/D", transposer.transpose("A//C", 2));
+        assertEquals("?", transposer.transpose("  ", 1));
+        assertEquals("?", transposer.transpose(null, 1));
+        assertEquals("am", transposer.transpose("am", 3));
+    }
+
+    @Test
+    void reusesTransposedStrings() {
+        dictionary.intern("G/B");
+        assertSame(transposer.transpose("G/B", 3), transposer.transpose("G/B", 3));
+    }
+
+    @Test
+    void transposesWholeSongInOrder() {
+        List<String> chords = List.of("Am", "F", "C", "G", "Am", "F", "C", "G");
+
+        assertEquals(List.of("Bm", "G", "D", "A", "Bm", "G", "D", "A"), transposer.transposeAll(chords, 2));
+        assertSame(chords, transposer.transposeAll(chords, 0));
+        assertSame(chords, transposer.transposeAll(chords, -12));
+    }
+
+    // ton=0 - аккорды песни не трогаются (запись нормализована при сохранении)
+    @Test
+    void zeroShiftSkipsSongChords() {
+        SongChordDto chord = new SongChordDto(1L, 0, 0, "Am", dictionary.idOf("Am"));
+        transposer.transposeChords(List.of(chord), 12);
+
+        assertEquals("Am", chord.getChord());
+        assertEquals(dictionary.idOf("Am"), chord.getChordId());
+    }
+
+    // общий словарь не растёт от произвольных строк: только аккорды разумной длины
+    @Test
+    void nonChordsAreTransposedWithoutDictionary() {
+        String longChord = "Am" + "7".repeat(ChordDictionary.MAX_SYMBOL_LENGTH);
+        int size = dictionary.stats().size();
+        assertEquals("Припев:", transposer.transpose("Припев:", 2));
+        assertEquals("Bm" + "7".repeat(ChordDictionary.MAX_SYMBOL_LENGTH), transposer.transpose(longChord, 2));
+        assertEquals(size, dictionary.stats().size());
+
+        assertEquals(-1, dictionary.intern("Припев:"));
+        assertEquals(-1, dictionary.intern(longChord));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.idOf("Припев:"));
+
+        // показ песни словарь не пополняет - только сохранение
+        assertEquals("Fm7", transposer.transpose("Ebm7", 2));
+        assertEquals(size, dictionary.stats().size());
+        dictionary.intern("Ebm7");
+        assertEquals(size + 1, dictionary.stats().size());
+    }
+
+    // в общий словарь - только аккорды по грамматике: известное качество и бас
+    @Test
+    void dictionaryTakesOnlyWellFormedChords() {
+        for (String chord : List.of("Am", "C#m7b5", "Bbmaj7", "Dsus4", "G7#9", "Cadd9", "E5", "F6/9", "A/C#", "Cdim", "Caug")) {
+            assertTrue(dictionary.intern(chord) >= 0, chord);
+        }
+        for (String chord : List.of("Good", "Dance", "C0", "C9999", "Am/Cxyz", "Bbb")) {
+            assertEquals(-1, dictionary.intern(chord), chord);
+        }
+    }
+
+    @Test
+    void chordsFromRowsUseDictionaryId() {
+        SongChordDto fromRows = new SongChordDto(1L, 0, 0, "Am", dictionary.idOf("Am"));
+        SongChordDto fromTrack = new SongChordDto(null, 0, 4, "G/B");
+        transposer.transposeChords(List.of(fromRows, fromTrack), 2);
+
+        assertEquals("Bm", fromRows.getChord());
+        assertNull(fromRows.getChordId());   // id был у "Am", не у "Bm"
+        assertEquals("A/C#", fromTrack.getChord());
+    }
+}
@@ -0,0 +1,58 @@
+package ru.myguitarlib.utilites;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class KeyDetectorTest {
+
+    @Test
+    void detectsMajorAndMinorKeys() {
+        assertEquals("Am", name("Am", "F", "Dm", "E", "F", "Dm", "E", "Am", "F", "G", "Am"));
+        assertEquals("C", name("C", "G", "Am", "F", "C", "G", "F", "C"));
+        assertEquals("G", name("G", "D/F#", "Em", "C", "G", "D", "G"));
+        assertEquals("Em", name("Em", "C", "G", "D", "Em", "C", "B7", "Em"));
+        assertEquals("Bb", name("Bb", "Eb", "F7", "Gm", "Eb", "F", "Bb"));
+        assertEquals("F#m", name("F#m", "D", "A", "E", "F#m", "C#7", "F#m"));
+    }
+
+    @Test
+    void sameProgressionTransposedGivesTransposedKey() {
+        List<String> song = List.of("Am", "Dm", "G7", "Cmaj7", "Fmaj7", "Bm7b5", "E7", "Am");
+        for (int shift = 0; shift < 12; shift++) {
+            int s = shift;
+            List<String> transposed = song.stream().map(c -> ChordSymbol.parse(c).transpose(s)).toList();
+            assertEquals(KeyDetector.Key.ofCode(12 + (9 + shift) % 12), KeyDetector.detect(transposed), "+" + shift);
+        }
+    }
+
+    @Test
+    void tooFewChordsIsUnknown() {
+        assertNull(KeyDetector.detect(List.of("Am", "E")));
+        assertNull(KeyDetector.detect(List.of("Am", "H", "Куплет", "?")));
+        assertEquals(KeyDetector.UNKNOWN, KeyDetector.code(List.of()));
+    }
+
+    @Test
+    void parsesKeyNamesWithEnharmonics() {
+        assertEquals(new KeyDetector.Key(9, true), KeyDetector.Key.parse("am"));
+        assertEquals(new KeyDetector.Key(10, false), KeyDetector.Key.parse("A#"));
+        assertEquals(new KeyDetector.Key(10, false), KeyDetector.Key.parse("Bb"));
+        assertEquals(new KeyDetector.Key(0, false), KeyDetector.Key.parse("Cmaj"));
+        assertNull(KeyDetector.Key.parse("Am7"));
+        assertNull(KeyDetector.Key.parse("C/G"));
+        assertNull(KeyDetector.Key.parse("X"));
+
+        for (int code = 0; code < 24; code++) {
+            KeyDetector.Key key = KeyDetector.Key.ofCode(code);
+            assertEquals(key, KeyDetector.Key.parse(key.name()));
+        }
+    }
+
+    private static String name(String... chords) {
+        return KeyDetector.detect(List.of(chords)).name();
+    }
+}
@@ -0,0 +1,57 @@
+package ru.myguitarlib.utilites;
+
+import org.junit.jupiter.api.Test;
+import ru.myguitarlib.dto.song.LibraryVersion;
+import ru.myguitarlib.dto.song.SongVersion;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SongETagsTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2025, 3, 1, 12, 0, 0, 123_456_000);
+
+    @Test
+    void songTagDependsOnVersionAndTonality() {
+        String tag = SongETags.song(new SongVersion(7L, T), 2);
+
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""), tag);   // сильный, не W/
+        assertEquals(tag, SongETags.song(new SongVersion(7L, T), 2));
+        assertEquals(tag, SongETags.song(new SongVersion(7L, T), 14));    // ton=14 - то же, что 2
+        assertEquals(tag, SongETags.song(new SongVersion(7L, T), -10));
+        assertNotEquals(tag, SongETags.song(new SongVersion(7L, T), 3));
+        assertNotEquals(tag, SongETags.song(new SongVersion(8L, T), 2));
+        assertNotEquals(tag, SongETags.song(new SongVersion(7L, T.plusNanos(1000)), 2));
+    }
+
+    @Test
+    void songTagWithoutUpdatedAt() {
+        assertEquals("\"s7-0-t0\"", SongETags.song(new SongVersion(7L, null), 0));
+    }
+
+    @Test
+    void sheetTagDiffersFromSongTag() {
+        SongVersion version = new SongVersion(7L, T);
+        String tag = SongETags.sheet(version, 2, false);
+
+        assertEquals(tag, SongETags.sheet(version, 14, false));
+        assertNotEquals(tag, SongETags.sheet(version, 2, true));
+        assertNotEquals(tag, SongETags.sheet(version, 3, false));
+        assertNotEquals(tag, SongETags.song(version, 2));
+    }
+
+    @Test
+    void libraryTagChangesWithCountTimeUserAndVariant() {
+        String tag = SongETags.library(1L, new LibraryVersion(10L, T), "d");
+
+        assertEquals(tag, SongETags.library(1L, new LibraryVersion(10L, T), "d"));
+        assertNotEquals(tag, SongETags.library(1L, new LibraryVersion(9L, T), "d"));            // удаление
+        assertNotEquals(tag, SongETags.library(1L, new LibraryVersion(10L, T.plusNanos(1)), "d")); // правка
+        assertNotEquals(tag, SongETags.library(2L, new LibraryVersion(10L, T), "d"));
+        assertNotEquals(tag, SongETags.library(1L, new LibraryVersion(10L, T), "r"));
+        assertEquals("\"l1-0-0-d\"", SongETags.library(1L, new LibraryVersion(0L, null), "d"));
+    }
+}
@@ -0,0 +1,110 @@
+package ru.myguitarlib.utilites;
+
+import org.junit.jupiter.api.Test;
+import ru.myguitarlib.dto.song.SongChordDto;
+import ru.myguitarlib.dto.song.SongDto;
+import ru.myguitarlib.mapper.SongMapper;
+import ru.myguitarlib.model.song.Song;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Двоичный ответ должен раскодироваться в то же, что SongMapper.toDto отдаёт JSON'ом
+class SongWireCodecTest {
+
+    private static final String TEXT = """
+            Am               F
+            Мы все живём с закрытыми глазами,
+            Dm      E
+            высоко поднятыми в небеса.
+                 F       Dm
+            Придёт ли кто,
+                                E            Am
+            чтобы однажды наши веки распахнуть,
+                F         G Am
+            когда-нибудь?
+            """;
+
+    private final ChordParser parser = new ChordParser();
+
+    @Test
+    void roundTripsMapperOutputInBothStorageModes() {
+        Song rows = song();
+        Song track = song();
+        SongMapper.packChordTrack(track);
+
+        for (Song song : List.of(rows, track)) {
+            SongDto expected = SongMapper.toDto(song);
+            SongDto actual = SongWireCodec.decode(SongWireCodec.encode(expected));
+            assertEquals(describe(expected), describe(actual));
+        }
+    }
+
+    @Test
+    void keepsNullsAndNegativeNumbers() {
+        SongDto dto = new SongDto();
+        dto.setId(Long.MAX_VALUE);
+        dto.setScrollSpeed(-3);
+        dto.setTitle("");
+
+        SongDto actual = SongWireCodec.decode(SongWireCodec.encode(dto));
+
+        assertEquals(describe(dto), describe(actual));
+        assertNull(actual.getArtist());
+        assertNull(actual.getFontSize());
+        assertNull(actual.getChords());
+    }
+
+    @Test
+    void isMuchSmallerThanChordObjects() {
+        SongDto dto = SongMapper.toDto(song());
+        int chordBytes = SongWireCodec.encode(dto).length - SongWireCodec.encode(withoutChords(dto)).length;
+
+        // в JSON один аккорд - объект из четырёх полей, десятки байт
+        assertTrue(chordBytes < dto.getChords().size() * 6, "аккорды заняли " + chordBytes + " байт");
+    }
+
+    @Test
+    void rejectsBrokenData() {
+        byte[] bytes = SongWireCodec.encode(SongMapper.toDto(song()));
+
+        assertThrows(IllegalArgumentException.class, () -> SongWireCodec.decode(new byte[]{9}));
+        assertThrows(IllegalArgumentException.class,
+                () -> SongWireCodec.decode(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> SongWireCodec.decode(Arrays.copyOf(bytes, bytes.length + 1)));
+    }
+
+    private Song song() {
+        Song song = parser.parser("Кино", "Хочу перемен", TEXT);
+        song.setId(42L);
+        song.setComment("каподастр на 2");
+        song.setScrollSpeed(5);
+        song.setFontSize(1);
+        return song;
+    }
+
+    private static SongDto withoutChords(SongDto dto) {
+        SongDto copy = SongWireCodec.decode(SongWireCodec.encode(dto));
+        copy.setChords(null);
+        return copy;
+    }
+
+    // id строк song_chords в двоичный формат не входят
+    private static List<Object> describe(SongDto dto) {
+        List<String> chords = dto.getChords() == null ? null : dto.getChords().stream()
+                .map(SongWireCodecTest::describe)
+                .toList();
+        return Arrays.asList(dto.getId(), dto.getScrollSpeed(), dto.getFontSize(),
+                dto.getArtist(), dto.getTitle(), dto.getComment(), dto.getLyrics(), chords);
+    }
+
+    private static String describe(SongChordDto chord) {
+        return chord.getLineIndex() + ":" + chord.getCharIndex() + ":" + chord.getChord();
+    }
+}